@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.traccar.model.AttributeMap;
+import org.traccar.model.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and reading a typical set of position attributes, comparing a boxed LinkedHashMap, AttributeMap used as a
+ * plain map and AttributeMap through its typed accessors. Run with "-prof gc" to compare allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributeMapBenchmark {
+
+    @Param({"linked", "boxed", "typed"})
+    private String variant;
+
+    private int counter;
+
+    @Benchmark
+    public void buildAndRead(Blackhole blackhole) {
+        int i = counter++;
+        if (variant.equals("typed")) {
+            AttributeMap map = new AttributeMap();
+            map.set(Position.KEY_SATELLITES, 5 + i % 7);
+            map.set(Position.KEY_HDOP, 0.9 + i);
+            map.set(Position.KEY_ODOMETER, 1000000L + i);
+            map.set(Position.KEY_IGNITION, i % 2 == 0);
+            map.set(Position.KEY_POWER, 12.4 + i);
+            map.set(Position.KEY_BATTERY, 4.1 + i);
+            map.set(Position.KEY_FUEL_LEVEL, 35.5 + i);
+            map.set(Position.KEY_DISTANCE, 12.3 + i);
+            map.set(Position.KEY_TOTAL_DISTANCE, 5.0e6 + i);
+            map.set(Position.KEY_HOURS, 3600000L + i);
+            blackhole.consume(map.getDouble(Position.KEY_POWER, 0));
+            blackhole.consume(map.getDouble(Position.KEY_DISTANCE, 0));
+            blackhole.consume(map.getDouble(Position.KEY_TOTAL_DISTANCE, 0));
+            blackhole.consume(map.getInteger(Position.KEY_SATELLITES, 0));
+            blackhole.consume(map.getLong(Position.KEY_HOURS, 0));
+            blackhole.consume(map);
+        } else {
+            Map<String, Object> map = variant.equals("linked") ? new LinkedHashMap<>() : new AttributeMap();
+            map.put(Position.KEY_SATELLITES, 5 + i % 7);
+            map.put(Position.KEY_HDOP, 0.9 + i);
+            map.put(Position.KEY_ODOMETER, 1000000L + i);
+            map.put(Position.KEY_IGNITION, i % 2 == 0);
+            map.put(Position.KEY_POWER, 12.4 + i);
+            map.put(Position.KEY_BATTERY, 4.1 + i);
+            map.put(Position.KEY_FUEL_LEVEL, 35.5 + i);
+            map.put(Position.KEY_DISTANCE, 12.3 + i);
+            map.put(Position.KEY_TOTAL_DISTANCE, 5.0e6 + i);
+            map.put(Position.KEY_HOURS, 3600000L + i);
+            blackhole.consume(((Number) map.get(Position.KEY_POWER)).doubleValue());
+            blackhole.consume(((Number) map.get(Position.KEY_DISTANCE)).doubleValue());
+            blackhole.consume(((Number) map.get(Position.KEY_TOTAL_DISTANCE)).doubleValue());
+            blackhole.consume(((Number) map.get(Position.KEY_SATELLITES)).intValue());
+            blackhole.consume(((Number) map.get(Position.KEY_HOURS)).longValue());
+            blackhole.consume(map);
+        }
+    }
+
+}
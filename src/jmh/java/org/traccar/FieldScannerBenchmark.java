@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.traccar.helper.FieldScanner;
+import org.traccar.helper.Parser;
+import org.traccar.protocol.Gl200TextProtocolDecoder;
+import org.traccar.protocol.Gps103ProtocolDecoder;
+import org.traccar.protocol.Tk103ProtocolDecoder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Matching cost of the decoder patterns compiled as {@link Pattern} and as {@link FieldScanner}. Every message of the
+ * corpus is matched against every pattern of its decoder, so both matching and rejecting inputs are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldScannerBenchmark {
+
+    private record Corpus(Class<?> decoder, List<String> messages) {
+    }
+
+    private static final Map<String, Corpus> CORPUS = Map.of(
+            "gl200", new Corpus(Gl200TextProtocolDecoder.class, List.of(
+                    "+RESP:GTFRI,DE0114,865284042140479,,0,0,1,1,0.0,0,28.0,-118.268093,33.975430,20200901105954,0311,"
+                + "0480,3500,00D07F02,18,0,,93,0,,,20200901110000,0355$",
+                    "+RESP:GTMPN,450102,865084030001323,gb100,0,1.6,0,-93.1,121.393023,31.164105,20170619103113,0460,"
+                + "0000,1806,2142,00,20170619103143,0512$",
+                    "+RESP:GTINF,210102,A10000499AEF9B,,41,,0,0,0,15.0,9,3.87,0,1,1,0,0,20161101140211,72,,,,,"
+                + "20161101140211,00A3$")),
+            "gps103", new Corpus(Gps103ProtocolDecoder.class, List.of(
+                    "imei:864035050002451,tracker,201223064947,,F,064947,A,1935.70640,N,09859.94436,W,0.025,;",
+                    "imei:760112011448012,001,2001151918,,F,191833.000,A,6136.6174,N,2126.9901,E,0.00,202.6,-0.1,1,,,"
+                + ",20;",
+                    "imei:868683027758113,OBD,180905200218,,,,0,0,0.39%,70,9.41%,494,0.00,P0137,P0430,,;")),
+            "tk103", new Corpus(Tk103ProtocolDecoder.class, List.of(
+                    "(868822040452227,DW3B,150421,A,4154.51607N,45.78950E,0.050,103142,0.000,595.200,7,0)",
+                    "(086375304593BR00210119A2220.0160N11335.4073E0000014000309.84001000293L0000015FP23BS27F)",
+                    "(027023361470BR00200617A4000.5775N 8415.4076W 46.0173725 87.3101000000L00000000)")));
+
+    @Param({"gl200", "gps103", "tk103"})
+    private String protocol;
+
+    @Param({"regex", "scanner"})
+    private String engine;
+
+    private List<Function<String, Parser>> parsers;
+    private List<String> messages;
+
+    @Setup
+    public void setup() throws Exception {
+        Corpus corpus = CORPUS.get(protocol);
+        messages = corpus.messages();
+        parsers = new ArrayList<>();
+        for (Field field : corpus.decoder().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == FieldScanner.class) {
+                field.setAccessible(true);
+                FieldScanner scanner = (FieldScanner) field.get(null);
+                if (engine.equals("regex")) {
+                    Pattern pattern = Pattern.compile(scanner.pattern(), Pattern.DOTALL);
+                    parsers.add(input -> new Parser(pattern, input));
+                } else {
+                    parsers.add(input -> new Parser(scanner, input));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void match(Blackhole blackhole) {
+        for (String message : messages) {
+            for (Function<String, Parser> parser : parsers) {
+                Parser result = parser.apply(message);
+                if (result.matches()) {
+                    blackhole.consume(result.next());
+                } else {
+                    blackhole.consume(false);
+                }
+            }
+        }
+    }
+
+}
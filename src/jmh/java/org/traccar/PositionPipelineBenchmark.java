@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.broadcast.NullBroadcastService;
+import org.traccar.config.Config;
+import org.traccar.database.StatisticsManager;
+import org.traccar.handler.BasePositionHandler;
+import org.traccar.handler.ComputedAttributesHandler;
+import org.traccar.handler.CopyAttributesHandler;
+import org.traccar.handler.DistanceHandler;
+import org.traccar.handler.EngineHoursHandler;
+import org.traccar.handler.FilterHandler;
+import org.traccar.handler.GeofenceHandler;
+import org.traccar.handler.HemisphereHandler;
+import org.traccar.handler.MotionHandler;
+import org.traccar.handler.OutdatedHandler;
+import org.traccar.helper.model.GeofenceUtil;
+import org.traccar.metrics.MetricsManager;
+import org.traccar.model.Device;
+import org.traccar.model.Geofence;
+import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Request;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Position processing against in-memory storage: the synchronous handler chain, cache lookups and geofence checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionPipelineBenchmark {
+
+    private static final double LATITUDE = 48.8566;
+    private static final double LONGITUDE = 2.3522;
+
+    @Param({"10", "100"})
+    private int geofenceCount;
+
+    private Config config;
+    private CacheManager cacheManager;
+    private List<BasePositionHandler> handlers;
+    private long deviceId;
+    private long time;
+    private int step;
+
+    @Setup
+    public void setup() throws Exception {
+        config = new Config();
+        Storage storage = new MemoryStorage();
+
+        Device device = new Device();
+        device.setName("benchmark");
+        device.setUniqueId("123456789012345");
+        deviceId = storage.addObject(device, new Request(new Columns.Exclude("id")));
+        device.setId(deviceId);
+
+        for (int i = 0; i < geofenceCount; i++) {
+            Geofence geofence = new Geofence();
+            geofence.setName("geofence" + i);
+            geofence.setArea("CIRCLE (" + (LATITUDE + i * 0.001) + " " + LONGITUDE + ", 100)");
+            geofence.setId(storage.addObject(geofence, new Request(new Columns.Exclude("id"))));
+            storage.addPermission(new Permission(Device.class, deviceId, Geofence.class, geofence.getId()));
+        }
+
+        cacheManager = new CacheManager(config, storage, new NullBroadcastService(), new MetricsManager());
+        cacheManager.addDevice(deviceId);
+
+        handlers = List.of(
+                new OutdatedHandler(cacheManager),
+                new HemisphereHandler(config),
+                new DistanceHandler(config, cacheManager),
+                new FilterHandler(config, cacheManager, storage, mock(StatisticsManager.class)),
+                new GeofenceHandler(config, cacheManager),
+                new MotionHandler(cacheManager),
+                new ComputedAttributesHandler(config, cacheManager),
+                new EngineHoursHandler(cacheManager),
+                new CopyAttributesHandler(config, cacheManager));
+
+        time = System.currentTimeMillis();
+    }
+
+    private Position createPosition() {
+        step += 1;
+        Position position = new Position("benchmark");
+        position.setDeviceId(deviceId);
+        Date date = new Date(time + step * 1000L);
+        position.setServerTime(date);
+        position.setDeviceTime(date);
+        position.setFixTime(date);
+        position.setValid(true);
+        position.setLatitude(LATITUDE + (step % 100) * 0.0001);
+        position.setLongitude(LONGITUDE);
+        position.setSpeed(step % 50);
+        position.set(Position.KEY_IGNITION, step % 10 != 0);
+        return position;
+    }
+
+    @Benchmark
+    public Position handlers() {
+        Position position = createPosition();
+        for (BasePositionHandler handler : handlers) {
+            handler.handlePosition(position, filtered -> { });
+        }
+        cacheManager.updatePosition(position);
+        return position;
+    }
+
+    @Benchmark
+    public Object cacheLookup() {
+        return cacheManager.getObject(Device.class, deviceId);
+    }
+
+    @Benchmark
+    public List<Long> geofences() {
+        return GeofenceUtil.getCurrentGeofences(config, cacheManager, createPosition());
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.protocol.CastelProtocolDecoder;
+import org.traccar.protocol.EelinkProtocolDecoder;
+import org.traccar.protocol.GalileoProtocolDecoder;
+import org.traccar.protocol.Gl200TextProtocolDecoder;
+import org.traccar.protocol.Gps103ProtocolDecoder;
+import org.traccar.protocol.Gt06ProtocolDecoder;
+import org.traccar.protocol.H02ProtocolDecoder;
+import org.traccar.protocol.HuabaoProtocolDecoder;
+import org.traccar.protocol.Jt600ProtocolDecoder;
+import org.traccar.protocol.MeiligaoProtocolDecoder;
+import org.traccar.protocol.MeitrackProtocolDecoder;
+import org.traccar.protocol.RuptelaProtocolDecoder;
+import org.traccar.protocol.SuntechProtocolDecoder;
+import org.traccar.protocol.T55ProtocolDecoder;
+import org.traccar.protocol.TeltonikaProtocolDecoder;
+import org.traccar.protocol.Tk103ProtocolDecoder;
+import org.traccar.protocol.TotemProtocolDecoder;
+import org.traccar.protocol.WatchProtocolDecoder;
+import org.traccar.protocol.WialonProtocolDecoder;
+import org.traccar.protocol.XexunProtocolDecoder;
+import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceSession;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Decoding cost of a single message for common protocols. Samples are taken from the decoder unit tests. Teltonika
+ * also has recorded multi-record Codec 8 and Codec 8E batches. Every message resolves to the same device session, so
+ * results exclude session lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolDecoderBenchmark extends ProtocolTest {
+
+    private record Sample(Supplier<BaseProtocolDecoder> decoder, String type, String data) {
+    }
+
+    private static final Map<String, Sample> SAMPLES = Map.ofEntries(
+            Map.entry("teltonika", new Sample(
+                    () -> new TeltonikaProtocolDecoder(null, false), "binary",
+                    "00000000000000728e010000018b23dd796300fbf7263c24f9e11a000000000000000224000100000000000000000001"
+                + "0224004501210001e50110cde39f7e42bb55aa788e4a29ed650055020ab70a8f264c6000ffff6b210001b00110f89b90"
+                + "7e42bb55aaa3463b29ed650055020ab708bb2600ae0500096c01000051d4")),
+            Map.entry("teltonika8", new Sample(
+                    () -> new TeltonikaProtocolDecoder(null, false), "binary",
+                    "0000000000000401080e0000015d12cc211000fadaf627186742f5000d0048080006000a040100f00150051500034231"
+                + "8a430fe344000003c700000000f1000068b61000001b05000000015d12c6683800fadaf72118673f8200000000000000"
+                + "0007030100f00050040342318a430fe344000001f1000068b6000000015d12bd407800fadaf72118673f820000000000"
+                + "00000007030100f000500403423179430fe144000001f1000068b6000000015d12b414d000fadaf72118673f82000400"
+                + "900c0000fa120a0100f00050051502080007010552090e6f4bfa000542316a430fe14400000600006202b203c7000023"
+                + "28f1000068b61000001b05000000015d12b3074800fadaf2821867436a000400890d00170011090100f0015001150208"
+                + "1007010553090e6f4d054231fb430fe14400000603ae6202a003c700002328f1000068b61000001b05000000015d12b2"
+                + "ff7800fadaee89186747c60005009a0d001d0011090100f00150011502081b07010553090e6f4d05423125430fe14400"
+                + "0006050862029e03c700002328f1000068b61000001b05000000015d12b2e42000fadae8cf18675e0a000300a60d0021"
+                + "0011090101f00150011502082407030554090e6f4d0542310a430fe14400000606cf62029703c700002328f1000068b6"
+                + "1000001b05000000015d12b2d48000fadae05818676a16000400930c00240011090100f0015001150208220701055409"
+                + "0e6f4e05423738430fe144000006066a62029303c700002328f1000068b61000001b05000000015d12b2a1b800fadac3"
+                + "3e18678e48000600940d00150011090101f00150051500081907030553090e6f4e054239cc430fe14400000607c66202"
+                + "8603c700002328f1000000001000001b05000000015d12b29dd000fadac19d18678fc8000700820d00110011090100f0"
+                + "0150051500081607030553090e6f4e054238c8430fe14400000606d962028503c700002328f1000000001000001b0500"
+                + "0000015d12b299e800fadabfa9186790e3000700670d00110011090101f00150051500081407030553090e6f4e054231"
+                + "e5430fe144000006060a62028403c700002328f1000000001000001b05000000015d12b2960000fadabd401867910400"
+                + "0600510d00120011090101f00150051500081207030553090e6f4e054231ce430fe144000006057062028303c7000023"
+                + "28f1000000001000001b05000000015d12b27aa800fadaa96518678b7c000600470d00120011090101f0015005150008"
+                + "1807030551090e6f4e05423a70430fe144000006074462027c03c700002328f1000000001000001b05000000015d12b2"
+                + "76c000fadaa73f18678ae60006003b0d000e0011090101f00150051500081607030551090e6f4e05423a5a430fe14400"
+                + "000606b762027b03c700002328f1000000001000001b05000e000007a4")),
+            Map.entry("teltonika8e", new Sample(
+                    () -> new TeltonikaProtocolDecoder(null, false), "binary",
+                    "00000000000004258e0400000182a701b49301d5d90ab7ebe4aae101be003d12000000f7003d000e00f70100ef0000f0"
+                + "0000500500150200c800004501000100001d00001400001600001700007157010701001d00b5000b00b6000600423040"
+                + "0018000000cd223f00ce741700430f8900440000000d00010011ffe50012001f0013ffce000f03e800190bb8001a0bb8"
+                + "001b0bb8001c0bb800560bb800680bb8006a0bb8006c0bb8010e0000011100000114000001170000014f000001500000"
+                + "0151000001520000000a00f100011d2a00c700000000001000b9addc000c0000acb60004000000000132000000000133"
+                + "0000000001340000000001350000000001c1000000000003000b000000d14675f36000ee0000000000000000000e0000"
+                + "000003fd509f0005014b0000014c0000014d0000014e0000018300222d3333373333382e0100000053a6fb6245880400"
+                + "01ba86064f0eae51c0fdaf4d3de500000182a701b82001d5d90ab7ebe4aae101be003d12000000f0003c000d00ef0000"
+                + "f00100500500150200c800004501000100001d00001400001600001700007152010701001d00b5000900b60006004217"
+                + "e50018000000cd223f00ce741700430f5c00440000000d00010011fed60012fd1d0013f1f2000f03e800190bb8001a0b"
+                + "b8001b0bb8001c0bb800560bb800680bb8006a0bb8006c0bb8010e0000011100000114000001170000014f0000015000"
+                + "000151000001520000000a00f100011d2a00c700000000001000b9addc000c0000acb600040000000001320000000001"
+                + "330000000001340000000001350000000001c1000000000003000b000000d14675f36000ee0000000000000000000e00"
+                + "00000003fd509f0005014b0000014c0000014d0000014e0000018300222d3333373333352e353833332d303730373139"
+                + "362e323333332b3030302e3434362f00000182a701bc0801d5d90ab7ebe4aae101be003d12000000fc003d000e00ef00"
+                + "00f00100500500150200c800004501000100001d0000140000160000170000714d01070100fc01001d00b5000900b600"
+                + "06004217e50018000000cd223f00ce741700430f5c00440000000d00010011fed60012fd1d0013f1f2000f03e800190b"
+                + "b8001a0bb8001b0bb8001c0bb800560bb800680bb8006a0bb8006c0bb8010e0000011100000114000001170000014f00"
+                + "00015000000151000001520000000a00f100011d2a00c700000000001000b9addc000c0000acb6000400000000013200"
+                + "00000001330000000001340000000001350000000001c1000000000003000b000000d14675f36000ee00000000000000"
+                + "00000e0000000003fd509f0005014b0000014c0000014d0000014e0000018300222d3333373333352e353833332d3037"
+                + "30373139362e323333332b3030302e3434362f00000182a7018d8d01d5d8ffa6ebe4a0ca01be006111000000f7000100"
+                + "0100f70500000000000000000400003a10")),
+            Map.entry("gt06", new Sample(
+                    () -> new Gt06ProtocolDecoder(null), "binary",
+                    "787840a218061b0e0f05cf021d22430aa2660b005c00014e140000026500000000024d4e02114504df06031c010007d0"
+                + "0000000000086973105524576500c802a86fda0d0a")),
+            Map.entry("h02", new Sample(
+                    () -> new H02ProtocolDecoder(null), "buffer",
+                    "*HQ,3177718238,V6,002926,V,3514.4088,N,9733.2842,W,0.00,0.00,151222,FFF7FBFF,310,260,32936,13641"
+                + ",8944501311217563382F,#")),
+            Map.entry("gps103", new Sample(
+                    () -> new Gps103ProtocolDecoder(null), "text",
+                    "imei:864035050002451,tracker,201223064947,,F,064947,A,1935.70640,N,09859.94436,W,0.025,;")),
+            Map.entry("tk103", new Sample(
+                    () -> new Tk103ProtocolDecoder(null), "text",
+                    "(007030201454BS5190:02150000753001DC,91:0EE8060EDC0A01DC,92:42014201DC0A01DC,93:00010127000037C8"
+                + ",94:0E01000002000000,95:020EE10EE20EE800030EE40EE00EE700040EDD0EE40EE400050EDC0EDF0EE400,96:0142"
+                + "000000000000,97:0000000000000000,98:0000000000000000)")),
+            Map.entry("gl200text", new Sample(
+                    () -> new Gl200TextProtocolDecoder(null), "buffer",
+                    "+RESP:GTINF,423036,866884046104139,,41,89103000000064820042,22,99,0,,,3.82,0,0,1,0,0,20240622183"
+                + "159,57,,,,,20240623011548,005C$")),
+            Map.entry("meitrack", new Sample(
+                    () -> new MeitrackProtocolDecoder(null), "binary",
+                    "2424533232312c3836323331313036323737393431362c4343452c000000000100bb001c0006012305000600071f1500"
+                + "fe6961050800000900000a00000b00001aca000702a72c52030340a0c90004f3408b2c0ca80100000d238d08001c0100"
+                + "0000fe37000000000a0e0cf00001002700167aa601a0ff1d082abd890a491cd2ff1e0828bd890a491cd2ff1f0842490f"
+                + "526db0caff20083c286d5b082cc9ff21083e286d5b082cc9ff2208ac233fc0d2e0c7ff2308b0411d64d9d5c7ff2408ae"
+                + "233fc0d496c3ff4b150101124c54452845555452414e2d42414e443230292a38420d0a")),
+            Map.entry("watch", new Sample(
+                    () -> new WatchProtocolDecoder(null), "buffer",
+                    "[3G*9705141740*00C2*UD_LTE,260723,185105,V,00.000000,,00.0000000,,0.00,0.0,0.0,0,100,67,0,0,0000"
+                + "0000,2,0,605,1,10006,65799,14,10020,4104,4,3,,34:60:f9:ec:19:f8,-82,,98:48:27:55:18:20,-96,,34:e"
+                + "8:94:e4:06:18,-104,0.0]")),
+            Map.entry("huabao", new Sample(
+                    () -> new HuabaoProtocolDecoder(null), "binary",
+                    "7e55018c378580120300032a06052117594022348474113550560705981e0400000002370ac30c0c2866030800000010"
+                + "0101020200000a0301cc000c0600a2ffa7ff5e1b7e")),
+            Map.entry("suntech", new Sample(
+                    () -> new SuntechProtocolDecoder(null), "buffer",
+                    "ST419STT;807587388;306;41;04;30062;724;2;-65;5221;255;30061;724;2;5221;0;0;30212;724;2;5221;0;0;"
+                + "30071;724;2;5221;0;0;30222;724;2;5221;0;0;30213;724;2;5221;0;0;30063;724;2;5221;0;0;3.92;1;0185;"
+                + "1;00010000;26.1;1;20240729;19:22:43;-22.754650;-043.437569;000.185;297.35;6;1")),
+            Map.entry("ruptela", new Sample(
+                    () -> new RuptelaProtocolDecoder(null), "binary",
+                    "00800003167d765c155d01000160cd0a310000faae43f7176ee45702332b0c12000006070d05007300cfff2600820086"
+                + "00870088000f00d7021100d801c900061d0000c500001e0e988300008900008b000002d0000c9bca720c889a0b047e00"
+                + "000000000000007f0000000000000000800000000000000000810000000000000000a341")),
+            Map.entry("galileo", new Sample(
+                    () -> new GalileoProtocolDecoder(null), "binary",
+                    "011801018202130338363833343530333230343234323604640010a406207caa9f5b300c830a7901ca0ec80233000000"
+                + "0034b802350540003e41703f422b1043234504004600e09000000000a000a100a200a300a400a500a600a700a800a900"
+                + "aa00ab00ac00ad00ae00af00b00000b10000b20000b30000b40000b50000b60000b70000b80000b90000c000000000c1"
+                + "00000000c200000000c300000000c400c500c600c700c800c900ca00cb00cc00cd00ce00cf00d000d100d200d4d31400"
+                + "00d60000d70000d80000d90000da0000db00000000dc00000000dd00000000de00000000df00000000f000000000f100"
+                + "000000f200000000f300000000f400000000f500000000f600000000f700000000f800000000f9000000008960")),
+            Map.entry("xexun", new Sample(
+                    () -> new XexunProtocolDecoder(null, false), "text",
+                    "GPRMC,.000,A,0.000000,S,0.0000,W,0.00,0.00,,00,0000.0,A*55,L,,imei:353579010727036,")),
+            Map.entry("meiligao", new Sample(
+                    () -> new MeiligaoProtocolDecoder(null), "binary",
+                    "2424011e143190975469ff99993130343634382e3030302c562c303735332e353338332c4e2c30393832322e31373738"
+                + "2c452c302e30302c302c3230303132302c2c2a31417c302e307c307c363430307c303030302c303030302c303130312c"
+                + "303238467c30323038303030353137444630304633363838467c30387c30303030314242367c30307c2520205e59454e"
+                + "53414241494348414924534f4e474b52414e244d522e5e5e3f3b363030373634333130303530303337333835333d3135"
+                + "303531393637303631343d3f2b2020202020202020202020202032342020202020202020202020203120202020202020"
+                + "202020202030303034313131202030303130302020202020202020202020202020202020202020203f7b850d0a")),
+            Map.entry("totem", new Sample(
+                    () -> new TotemProtocolDecoder(null), "text",
+                    "$$0111AA353081090067318|0804400022070722520240400005B364ED5003107300001.700000002245.3919N10231."
+                + "6952W000001860E")),
+            Map.entry("castel", new Sample(
+                    () -> new CastelProtocolDecoder(null), "binary",
+                    "404043000432313357503230313830303138323400000000004005f064d95c8365d95c9f2f0100c50200004006000000"
+                + "000000040003440068000000000100f3660d0a")),
+            Map.entry("jt600", new Sample(
+                    () -> new Jt600ProtocolDecoder(null), "binary",
+                    "2480433966040111002718031919195822424550114158888E15A40000F124080000000000F00F110A24991900000DF0"
+                + "C7")),
+            Map.entry("wialon", new Sample(
+                    () -> new WialonProtocolDecoder(null), "text",
+                    "#D#NA;NA;5429.681944502211763;N;02654.60403650999069;E;NA;NA;NA;NA;NA;NA;NA;1.0;NA;m1:1:9196679,"
+                + "d1:1:15397,t1:1:20,b1:1:162,fuel1:2:21588.0,pv1:2:35.98,finish:1:1;0x9b0")),
+            Map.entry("t55", new Sample(
+                    () -> new T55ProtocolDecoder(null), "text",
+                    "$GPTXT,NET,1003,A1,-53,232 01*77")),
+            Map.entry("eelink", new Sample(
+                    () -> new EelinkProtocolDecoder(null), "binary",
+                    "454c029249a50354679090044671676712004321315f3cf43503fc94d3760c79328a0129000000000a01f90001903309"
+                + "05580d2e046f118a04ec00000000ccc7086c02fe000000000000000000000000000000000000676712004321325f3cf4"
+                + "3e03fc94d3760c79328a0129000000000901f9000190330905580d2e046f117b04ec00000000ccc7086d02ff00000000"
+                + "0000000000000000000000000000676712004321335f3cf44703fc94d3760c79328a0129000000000901f90001903309"
+                + "05580d2e046f117f04ec00000000ccc7086d02ff000000000000000000000000000000000000676712004321345f3cf4"
+                + "5303fc94d3760c79328a0129000000000901f9000190330905580d2e046f119d04ec00000000ccc7086d02ff00000000"
+                + "0000000000000000000000000000676712004321355f3cf45c03fc94d3760c79328a0129000000000801f90001903309"
+                + "05580d2e046f11a304ec00000000ccc7086d02ff000000000000000000000000000000000000676712004321365f3cf4"
+                + "6603fc94d3760c79328a0129000000000801f9000190330905580d2e046f118804df00000000ccc7086d02ff00000000"
+                + "0000000000000000000000000000676712004321375f3cf47103fc94d3760c79328a0129000000000901f90001903309"
+                + "05580d2e046f119704ec00000000ccc7086d02ff000000000000000000000000000000000000676712004321385f3cf4"
+                + "7a03fc94d3760c79328a0129000000000901f9000190330905580d2e046f118204ec00000000ccc7086e030000000000"
+                + "0000000000000000000000000000676712004321395f3cf48303fc94d3760c79328a0129000000000901f90001903309"
+                + "05580d2e046f117604df00000000ccc7086e0300000000000000000000000000000000000000")));
+
+    @Param({
+            "teltonika", "teltonika8", "teltonika8e", "gt06", "h02", "gps103", "tk103", "gl200text", "meitrack",
+            "watch", "huabao", "suntech", "ruptela", "galileo", "xexun", "meiligao", "totem", "castel", "jt600",
+            "wialon", "t55", "eelink"})
+    private String protocol;
+
+    private BaseProtocolDecoder decoder;
+    private Object message;
+
+    @Setup
+    public void setup() throws Exception {
+        Sample sample = SAMPLES.get(protocol);
+        decoder = inject(sample.decoder().get());
+
+        var deviceSession = new DeviceSession(
+                1L, "123456789012345", null, mock(Protocol.class), mock(Channel.class), mock(SocketAddress.class));
+        var connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getDeviceSession(any(), any(), any(), any(String[].class))).thenReturn(deviceSession);
+        decoder.setConnectionManager(connectionManager);
+
+        message = switch (sample.type()) {
+            case "binary" -> binary(sample.data());
+            case "buffer" -> buffer(sample.data());
+            default -> text(sample.data());
+        };
+        if (decode() == null) {
+            throw new IllegalStateException("Sample is not decoded for " + protocol);
+        }
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        Object input = message instanceof ByteBuf buf ? buf.duplicate() : message;
+        return decoder.decode(null, null, input);
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.metrics.MetricsManager;
+import org.traccar.model.Position;
+import org.traccar.storage.DatabaseStorage;
+import org.traccar.storage.QueryBuilder;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query construction and result mapping against an in-memory H2 database, both through QueryBuilder directly and
+ * through DatabaseStorage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBuilderBenchmark {
+
+    private static final int POSITION_COUNT = 100;
+
+    private Config config;
+    private JdbcDataSource dataSource;
+    private ObjectMapper objectMapper;
+    private Storage storage;
+    private Connection connection;
+    private Date from;
+    private Date to;
+
+    @Setup
+    public void setup() throws SQLException {
+        config = new Config();
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        objectMapper = new ObjectMapper();
+        storage = new DatabaseStorage(config, dataSource, objectMapper, new MetricsManager());
+
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS tc_positions");
+            statement.execute("CREATE TABLE tc_positions (id INT AUTO_INCREMENT PRIMARY KEY, protocol VARCHAR(128), "
+                    + "deviceid INT, servertime TIMESTAMP, devicetime TIMESTAMP, fixtime TIMESTAMP, valid BOOLEAN, "
+                    + "latitude DOUBLE, longitude DOUBLE, altitude DOUBLE, speed DOUBLE, course DOUBLE, "
+                    + "address VARCHAR(512), attributes VARCHAR(4000), accuracy DOUBLE, network VARCHAR(4000), "
+                    + "geofenceids VARCHAR(128))");
+        }
+        long time = System.currentTimeMillis() - POSITION_COUNT * 1000L;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO tc_positions (protocol, deviceid, servertime, devicetime, fixtime, valid, "
+                        + "latitude, longitude, altitude, speed, course, attributes) "
+                        + "VALUES ('benchmark', 1, ?, ?, ?, TRUE, 48.85, 2.35, 0, 10, 0, ?)")) {
+            for (int i = 0; i < POSITION_COUNT; i++) {
+                Timestamp timestamp = new Timestamp(time + i * 1000L);
+                statement.setTimestamp(1, timestamp);
+                statement.setTimestamp(2, timestamp);
+                statement.setTimestamp(3, timestamp);
+                statement.setString(4, "{\"ignition\":true,\"odometer\":" + i * 100 + "}");
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        from = new Date(time);
+        to = new Date(time + POSITION_COUNT * 1000L);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Position> queryBuilder() throws SQLException {
+        return QueryBuilder.create(config, dataSource, objectMapper,
+                "SELECT * FROM tc_positions WHERE deviceId = :deviceId AND fixTime BETWEEN :from AND :to")
+                .setLong("deviceId", 1)
+                .setDate("from", from)
+                .setDate("to", to)
+                .executeQuery(Position.class);
+    }
+
+    @Benchmark
+    public List<Position> storage() throws StorageException {
+        return storage.getObjects(Position.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", 1),
+                        new Condition.Between("fixTime", "from", from, "to", to)),
+                new Order("fixTime")));
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.traccar.protocol.Gps103ProtocolDecoder;
+import org.traccar.protocol.Tk103ProtocolDecoder;
+import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceSession;
+
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pattern matching cost of text protocols over a small corpus of decoder test messages, with frames passed either as
+ * strings or as buffers viewed through {@link org.traccar.helper.BufferCharSequence}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextProtocolBenchmark extends ProtocolTest {
+
+    private record Corpus(Supplier<BaseProtocolDecoder> decoder, List<String> messages) {
+    }
+
+    private static final Map<String, Corpus> CORPUS = Map.of(
+            "gps103", new Corpus(() -> new Gps103ProtocolDecoder(null), List.of(
+                    "imei:864035050002451,tracker,201223064947,,F,064947,A,1935.70640,N,09859.94436,W,0.025,;",
+                    "imei:760112011448012,001,2001151918,,F,191833.000,A,6136.6174,N,2126.9901,E,0.00,202.6,-0.1,1,,,"
+                + ",20;",
+                    "imei:864180034124375,vt14,190116192753,,F,172750.000,A,3649.2186,N,00235.8411,W,0.00,0,,0,0,51.9"
+                + "3%,,+22;")),
+            "tk103", new Corpus(() -> new Tk103ProtocolDecoder(null), List.of(
+                    "(868822040452227,DW3B,150421,A,4154.51607N,45.78950E,0.050,103142,0.000,595.200,7,0)",
+                    "(086375304593BR00210119A2220.0160N11335.4073E0000014000309.84001000293L0000015FP23BS27F)",
+                    "(027023361470BR00200617A4000.5775N 8415.4076W 46.0173725 87.3101000000L00000000)")));
+
+    @Param({"gps103", "tk103"})
+    private String protocol;
+
+    @Param({"text", "buffer"})
+    private String input;
+
+    private BaseProtocolDecoder decoder;
+    private List<String> messages;
+
+    @Setup
+    public void setup() throws Exception {
+        Corpus corpus = CORPUS.get(protocol);
+        decoder = inject(corpus.decoder().get());
+        messages = corpus.messages();
+
+        var deviceSession = new DeviceSession(
+                1L, "123456789012345", null, mock(Protocol.class), mock(Channel.class), mock(SocketAddress.class));
+        var connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getDeviceSession(any(), any(), any(), any(String[].class))).thenReturn(deviceSession);
+        decoder.setConnectionManager(connectionManager);
+
+        for (String message : messages) {
+            if (decoder.decode(null, null, frame(message)) == null) {
+                throw new IllegalStateException("Sample is not decoded for " + protocol);
+            }
+        }
+    }
+
+    private Object frame(String message) {
+        return input.equals("buffer") ? Unpooled.wrappedBuffer(message.getBytes(StandardCharsets.US_ASCII)) : message;
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws Exception {
+        for (String message : messages) {
+            blackhole.consume(decoder.decode(null, null, frame(message)));
+        }
+    }
+
+}
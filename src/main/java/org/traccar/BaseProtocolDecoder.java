@@ -98,6 +98,11 @@ public abstract class BaseProtocolDecoder extends ExtendedObjectDecoder {
         return protocol != null ? protocol.getName() : PROTOCOL_UNKNOWN;
     }
 
+    @Override
+    protected String getMetricsName() {
+        return getProtocolName();
+    }
+
     public String getServer(Channel channel, char delimiter) {
         String server = getConfig().getString(Keys.PROTOCOL_SERVER.withPrefix(getProtocolName()));
         if (server == null && channel != null) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,17 +24,20 @@ import io.netty.util.ReferenceCountUtil;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.handler.network.AcknowledgementHandler;
-import org.traccar.helper.DataConverter;
+import org.traccar.helper.BufferCharSequence;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.model.Position;
 
 import jakarta.inject.Inject;
 import java.net.SocketAddress;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 
 public abstract class ExtendedObjectDecoder extends ChannelInboundHandlerAdapter {
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private Config config;
 
     public Config getConfig() {
@@ -53,15 +56,49 @@ public abstract class ExtendedObjectDecoder extends ChannelInboundHandlerAdapter
     protected void init() {
     }
 
-    private void saveOriginal(Object decodedMessage, Object originalMessage) {
+    private Histogram decodeHistogram;
+
+    @Inject
+    public void setMetricsManager(MetricsManager metricsManager) {
+        decodeHistogram = metricsManager.histogram(
+                "traccar_decode_seconds", "Time to decode a message", "protocol", getMetricsName());
+    }
+
+    /**
+     * Name used as the protocol label of decoder metrics.
+     */
+    protected String getMetricsName() {
+        return getClass().getSimpleName();
+    }
+
+    private static String formatOriginal(Object originalMessage) {
+        if (originalMessage instanceof ByteBuf buf) {
+            return ByteBufUtil.hexDump(buf, 0, buf.writerIndex());
+        } else if (originalMessage instanceof BufferCharSequence sequence) {
+            return ByteBufUtil.hexDump(sequence.getBuffer(), sequence.getIndex(), sequence.length());
+        } else if (originalMessage instanceof String stringMessage) {
+            char[] result = new char[stringMessage.length() * 2];
+            for (int i = 0; i < stringMessage.length(); i++) {
+                char c = stringMessage.charAt(i);
+                int b = c < 0x80 ? c : '?'; // same as US-ASCII encoding
+                result[i * 2] = HEX_DIGITS[b >> 4];
+                result[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+            }
+            return new String(result);
+        }
+        return null;
+    }
+
+    private String saveOriginal(Object decodedMessage, Object originalMessage, String original) {
         if (getConfig().getBoolean(Keys.DATABASE_SAVE_ORIGINAL) && decodedMessage instanceof Position position) {
-            if (originalMessage instanceof ByteBuf buf) {
-                position.set(Position.KEY_ORIGINAL, ByteBufUtil.hexDump(buf, 0, buf.writerIndex()));
-            } else if (originalMessage instanceof String stringMessage) {
-                position.set(Position.KEY_ORIGINAL, DataConverter.printHex(
-                        stringMessage.getBytes(StandardCharsets.US_ASCII)));
+            if (original == null) {
+                original = formatOriginal(originalMessage);
+            }
+            if (original != null) {
+                position.set(Position.KEY_ORIGINAL, original);
             }
         }
+        return original;
     }
 
     @Override
@@ -70,7 +107,11 @@ public abstract class ExtendedObjectDecoder extends ChannelInboundHandlerAdapter
         Object originalMessage = networkMessage.getMessage();
         ctx.writeAndFlush(new AcknowledgementHandler.EventReceived());
         try {
+            long startTime = decodeHistogram != null ? System.nanoTime() : 0;
             Object decodedMessage = decode(ctx.channel(), networkMessage.getRemoteAddress(), originalMessage);
+            if (decodeHistogram != null) {
+                decodeHistogram.recordSince(startTime);
+            }
             onMessageEvent(ctx.channel(), networkMessage.getRemoteAddress(), originalMessage, decodedMessage);
             if (decodedMessage == null) {
                 decodedMessage = handleEmptyMessage(ctx.channel(), networkMessage.getRemoteAddress(), originalMessage);
@@ -78,13 +119,14 @@ public abstract class ExtendedObjectDecoder extends ChannelInboundHandlerAdapter
             if (decodedMessage != null) {
                 if (decodedMessage instanceof Collection collection) {
                     ctx.writeAndFlush(new AcknowledgementHandler.EventDecoded(collection));
+                    String original = null;
                     for (Object o : collection) {
-                        saveOriginal(o, originalMessage);
+                        original = saveOriginal(o, originalMessage, original);
                         ctx.fireChannelRead(o);
                     }
                 } else {
                     ctx.writeAndFlush(new AcknowledgementHandler.EventDecoded(List.of(decodedMessage)));
-                    saveOriginal(decodedMessage, originalMessage);
+                    saveOriginal(decodedMessage, originalMessage, null);
                     ctx.fireChannelRead(decodedMessage);
                 }
             } else {
@@ -50,6 +50,8 @@ import org.traccar.forward.PositionForwarderMqtt;
 import org.traccar.geocoder.AddressFormat;
 import org.traccar.geocoder.BanGeocoder;
 import org.traccar.geocoder.BingMapsGeocoder;
+import org.traccar.geocoder.CachingGeocoder;
+import org.traccar.geocoder.CoalescingGeocoder;
 import org.traccar.geocoder.FactualGeocoder;
 import org.traccar.geocoder.GeoapifyGeocoder;
 import org.traccar.geocoder.GeocodeFarmGeocoder;
@@ -69,8 +71,10 @@ import org.traccar.geocoder.PositionStackGeocoder;
 import org.traccar.geocoder.PlusCodesGeocoder;
 import org.traccar.geocoder.TomTomGeocoder;
 import org.traccar.geocoder.GeocodeJsonGeocoder;
+import org.traccar.geolocation.CachingGeolocationProvider;
 import org.traccar.geolocation.GeolocationProvider;
 import org.traccar.geolocation.GoogleGeolocationProvider;
+import org.traccar.geolocation.OfflineGeolocationProvider;
 import org.traccar.geolocation.OpenCellIdGeolocationProvider;
 import org.traccar.geolocation.UnwiredGeolocationProvider;
 import org.traccar.handler.CopyAttributesHandler;
@@ -80,6 +84,7 @@ import org.traccar.handler.GeolocationHandler;
 import org.traccar.handler.SpeedLimitHandler;
 import org.traccar.handler.TimeHandler;
 import org.traccar.helper.ObjectMapperContextResolver;
+import org.traccar.helper.SerializationCacheModule;
 import org.traccar.helper.WebHelper;
 import org.traccar.mail.LogMailManager;
 import org.traccar.mail.MailManager;
@@ -88,6 +93,8 @@ import org.traccar.session.cache.CacheManager;
 import org.traccar.sms.HttpSmsClient;
 import org.traccar.sms.SmsManager;
 import org.traccar.sms.SnsSmsClient;
+import org.traccar.speedlimit.CachingSpeedLimitProvider;
+import org.traccar.speedlimit.OfflineSpeedLimitProvider;
 import org.traccar.speedlimit.OverpassSpeedLimitProvider;
 import org.traccar.speedlimit.SpeedLimitProvider;
 import org.traccar.storage.DatabaseStorage;
@@ -135,6 +142,7 @@ public class MainModule extends AbstractModule {
     public static ObjectMapper provideObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JSONPModule());
+        objectMapper.registerModule(new SerializationCacheModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return objectMapper;
     }
@@ -205,29 +213,38 @@ public class MainModule extends AbstractModule {
             String formatString = config.getString(Keys.GEOCODER_FORMAT);
             AddressFormat addressFormat = formatString != null ? new AddressFormat(formatString) : new AddressFormat();
 
-            int cacheSize = config.getInteger(Keys.GEOCODER_CACHE_SIZE);
             Geocoder geocoder = switch (type) {
                 case "pluscodes" -> new PlusCodesGeocoder();
-                case "nominatim" -> new NominatimGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "locationiq" -> new LocationIqGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "gisgraphy" -> new GisgraphyGeocoder(client, url, cacheSize, addressFormat);
-                case "mapquest" -> new MapQuestGeocoder(client, url, key, cacheSize, addressFormat);
-                case "opencage" -> new OpenCageGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "bingmaps" -> new BingMapsGeocoder(client, url, key, cacheSize, addressFormat);
-                case "factual" -> new FactualGeocoder(client, url, key, cacheSize, addressFormat);
-                case "geocodefarm" -> new GeocodeFarmGeocoder(client, key, language, cacheSize, addressFormat);
-                case "geocodexyz" -> new GeocodeXyzGeocoder(client, key, cacheSize, addressFormat);
-                case "ban" -> new BanGeocoder(client, cacheSize, addressFormat);
-                case "here" -> new HereGeocoder(client, url, key, language, cacheSize, addressFormat);
-                case "mapmyindia" -> new MapmyIndiaGeocoder(client, url, key, cacheSize, addressFormat);
-                case "tomtom" -> new TomTomGeocoder(client, url, key, cacheSize, addressFormat);
-                case "positionstack" -> new PositionStackGeocoder(client, key, cacheSize, addressFormat);
-                case "mapbox" -> new MapboxGeocoder(client, key, cacheSize, addressFormat);
-                case "maptiler" -> new MapTilerGeocoder(client, key, cacheSize, addressFormat);
-                case "geoapify" -> new GeoapifyGeocoder(client, key, language, cacheSize, addressFormat);
-                case "geocodejson" -> new GeocodeJsonGeocoder(client, url, key, language, cacheSize, addressFormat);
-                default -> new GoogleGeocoder(client, url, key, language, cacheSize, addressFormat);
+                case "nominatim" -> new NominatimGeocoder(client, url, key, language, addressFormat);
+                case "locationiq" -> new LocationIqGeocoder(client, url, key, language, addressFormat);
+                case "gisgraphy" -> new GisgraphyGeocoder(client, url, addressFormat);
+                case "mapquest" -> new MapQuestGeocoder(client, url, key, addressFormat);
+                case "opencage" -> new OpenCageGeocoder(client, url, key, language, addressFormat);
+                case "bingmaps" -> new BingMapsGeocoder(client, url, key, addressFormat);
+                case "factual" -> new FactualGeocoder(client, url, key, addressFormat);
+                case "geocodefarm" -> new GeocodeFarmGeocoder(client, key, language, addressFormat);
+                case "geocodexyz" -> new GeocodeXyzGeocoder(client, key, addressFormat);
+                case "ban" -> new BanGeocoder(client, addressFormat);
+                case "here" -> new HereGeocoder(client, url, key, language, addressFormat);
+                case "mapmyindia" -> new MapmyIndiaGeocoder(client, url, key, addressFormat);
+                case "tomtom" -> new TomTomGeocoder(client, url, key, addressFormat);
+                case "positionstack" -> new PositionStackGeocoder(client, key, addressFormat);
+                case "mapbox" -> new MapboxGeocoder(client, key, addressFormat);
+                case "maptiler" -> new MapTilerGeocoder(client, key, addressFormat);
+                case "geoapify" -> new GeoapifyGeocoder(client, key, language, addressFormat);
+                case "geocodejson" -> new GeocodeJsonGeocoder(client, url, key, language, addressFormat);
+                default -> new GoogleGeocoder(client, url, key, language, addressFormat);
             };
+            if (!(geocoder instanceof PlusCodesGeocoder)) {
+                int precision = config.getInteger(Keys.GEOCODER_CACHE_PRECISION);
+                geocoder = new CoalescingGeocoder(
+                        geocoder, precision, config.getInteger(Keys.GEOCODER_MAX_REQUESTS));
+                int cacheSize = config.getInteger(Keys.GEOCODER_CACHE_SIZE);
+                if (cacheSize > 0) {
+                    geocoder = new CachingGeocoder(
+                            geocoder, cacheSize, precision, config.getString(Keys.GEOCODER_CACHE_FILE));
+                }
+            }
             geocoder.setStatisticsManager(statisticsManager);
             return geocoder;
         }
@@ -236,30 +253,55 @@ public class MainModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public static GeolocationProvider provideGeolocationProvider(Config config, Client client) {
+    public static GeolocationProvider provideGeolocationProvider(Config config, Client client) throws IOException {
         if (config.getBoolean(Keys.GEOLOCATION_ENABLE)) {
             String type = config.getString(Keys.GEOLOCATION_TYPE, "google");
             String url = config.getString(Keys.GEOLOCATION_URL);
             String key = config.getString(Keys.GEOLOCATION_KEY);
-            return switch (type) {
+            GeolocationProvider geolocationProvider = switch (type) {
+                case "offline" -> null;
                 case "opencellid" -> new OpenCellIdGeolocationProvider(client, url, key);
                 case "unwired" -> new UnwiredGeolocationProvider(client, url, key);
                 default -> new GoogleGeolocationProvider(client, key);
             };
+            int cacheSize = config.getInteger(Keys.GEOLOCATION_CACHE_SIZE);
+            if (geolocationProvider != null && cacheSize > 0) {
+                geolocationProvider = new CachingGeolocationProvider(
+                        geolocationProvider, cacheSize, config.getLong(Keys.GEOLOCATION_CACHE_TIMEOUT),
+                        config.getDouble(Keys.GEOLOCATION_CACHE_OVERLAP),
+                        config.getString(Keys.GEOLOCATION_CACHE_FILE));
+            }
+            String file = config.getString(Keys.GEOLOCATION_FILE);
+            if (file != null) {
+                geolocationProvider = new OfflineGeolocationProvider(file, geolocationProvider);
+            } else if (geolocationProvider == null) {
+                throw new IllegalArgumentException("Offline geolocation requires a cell file");
+            }
+            return geolocationProvider;
         }
         return null;
     }
 
     @Singleton
     @Provides
-    public static SpeedLimitProvider provideSpeedLimitProvider(Config config, Client client) {
+    public static SpeedLimitProvider provideSpeedLimitProvider(Config config, Client client) throws IOException {
         if (config.getBoolean(Keys.SPEED_LIMIT_ENABLE)) {
             String type = config.getString(Keys.SPEED_LIMIT_TYPE, "overpass");
             String url = config.getString(Keys.SPEED_LIMIT_URL);
-            return switch (type) {
+            int precision = config.getInteger(Keys.SPEED_LIMIT_CACHE_PRECISION);
+            SpeedLimitProvider speedLimitProvider = switch (type) {
                 case "overpass" -> new OverpassSpeedLimitProvider(config, client, url);
+                case "offline" -> new OfflineSpeedLimitProvider(
+                        config.getString(Keys.SPEED_LIMIT_FILE), precision);
                 default -> throw new IllegalArgumentException("Unknown speed limit provider");
             };
+            int cacheSize = config.getInteger(Keys.SPEED_LIMIT_CACHE_SIZE);
+            if (cacheSize > 0 && !(speedLimitProvider instanceof OfflineSpeedLimitProvider)) {
+                speedLimitProvider = new CachingSpeedLimitProvider(
+                        speedLimitProvider, cacheSize,
+                        config.getLong(Keys.SPEED_LIMIT_CACHE_TIMEOUT), precision);
+            }
+            return speedLimitProvider;
         }
         return null;
     }
@@ -372,6 +414,8 @@ public class MainModule extends AbstractModule {
     public static VelocityEngine provideVelocityEngine(Config config) {
         Properties properties = new Properties();
         properties.setProperty("resource.loader.file.path", config.getString(Keys.TEMPLATES_ROOT) + "/");
+        properties.setProperty("resource.loader.file.cache", "true");
+        properties.setProperty("resource.loader.file.modification_check_interval", "60");
         properties.setProperty("web.url", WebHelper.retrieveWebUrl(config));
 
         VelocityEngine velocityEngine = new VelocityEngine();
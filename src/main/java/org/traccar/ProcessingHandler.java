@@ -21,6 +21,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.traccar.broadcast.ShardingManager;
 import org.traccar.config.Config;
 import org.traccar.database.BufferingManager;
 import org.traccar.database.NotificationManager;
@@ -55,6 +56,8 @@ import org.traccar.handler.events.MotionEventHandler;
 import org.traccar.handler.events.OverspeedEventHandler;
 import org.traccar.handler.network.AcknowledgementHandler;
 import org.traccar.helper.PositionLogger;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.model.Position;
 
 import java.util.HashMap;
@@ -73,10 +76,14 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
     private final NotificationManager notificationManager;
     private final PositionLogger positionLogger;
     private final BufferingManager bufferingManager;
+    private final ShardingManager shardingManager;
     private final List<BasePositionHandler> positionHandlers;
     private final List<BaseEventHandler> eventHandlers;
     private final PostProcessHandler postProcessHandler;
 
+    private final List<Histogram> positionHandlerMetrics;
+    private final List<Histogram> eventHandlerMetrics;
+
     private final Map<Long, Queue<Position>> queues = new HashMap<>();
 
     private synchronized Queue<Position> getQueue(long deviceId) {
@@ -89,6 +96,7 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         this.notificationManager = notificationManager;
         this.positionLogger = positionLogger;
         bufferingManager = new BufferingManager(config, this);
+        shardingManager = injector.getInstance(ShardingManager.class);
 
         positionHandlers = Stream.of(
                 OutdatedHandler.class,
@@ -127,12 +135,37 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
                 .collect(Collectors.toUnmodifiableList());
 
         postProcessHandler = injector.getInstance(PostProcessHandler.class);
+
+        MetricsManager metricsManager = injector.getInstance(MetricsManager.class);
+        positionHandlerMetrics = positionHandlers.stream()
+                .map(handler -> metricsManager.histogram(
+                        "traccar_position_handler_seconds", "Time spent in position handler",
+                        "handler", handler.getClass().getSimpleName()))
+                .collect(Collectors.toUnmodifiableList());
+        eventHandlerMetrics = eventHandlers.stream()
+                .map(handler -> metricsManager.histogram(
+                        "traccar_event_handler_seconds", "Time spent in event handler",
+                        "handler", handler.getClass().getSimpleName()))
+                .collect(Collectors.toUnmodifiableList());
+        metricsManager.gauge(
+                "traccar_buffered_positions", "Positions held for reordering",
+                bufferingManager::getBufferedPositions);
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof Position position) {
-            bufferingManager.accept(ctx, position);
+            if (shardingManager.isRemote(ctx.channel(), position.getDeviceId())) {
+                shardingManager.handOff(position).addListener(future -> {
+                    if (future.isSuccess()) {
+                        ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(position));
+                    } else {
+                        bufferingManager.accept(ctx, position);
+                    }
+                });
+            } else {
+                bufferingManager.accept(ctx, position);
+            }
         } else {
             super.channelRead(ctx, msg);
         }
@@ -151,27 +184,50 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
         }
     }
 
-    private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
-        var iterator = positionHandlers.iterator();
-        iterator.next().handlePosition(position, new BasePositionHandler.Callback() {
-            @Override
-            public void processed(boolean filtered) {
-                if (!filtered) {
-                    if (iterator.hasNext()) {
-                        iterator.next().handlePosition(position, this);
-                    } else {
-                        processEventHandlers(ctx, position);
-                    }
+    private final class PositionHandlerChain implements BasePositionHandler.Callback {
+
+        private final ChannelHandlerContext ctx;
+        private final Position position;
+        private int index;
+        private long startTime;
+
+        private PositionHandlerChain(ChannelHandlerContext ctx, Position position) {
+            this.ctx = ctx;
+            this.position = position;
+        }
+
+        private void handle() {
+            startTime = System.nanoTime();
+            positionHandlers.get(index).handlePosition(position, this);
+        }
+
+        @Override
+        public void processed(boolean filtered) {
+            positionHandlerMetrics.get(index).recordSince(startTime);
+            if (!filtered) {
+                index += 1;
+                if (index < positionHandlers.size()) {
+                    handle();
                 } else {
-                    finishedProcessing(ctx, position, true);
+                    processEventHandlers(ctx, position);
                 }
+            } else {
+                finishedProcessing(ctx, position, true);
             }
-        });
+        }
+    }
+
+    private void processPositionHandlers(ChannelHandlerContext ctx, Position position) {
+        new PositionHandlerChain(ctx, position).handle();
     }
 
     private void processEventHandlers(ChannelHandlerContext ctx, Position position) {
-        eventHandlers.forEach(handler -> handler.analyzePosition(
-                position, (event) -> notificationManager.updateEvents(Map.of(event, position))));
+        for (int i = 0; i < eventHandlers.size(); i++) {
+            long startTime = System.nanoTime();
+            eventHandlers.get(i).analyzePosition(
+                    position, (event) -> notificationManager.updateEvents(Map.of(event, position)));
+            eventHandlerMetrics.get(i).recordSince(startTime);
+        }
         finishedProcessing(ctx, position, false);
     }
 
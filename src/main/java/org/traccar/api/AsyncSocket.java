@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.helper.model.PositionUtil;
+import org.traccar.metrics.Histogram;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.LogRecord;
@@ -34,6 +35,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.UpdateListener {
 
@@ -48,14 +50,18 @@ public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.U
     private final ConnectionManager connectionManager;
     private final Storage storage;
     private final long userId;
+    private final Histogram positionLag;
 
     private boolean includeLogs;
 
-    public AsyncSocket(ObjectMapper objectMapper, ConnectionManager connectionManager, Storage storage, long userId) {
+    public AsyncSocket(
+            ObjectMapper objectMapper, ConnectionManager connectionManager, Storage storage, long userId,
+            Histogram positionLag) {
         this.objectMapper = objectMapper;
         this.connectionManager = connectionManager;
         this.storage = storage;
         this.userId = userId;
+        this.positionLag = positionLag;
     }
 
     @Override
@@ -103,6 +109,10 @@ public class AsyncSocket extends WebSocketAdapter implements ConnectionManager.U
     @Override
     public void onUpdatePosition(Position position) {
         sendData(Map.of(KEY_POSITIONS, List.of(position)));
+        if (position.getServerTime() != null) {
+            positionLag.record(TimeUnit.MILLISECONDS.toNanos(
+                    System.currentTimeMillis() - position.getServerTime().getTime()));
+        }
     }
 
     @Override
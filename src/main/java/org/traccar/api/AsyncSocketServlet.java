@@ -22,6 +22,8 @@ import org.traccar.api.resource.SessionResource;
 import org.traccar.api.security.LoginService;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.session.ConnectionManager;
 import org.traccar.storage.Storage;
 
@@ -43,16 +45,19 @@ public class AsyncSocketServlet extends JettyWebSocketServlet {
     private final ConnectionManager connectionManager;
     private final Storage storage;
     private final LoginService loginService;
+    private final Histogram positionLag;
 
     @Inject
     public AsyncSocketServlet(
             Config config, ObjectMapper objectMapper, ConnectionManager connectionManager, Storage storage,
-            LoginService loginService) {
+            LoginService loginService, MetricsManager metricsManager) {
         this.config = config;
         this.objectMapper = objectMapper;
         this.connectionManager = connectionManager;
         this.storage = storage;
         this.loginService = loginService;
+        positionLag = metricsManager.histogram(
+                "traccar_websocket_lag_seconds", "Time from position receipt to WebSocket push");
     }
 
     @Override
@@ -72,7 +77,7 @@ public class AsyncSocketServlet extends JettyWebSocketServlet {
                 userId = (Long) ((HttpSession) req.getSession()).getAttribute(SessionResource.USER_ID_KEY);
             }
             if (userId != null) {
-                return new AsyncSocket(objectMapper, connectionManager, storage, userId);
+                return new AsyncSocket(objectMapper, connectionManager, storage, userId, positionLag);
             }
             return null;
         });
@@ -17,12 +17,16 @@ package org.traccar.api.security;
 
 import com.warrenstrange.googleauth.GoogleAuthenticator;
 import org.traccar.api.signature.TokenManager;
+import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.LdapProvider;
 import org.traccar.helper.DataConverter;
 import org.traccar.helper.model.UserUtil;
+import org.traccar.model.BaseModel;
+import org.traccar.model.ObjectOperation;
 import org.traccar.model.User;
+import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -35,9 +39,17 @@ import jakarta.inject.Singleton;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
-public class LoginService {
+public class LoginService implements BroadcastInterface {
+
+    private static final int CACHE_SIZE = 10000;
+
+    private record CachedLogin(LoginResult result, long expiration) {
+    }
 
     private final Config config;
     private final Storage storage;
@@ -47,10 +59,14 @@ public class LoginService {
     private final String serviceAccountToken;
     private final boolean forceLdap;
     private final boolean forceOpenId;
+    private final long cacheTimeout;
+
+    private final Map<String, CachedLogin> cache = new ConcurrentHashMap<>();
 
     @Inject
     public LoginService(
-            Config config, Storage storage, TokenManager tokenManager, @Nullable LdapProvider ldapProvider) {
+            Config config, Storage storage, TokenManager tokenManager, @Nullable LdapProvider ldapProvider,
+            CacheManager cacheManager) {
         this.storage = storage;
         this.config = config;
         this.tokenManager = tokenManager;
@@ -58,10 +74,58 @@ public class LoginService {
         serviceAccountToken = config.getString(Keys.WEB_SERVICE_ACCOUNT_TOKEN);
         forceLdap = config.getBoolean(Keys.LDAP_FORCE);
         forceOpenId = config.getBoolean(Keys.OPENID_FORCE);
+        cacheTimeout = config.getInteger(Keys.WEB_AUTHENTICATION_CACHE_TIMEOUT) * 1000L;
+        cacheManager.addListener(this);
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(User.class)) {
+            cache.values().removeIf(cached -> cached.result().getUser().getId() == id);
+        }
+    }
+
+    private static String cacheKey(String scheme, String credentials) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(scheme.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ' ');
+        digest.update(credentials.getBytes(StandardCharsets.UTF_8));
+        return DataConverter.printHex(digest.digest());
     }
 
     public LoginResult login(
             String scheme, String credentials) throws StorageException, GeneralSecurityException, IOException {
+        if (cacheTimeout <= 0) {
+            return loginScheme(scheme, credentials);
+        }
+
+        long currentTime = System.currentTimeMillis();
+        String key = cacheKey(scheme, credentials);
+        CachedLogin cached = cache.get(key);
+        if (cached != null && cached.expiration() > currentTime) {
+            cached.result().getUser().checkDisabled();
+            return cached.result();
+        }
+
+        LoginResult result = loginScheme(scheme, credentials);
+        if (result != null && result.getUser() != null) {
+            long expiration = currentTime + cacheTimeout;
+            if (result.getExpiration() != null) {
+                expiration = Math.min(expiration, result.getExpiration().getTime());
+            }
+            if (cache.size() >= CACHE_SIZE) {
+                cache.values().removeIf(entry -> entry.expiration() <= currentTime);
+            }
+            if (cache.size() < CACHE_SIZE) {
+                cache.put(key, new CachedLogin(result, expiration));
+            }
+        }
+        return result;
+    }
+
+    private LoginResult loginScheme(
+            String scheme, String credentials) throws StorageException, GeneralSecurityException, IOException {
         switch (scheme.toLowerCase()) {
             case "bearer":
                 return login(credentials);
@@ -41,19 +41,20 @@ import java.util.Objects;
 public class PermissionsService {
 
     private final Storage storage;
+    private final PrincipalCache principalCache;
 
     private Server server;
     private User user;
 
     @Inject
-    public PermissionsService(Storage storage) {
+    public PermissionsService(Storage storage, PrincipalCache principalCache) {
         this.storage = storage;
+        this.principalCache = principalCache;
     }
 
     public Server getServer() throws StorageException {
         if (server == null) {
-            server = storage.getObject(
-                    Server.class, new Request(new Columns.All()));
+            server = principalCache.getServer();
         }
         return server;
     }
@@ -63,8 +64,7 @@ public class PermissionsService {
             if (userId == ServiceAccountUser.ID) {
                 user = new ServiceAccountUser();
             } else {
-                user = storage.getObject(
-                        User.class, new Request(new Columns.All(), new Condition.Equals("id", userId)));
+                user = principalCache.getUser(userId);
             }
         }
         return user;
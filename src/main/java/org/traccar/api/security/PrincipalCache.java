@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.api.security;
+
+import org.traccar.broadcast.BroadcastInterface;
+import org.traccar.model.BaseModel;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Server;
+import org.traccar.model.User;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot of users and server settings shared between API requests. Entries are dropped when the corresponding
+ * object is invalidated locally or by another cluster node. Returned objects are shared and must not be modified.
+ */
+@Singleton
+public class PrincipalCache implements BroadcastInterface {
+
+    private static final int MAX_USERS = 10000;
+
+    private final Storage storage;
+    private final CacheManager cacheManager;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    @Inject
+    public PrincipalCache(Storage storage, CacheManager cacheManager) {
+        this.storage = storage;
+        this.cacheManager = cacheManager;
+        cacheManager.addListener(this);
+    }
+
+    public Server getServer() {
+        return cacheManager.getServer();
+    }
+
+    public User getUser(long userId) throws StorageException {
+        User user = users.get(userId);
+        if (user == null) {
+            long currentVersion = version.get();
+            user = storage.getObject(User.class, new Request(new Columns.All(), new Condition.Equals("id", userId)));
+            if (user != null) {
+                if (users.size() >= MAX_USERS) {
+                    users.clear();
+                }
+                users.put(userId, user);
+                if (version.get() != currentVersion) {
+                    users.remove(userId);
+                }
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(User.class)) {
+            version.incrementAndGet();
+            users.remove(id);
+        }
+    }
+
+}
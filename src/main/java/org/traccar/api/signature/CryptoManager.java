@@ -39,8 +39,11 @@ public class CryptoManager {
 
     private final Storage storage;
 
-    private PublicKey publicKey;
-    private PrivateKey privateKey;
+    private volatile PublicKey publicKey;
+    private volatile PrivateKey privateKey;
+
+    private final ThreadLocal<Signature> signers = new ThreadLocal<>();
+    private final ThreadLocal<Signature> verifiers = new ThreadLocal<>();
 
     @Inject
     public CryptoManager(Storage storage) {
@@ -51,8 +54,12 @@ public class CryptoManager {
         if (privateKey == null) {
             initializeKeys();
         }
-        Signature signature = Signature.getInstance("SHA256withECDSA");
-        signature.initSign(privateKey);
+        Signature signature = signers.get();
+        if (signature == null) {
+            signature = Signature.getInstance("SHA256withECDSA");
+            signature.initSign(privateKey);
+            signers.set(signature);
+        }
         signature.update(data);
         byte[] block = signature.sign();
         byte[] combined = new byte[1 + block.length + data.length];
@@ -66,19 +73,33 @@ public class CryptoManager {
         if (publicKey == null) {
             initializeKeys();
         }
-        Signature signature = Signature.getInstance("SHA256withECDSA");
-        signature.initVerify(publicKey);
+        Signature signature = verifiers.get();
+        if (signature == null) {
+            signature = Signature.getInstance("SHA256withECDSA");
+            signature.initVerify(publicKey);
+            verifiers.set(signature);
+        }
         int length = data[0];
         byte[] originalData = new byte[data.length - 1 - length];
         System.arraycopy(data, 1 + length, originalData, 0, originalData.length);
-        signature.update(originalData);
-        if (!signature.verify(data, 1, length)) {
+        boolean valid;
+        try {
+            signature.update(originalData);
+            valid = signature.verify(data, 1, length);
+        } catch (GeneralSecurityException e) {
+            verifiers.remove();
+            throw e;
+        }
+        if (!valid) {
             throw new SecurityException("Invalid signature");
         }
         return originalData;
     }
 
-    private void initializeKeys() throws StorageException, GeneralSecurityException {
+    private synchronized void initializeKeys() throws StorageException, GeneralSecurityException {
+        if (privateKey != null) {
+            return;
+        }
         KeystoreModel model = storage.getObject(KeystoreModel.class, new Request(new Columns.All()));
         if (model != null) {
             publicKey = KeyFactory.getInstance("EC")
@@ -25,16 +25,25 @@ import jakarta.inject.Singleton;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class TokenManager {
 
     private static final int DEFAULT_EXPIRATION_DAYS = 7;
+    private static final long REUSE_PERIOD = TimeUnit.DAYS.toMillis(1);
+    private static final int MAX_CACHED_TOKENS = 10000;
 
     private final ObjectMapper objectMapper;
     private final CryptoManager cryptoManager;
 
+    private record CachedToken(String token, long created) {
+    }
+
+    private final Map<Long, CachedToken> tokens = new ConcurrentHashMap<>();
+
     public static class TokenData {
         @JsonProperty("u")
         private long userId;
@@ -56,8 +65,24 @@ public class TokenManager {
         this.cryptoManager = cryptoManager;
     }
 
+    /**
+     * Generate token with default expiration. Tokens are reused for a day, so they remain valid for at least
+     * six days after being returned.
+     */
     public String generateToken(long userId) throws IOException, GeneralSecurityException, StorageException {
-        return generateToken(userId, null);
+        long currentTime = System.currentTimeMillis();
+        CachedToken cached = tokens.get(userId);
+        if (cached != null && currentTime - cached.created() < REUSE_PERIOD) {
+            return cached.token();
+        }
+        String token = generateToken(userId, null);
+        if (tokens.size() >= MAX_CACHED_TOKENS) {
+            tokens.values().removeIf(entry -> currentTime - entry.created() >= REUSE_PERIOD);
+        }
+        if (tokens.size() < MAX_CACHED_TOKENS) {
+            tokens.put(userId, new CachedToken(token, currentTime));
+        }
+        return token;
     }
 
     public String generateToken(
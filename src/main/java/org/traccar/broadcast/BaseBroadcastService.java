@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,9 @@
  */
 package org.traccar.broadcast;
 
-import java.util.HashSet;
-import java.util.Set;
-
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
@@ -25,20 +25,129 @@ import org.traccar.model.ObjectOperation;
 import org.traccar.model.Permission;
 import org.traccar.model.Position;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Messages are encoded on the calling thread and sent in batched frames from a background thread. Every node
+ * periodically advertises devices that have live listeners on it, and positions are only sent when another node is
+ * interested in the device. Only positions count against the queue capacity and are dropped when it is full, other
+ * messages are always queued. Entries larger than a frame are split into numbered fragments.
+ */
 public abstract class BaseBroadcastService implements BroadcastService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaseBroadcastService.class);
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 1000;
+    private static final long POLL_INTERVAL = 1000;
+    private static final long INTEREST_REFRESH = 30000;
+    private static final long INTEREST_TIMEOUT = 3 * INTEREST_REFRESH;
+
+    private static final class Fragments {
+        private final int id;
+        private final byte[][] parts;
+        private int received;
+
+        private Fragments(int id, int total) {
+            this.id = id;
+            parts = new byte[total][];
+        }
+    }
+
+    private static final class RemoteNode {
+        private volatile Set<Long> devices = Set.of();
+        private volatile long updated;
+        private int pendingGeneration;
+        private Set<Long> pendingDevices = new HashSet<>();
+        private final BitSet pendingChunks = new BitSet();
+    }
+
     private final Set<BroadcastInterface> listeners = new HashSet<>();
 
+    private final BroadcastCodec codec;
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queuedPositions = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+    private final Map<Long, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+    private final Map<Long, Fragments> fragments = new ConcurrentHashMap<>();
+    private volatile Set<Long> localInterest = Set.of();
+    private final AtomicBoolean interestChanged = new AtomicBoolean(true);
+    private long interestSent;
+    private int interestGeneration;
+    private int fragmentId;
+
+    protected BaseBroadcastService(ObjectMapper objectMapper) {
+        codec = new BroadcastCodec(objectMapper);
+    }
+
+    /**
+     * Largest frame the transport can deliver, including the frame header.
+     */
+    protected abstract int getMaxFrameSize();
+
+    protected abstract void sendFrame(byte[] frame) throws IOException;
+
     @Override
     public boolean singleInstance() {
         return true;
     }
 
+    @Override
+    public void start() {
+        sender.submit(() -> {
+            while (!sender.isShutdown()) {
+                try {
+                    processQueue(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Broadcast failed", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        sender.shutdown();
+    }
+
     @Override
     public void registerListener(BroadcastInterface listener) {
         listeners.add(listener);
     }
 
+    @Override
+    public void updateInterest(Set<Long> deviceIds) {
+        localInterest = deviceIds;
+        interestChanged.set(true);
+    }
+
     @Override
     public void updateDevice(boolean local, Device device) {
         BroadcastMessage message = new BroadcastMessage();
@@ -48,9 +157,19 @@ public abstract class BaseBroadcastService implements BroadcastService {
 
     @Override
     public void updatePosition(boolean local, Position position) {
-        BroadcastMessage message = new BroadcastMessage();
-        message.setPosition(position);
-        sendMessage(message);
+        if (isRemoteInterested(position.getDeviceId())) {
+            if (queuedPositions.incrementAndGet() > QUEUE_CAPACITY) {
+                queuedPositions.decrementAndGet();
+                dropped.increment();
+                return;
+            }
+            try {
+                queue.add(codec.encodePosition(position));
+            } catch (IOException e) {
+                queuedPositions.decrementAndGet();
+                LOGGER.warn("Broadcast encoding failed", e);
+            }
+        }
     }
 
     @Override
@@ -94,7 +213,216 @@ public abstract class BaseBroadcastService implements BroadcastService {
         sendMessage(message);
     }
 
-    protected abstract void sendMessage(BroadcastMessage message);
+    private boolean isRemoteInterested(long deviceId) {
+        for (RemoteNode node : remoteNodes.values()) {
+            if (node.devices.contains(deviceId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendMessage(BroadcastMessage message) {
+        try {
+            queue.add(codec.encodeMessage(message));
+        } catch (IOException e) {
+            LOGGER.warn("Broadcast encoding failed", e);
+        }
+    }
+
+    void processQueue(long timeout) throws InterruptedException {
+        List<byte[]> batch = new ArrayList<>();
+        byte[] entry = queue.poll(timeout, TimeUnit.MILLISECONDS);
+        if (entry != null) {
+            batch.add(entry);
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            for (byte[] queued : batch) {
+                if (queued[0] == BroadcastCodec.ENTRY_POSITION) {
+                    queuedPositions.decrementAndGet();
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (interestChanged.getAndSet(false) || now - interestSent >= INTEREST_REFRESH) {
+            interestSent = now;
+            addInterest(batch);
+            remoteNodes.values().removeIf(node -> now - node.updated > INTEREST_TIMEOUT);
+        }
+
+        long droppedCount = dropped.sumThenReset();
+        if (droppedCount > 0) {
+            LOGGER.warn("Broadcast queue is full, {} positions dropped", droppedCount);
+        }
+
+        if (!batch.isEmpty()) {
+            sendFrames(batch);
+        }
+    }
+
+    private void addInterest(List<byte[]> batch) {
+        long[] deviceIds = localInterest.stream().mapToLong(Long::longValue).toArray();
+        int chunkSize = (getMaxFrameSize()
+                - BroadcastCodec.FRAME_HEADER_SIZE - BroadcastCodec.ENTRY_HEADER_SIZE - 16) / 8;
+        int total = Math.max(1, (deviceIds.length + chunkSize - 1) / chunkSize);
+        interestGeneration += 1;
+        for (int i = 0; i < total; i++) {
+            batch.add(BroadcastCodec.encodeInterest(
+                    interestGeneration, i, total,
+                    deviceIds, i * chunkSize, Math.min(deviceIds.length, (i + 1) * chunkSize)));
+        }
+    }
+
+    private final class FrameWriter {
+
+        private final int maxFrameSize = getMaxFrameSize();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(maxFrameSize, 65536));
+        private final DataOutputStream output = new DataOutputStream(buffer);
+        private int count;
+
+        private void write(byte[] entry) throws IOException {
+            int size = BroadcastCodec.ENTRY_HEADER_SIZE + entry.length - 1;
+            if (count > 0 && buffer.size() + size > maxFrameSize) {
+                flush();
+            }
+            if (count == 0) {
+                output.writeInt(BroadcastCodec.FRAME_MAGIC);
+                output.writeLong(nodeId);
+            }
+            output.writeByte(entry[0]);
+            output.writeInt(entry.length - 1);
+            output.write(entry, 1, entry.length - 1);
+            count += 1;
+        }
+
+        private void flush() throws IOException {
+            if (count > 0) {
+                sendFrame(buffer.toByteArray());
+                buffer.reset();
+                count = 0;
+            }
+        }
+
+    }
+
+    private void sendFrames(List<byte[]> entries) {
+        FrameWriter writer = new FrameWriter();
+        int maxEntrySize = writer.maxFrameSize - BroadcastCodec.FRAME_HEADER_SIZE - BroadcastCodec.ENTRY_HEADER_SIZE;
+        try {
+            for (byte[] entry : entries) {
+                if (entry.length - 1 > maxEntrySize) {
+                    fragmentId += 1;
+                    for (byte[] fragment : BroadcastCodec.encodeFragments(
+                            fragmentId, entry, maxEntrySize - BroadcastCodec.FRAGMENT_HEADER_SIZE)) {
+                        writer.write(fragment);
+                    }
+                } else {
+                    writer.write(entry);
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.warn("Broadcast failed", e);
+        }
+    }
+
+    protected void handleFrame(byte[] data, int offset, int length) throws Exception {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        if (input.readInt() != BroadcastCodec.FRAME_MAGIC) {
+            LOGGER.warn("Unknown broadcast frame format");
+            return;
+        }
+        long senderId = input.readLong();
+        if (senderId == nodeId) {
+            return;
+        }
+        while (input.available() > 0) {
+            int type = input.readUnsignedByte();
+            int size = input.readInt();
+            handleEntry(senderId, type, size, input);
+        }
+    }
+
+    private void handleEntry(long senderId, int type, int size, DataInput input) throws Exception {
+        switch (type) {
+            case BroadcastCodec.ENTRY_POSITION -> {
+                long deviceId = input.readLong();
+                if (localInterest.contains(deviceId)) {
+                    Position position = codec.decodePosition(deviceId, input);
+                    listeners.forEach(listener -> listener.updatePosition(false, position));
+                } else {
+                    input.skipBytes(size - 8);
+                }
+            }
+            case BroadcastCodec.ENTRY_INTEREST -> handleInterest(senderId, input);
+            case BroadcastCodec.ENTRY_MESSAGE -> {
+                byte[] payload = new byte[size];
+                input.readFully(payload);
+                handleMessage(codec.decodeMessage(payload));
+            }
+            case BroadcastCodec.ENTRY_FRAGMENT -> handleFragment(senderId, size, input);
+            default -> input.skipBytes(size);
+        }
+    }
+
+    private void handleFragment(long senderId, int size, DataInput input) throws Exception {
+        int id = input.readInt();
+        int index = input.readInt();
+        int total = input.readInt();
+        byte[] data = new byte[size - BroadcastCodec.FRAGMENT_HEADER_SIZE];
+        input.readFully(data);
+        if (index < 0 || index >= total) {
+            return;
+        }
+
+        Fragments pending = fragments.get(senderId);
+        if (pending == null || pending.id != id || pending.parts.length != total) {
+            pending = new Fragments(id, total);
+            fragments.put(senderId, pending);
+        }
+        if (pending.parts[index] != null) {
+            return;
+        }
+        pending.parts[index] = data;
+        pending.received += 1;
+        if (pending.received == total) {
+            fragments.remove(senderId);
+            ByteArrayOutputStream entry = new ByteArrayOutputStream();
+            for (byte[] part : pending.parts) {
+                entry.write(part);
+            }
+            byte[] bytes = entry.toByteArray();
+            handleEntry(senderId, bytes[0] & 0xff, bytes.length - 1,
+                    new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1)));
+        }
+    }
+
+    private void handleInterest(long senderId, DataInput input) throws IOException {
+        int generation = input.readInt();
+        int index = input.readInt();
+        int total = input.readInt();
+        int count = input.readInt();
+
+        RemoteNode node = remoteNodes.get(senderId);
+        if (node == null) {
+            node = new RemoteNode();
+            remoteNodes.put(senderId, node);
+            interestChanged.set(true);
+        }
+        node.updated = System.currentTimeMillis();
+        if (generation != node.pendingGeneration) {
+            node.pendingGeneration = generation;
+            node.pendingDevices = new HashSet<>();
+            node.pendingChunks.clear();
+        }
+        for (int i = 0; i < count; i++) {
+            node.pendingDevices.add(input.readLong());
+        }
+        node.pendingChunks.set(index);
+        if (node.pendingChunks.cardinality() == total) {
+            node.devices = Set.copyOf(node.pendingDevices);
+        }
+    }
 
     protected void handleMessage(BroadcastMessage message) throws Exception {
         if (message.getDevice() != null) {
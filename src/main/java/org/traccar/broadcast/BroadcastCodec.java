@@ -0,0 +1,263 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.model.Network;
+import org.traccar.model.Position;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of broadcast frames. A frame has a header with the sender node id followed by entries, each
+ * prefixed with its type and payload size, so receivers can skip entries they are not interested in. Positions are
+ * encoded field by field with the device id first, other messages are rare and carried as JSON.
+ */
+final class BroadcastCodec {
+
+    static final int FRAME_MAGIC = 0x54424331;
+    static final int FRAME_HEADER_SIZE = 12;
+    static final int ENTRY_HEADER_SIZE = 5;
+
+    static final int ENTRY_POSITION = 1;
+    static final int ENTRY_INTEREST = 2;
+    static final int ENTRY_MESSAGE = 3;
+    static final int ENTRY_FRAGMENT = 4;
+
+    static final int FRAGMENT_HEADER_SIZE = 12;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_BOOLEAN = 1;
+    private static final int VALUE_INTEGER = 2;
+    private static final int VALUE_LONG = 3;
+    private static final int VALUE_DOUBLE = 4;
+    private static final int VALUE_STRING = 5;
+    private static final int VALUE_JSON = 6;
+
+    private final ObjectMapper objectMapper;
+
+    BroadcastCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput output, Date value) throws IOException {
+        output.writeLong(value != null ? value.getTime() : Long.MIN_VALUE);
+    }
+
+    private static Date readDate(DataInput input) throws IOException {
+        long value = input.readLong();
+        return value != Long.MIN_VALUE ? new Date(value) : null;
+    }
+
+    private void writeValue(DataOutput output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(VALUE_NULL);
+        } else if (value instanceof Boolean booleanValue) {
+            output.writeByte(VALUE_BOOLEAN);
+            output.writeBoolean(booleanValue);
+        } else if (value instanceof Integer integerValue) {
+            output.writeByte(VALUE_INTEGER);
+            output.writeInt(integerValue);
+        } else if (value instanceof Long longValue) {
+            output.writeByte(VALUE_LONG);
+            output.writeLong(longValue);
+        } else if (value instanceof Double doubleValue) {
+            output.writeByte(VALUE_DOUBLE);
+            output.writeDouble(doubleValue);
+        } else if (value instanceof String stringValue) {
+            output.writeByte(VALUE_STRING);
+            writeString(output, stringValue);
+        } else {
+            output.writeByte(VALUE_JSON);
+            writeString(output, objectMapper.writeValueAsString(value));
+        }
+    }
+
+    private Object readValue(DataInput input) throws IOException {
+        int type = input.readUnsignedByte();
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case VALUE_BOOLEAN -> input.readBoolean();
+            case VALUE_INTEGER -> input.readInt();
+            case VALUE_LONG -> input.readLong();
+            case VALUE_DOUBLE -> input.readDouble();
+            case VALUE_STRING -> readString(input);
+            case VALUE_JSON -> objectMapper.readValue(readString(input), Object.class);
+            default -> throw new IOException("Unknown value type " + type);
+        };
+    }
+
+    byte[] encodePosition(Position position) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeByte(ENTRY_POSITION);
+        output.writeLong(position.getDeviceId());
+        output.writeLong(position.getId());
+        writeString(output, position.getProtocol());
+        writeDate(output, position.getServerTime());
+        writeDate(output, position.getDeviceTime());
+        writeDate(output, position.getFixTime());
+        output.writeByte((position.getValid() ? 1 : 0) | (position.getOutdated() ? 2 : 0));
+        output.writeDouble(position.getLatitude());
+        output.writeDouble(position.getLongitude());
+        output.writeDouble(position.getAltitude());
+        output.writeDouble(position.getSpeed());
+        output.writeDouble(position.getCourse());
+        output.writeDouble(position.getAccuracy());
+        writeString(output, position.getAddress());
+        writeString(output, position.getNetwork() != null
+                ? objectMapper.writeValueAsString(position.getNetwork()) : null);
+        List<Long> geofenceIds = position.getGeofenceIds();
+        output.writeInt(geofenceIds != null ? geofenceIds.size() : -1);
+        if (geofenceIds != null) {
+            for (long geofenceId : geofenceIds) {
+                output.writeLong(geofenceId);
+            }
+        }
+        Map<String, Object> attributes = position.getAttributes();
+        output.writeInt(attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            writeString(output, entry.getKey());
+            writeValue(output, entry.getValue());
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decodes position payload after the device id, which the caller reads first to decide whether to skip it.
+     */
+    Position decodePosition(long deviceId, DataInput input) throws IOException {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        position.setId(input.readLong());
+        position.setProtocol(readString(input));
+        position.setServerTime(readDate(input));
+        position.setDeviceTime(readDate(input));
+        position.setFixTime(readDate(input));
+        int flags = input.readUnsignedByte();
+        position.setValid((flags & 1) != 0);
+        position.setOutdated((flags & 2) != 0);
+        position.setLatitude(input.readDouble());
+        position.setLongitude(input.readDouble());
+        position.setAltitude(input.readDouble());
+        position.setSpeed(input.readDouble());
+        position.setCourse(input.readDouble());
+        position.setAccuracy(input.readDouble());
+        position.setAddress(readString(input));
+        String network = readString(input);
+        if (network != null) {
+            position.setNetwork(objectMapper.readValue(network, Network.class));
+        }
+        int geofenceCount = input.readInt();
+        if (geofenceCount >= 0) {
+            List<Long> geofenceIds = new ArrayList<>(geofenceCount);
+            for (int i = 0; i < geofenceCount; i++) {
+                geofenceIds.add(input.readLong());
+            }
+            position.setGeofenceIds(geofenceIds);
+        }
+        int attributeCount = input.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            String key = readString(input);
+            position.getAttributes().put(key, readValue(input));
+        }
+        return position;
+    }
+
+    static byte[] encodeInterest(int generation, int index, int total, long[] deviceIds, int from, int to) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(17 + (to - from) * 8);
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            output.writeByte(ENTRY_INTEREST);
+            output.writeInt(generation);
+            output.writeInt(index);
+            output.writeInt(total);
+            output.writeInt(to - from);
+            for (int i = from; i < to; i++) {
+                output.writeLong(deviceIds[i]);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Splits an entry that does not fit into a frame into numbered fragments of at most the given data size. The
+     * receiver concatenates fragment data to restore the original entry, including its type.
+     */
+    static List<byte[]> encodeFragments(int id, byte[] entry, int fragmentSize) {
+        int total = (entry.length + fragmentSize - 1) / fragmentSize;
+        List<byte[]> fragments = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            int offset = i * fragmentSize;
+            int length = Math.min(fragmentSize, entry.length - offset);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 + FRAGMENT_HEADER_SIZE + length);
+            try (DataOutputStream output = new DataOutputStream(buffer)) {
+                output.writeByte(ENTRY_FRAGMENT);
+                output.writeInt(id);
+                output.writeInt(i);
+                output.writeInt(total);
+                output.write(entry, offset, length);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            fragments.add(buffer.toByteArray());
+        }
+        return fragments;
+    }
+
+    byte[] encodeMessage(BroadcastMessage message) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(message);
+        byte[] entry = new byte[json.length + 1];
+        entry[0] = ENTRY_MESSAGE;
+        System.arraycopy(json, 0, entry, 1, json.length);
+        return entry;
+    }
+
+    BroadcastMessage decodeMessage(byte[] payload) throws IOException {
+        return objectMapper.readValue(payload, BroadcastMessage.class);
+    }
+
+}
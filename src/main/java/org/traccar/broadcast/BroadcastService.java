@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,14 @@ package org.traccar.broadcast;
 
 import org.traccar.LifecycleObject;
 
+import java.util.Set;
+
 public interface BroadcastService extends LifecycleObject, BroadcastInterface {
     boolean singleInstance();
     void registerListener(BroadcastInterface listener);
+
+    /**
+     * Devices with live listeners on this node. Other nodes only send positions for these devices.
+     */
+    void updateInterest(Set<Long> deviceIds);
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning each device to one cluster node. Every node is placed on the ring many times, so
+ * devices spread evenly and adding or removing a node only moves devices to or from that node.
+ */
+public final class ClusterRing {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ClusterRing(List<String> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Cluster ring requires at least one node");
+        }
+        for (String node : nodes) {
+            long nodeHash = node.hashCode();
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(mix(nodeHash << 32 | i), node);
+            }
+        }
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    public String getOwner(long deviceId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(deviceId));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+}
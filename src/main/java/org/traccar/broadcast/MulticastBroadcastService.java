@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,7 +28,6 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MulticastSocket;
 import java.net.NetworkInterface;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -36,19 +35,17 @@ public class MulticastBroadcastService extends BaseBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MulticastBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
-
     private final NetworkInterface networkInterface;
     private final int port;
     private final InetSocketAddress group;
 
-    private DatagramSocket publisherSocket;
+    private volatile DatagramSocket publisherSocket;
 
     private final ExecutorService service = Executors.newSingleThreadExecutor();
     private final byte[] receiverBuffer = new byte[4096];
 
     public MulticastBroadcastService(Config config, ObjectMapper objectMapper) throws IOException {
-        this.objectMapper = objectMapper;
+        super(objectMapper);
         port = config.getInteger(Keys.BROADCAST_PORT);
         String interfaceName = config.getString(Keys.BROADCAST_INTERFACE);
         if (interfaceName.indexOf('.') >= 0 || interfaceName.indexOf(':') >= 0) {
@@ -66,23 +63,27 @@ public class MulticastBroadcastService extends BaseBroadcastService {
     }
 
     @Override
-    protected void sendMessage(BroadcastMessage message) {
-        try {
-            byte[] buffer = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
-            DatagramPacket packet = new DatagramPacket(buffer, buffer.length, group);
-            publisherSocket.send(packet);
-        } catch (IOException e) {
-            LOGGER.warn("Broadcast failed", e);
+    protected int getMaxFrameSize() {
+        return receiverBuffer.length;
+    }
+
+    @Override
+    protected void sendFrame(byte[] frame) throws IOException {
+        DatagramSocket socket = publisherSocket;
+        if (socket != null) {
+            socket.send(new DatagramPacket(frame, frame.length, group));
         }
     }
 
     @Override
-    public void start() throws IOException {
+    public void start() {
+        super.start();
         service.submit(receiver);
     }
 
     @Override
     public void stop() {
+        super.stop();
         service.shutdown();
     }
 
@@ -97,8 +98,11 @@ public class MulticastBroadcastService extends BaseBroadcastService {
                     DatagramPacket packet = new DatagramPacket(receiverBuffer, receiverBuffer.length);
                     socket.receive(packet);
                     if (networkInterface.inetAddresses().noneMatch(a -> a.equals(packet.getAddress()))) {
-                        String data = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
-                        handleMessage(objectMapper.readValue(data, BroadcastMessage.class));
+                        try {
+                            handleFrame(packet.getData(), packet.getOffset(), packet.getLength());
+                        } catch (Exception e) {
+                            LOGGER.warn("Broadcast handleFrame failed", e);
+                        }
                     }
                 }
                 publisherSocket = null;
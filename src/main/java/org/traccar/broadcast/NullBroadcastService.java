@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,8 @@
  */
 package org.traccar.broadcast;
 
+import java.util.Set;
+
 public class NullBroadcastService implements BroadcastService {
 
     @Override
@@ -26,6 +28,10 @@ public class NullBroadcastService implements BroadcastService {
     public void registerListener(BroadcastInterface listener) {
     }
 
+    @Override
+    public void updateInterest(Set<Long> deviceIds) {
+    }
+
     @Override
     public void start() throws Exception {
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,11 +22,12 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
 
@@ -34,19 +35,17 @@ public class RedisBroadcastService extends BaseBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
+    private static final int MAX_FRAME_SIZE = 65536;
 
     private final ExecutorService service = Executors.newSingleThreadExecutor();
 
-    private final String channel = "traccar";
+    private final byte[] channel = "traccar".getBytes(StandardCharsets.US_ASCII);
 
     private Jedis subscriber;
     private Jedis publisher;
 
-    private final String id = UUID.randomUUID().toString();
-
     public RedisBroadcastService(Config config, ObjectMapper objectMapper) throws IOException {
-        this.objectMapper = objectMapper;
+        super(objectMapper);
         String url = config.getString(Keys.BROADCAST_ADDRESS);
 
         try {
@@ -64,22 +63,28 @@ public class RedisBroadcastService extends BaseBroadcastService {
     }
 
     @Override
-    protected void sendMessage(BroadcastMessage message) {
+    protected int getMaxFrameSize() {
+        return MAX_FRAME_SIZE;
+    }
+
+    @Override
+    protected void sendFrame(byte[] frame) throws IOException {
         try {
-            String payload = id  + ":" + objectMapper.writeValueAsString(message);
-            publisher.publish(channel, payload);
-        } catch (IOException | JedisConnectionException e) {
-            LOGGER.warn("Broadcast failed", e);
+            publisher.publish(channel, frame);
+        } catch (JedisConnectionException e) {
+            throw new IOException(e);
         }
     }
 
     @Override
-    public void start() throws IOException {
+    public void start() {
+        super.start();
         service.submit(receiver);
     }
 
     @Override
     public void stop() {
+        super.stop();
         try {
             if (subscriber != null) {
                 subscriber.close();
@@ -103,16 +108,15 @@ public class RedisBroadcastService extends BaseBroadcastService {
         @Override
         public void run() {
             try {
-                subscriber.subscribe(new JedisPubSub() {
+                subscriber.subscribe(new BinaryJedisPubSub() {
                     @Override
-                    public void onMessage(String messageChannel, String message) {
+                    public void onMessage(byte[] messageChannel, byte[] message) {
                         try {
-                            String[] parts = message.split(":", 2);
-                            if (messageChannel.equals(channel) && parts.length == 2 && !id.equals(parts[0])) {
-                                handleMessage(objectMapper.readValue(parts[1], BroadcastMessage.class));
+                            if (Arrays.equals(messageChannel, channel)) {
+                                handleFrame(message, 0, message.length);
                             }
                         } catch (Exception e) {
-                            LOGGER.warn("Broadcast handleMessage failed", e);
+                            LOGGER.warn("Broadcast handleFrame failed", e);
                         }
                     }
                 }, channel);
@@ -0,0 +1,561 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.EventLoopGroupFactory;
+import org.traccar.LifecycleObject;
+import org.traccar.ProcessingHandler;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.handler.network.AcknowledgementHandler;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Device ownership for clusters with static membership. Each device id is assigned to one node with a consistent
+ * hash, and positions decoded on other nodes are handed over to the owner through a direct TCP connection, so
+ * buffering and per-device processing state stay on a single node.
+ * <p>
+ * Every handed over position carries a request id, and the owner answers with an acknowledgement once processing
+ * has finished, or with a rejection if the device could not be loaded. While the owner is connecting or unreachable,
+ * positions are held and sent after the connection is restored, and positions in flight on a lost connection are
+ * sent again. Positions are only processed locally when the owner rejects them, when too many are held, or when the
+ * owner stays unreachable or silent past the timeout.
+ */
+@Singleton
+public class ShardingManager implements LifecycleObject {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardingManager.class);
+
+    private static final AttributeKey<Boolean> HANDOFF = AttributeKey.valueOf("handoff");
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final int MAX_HELD = 10000;
+    private static final long RECONNECT_DELAY = 5000;
+    private static final long HOLD_TIMEOUT = 30000;
+    private static final long ACKNOWLEDGEMENT_TIMEOUT = 60000;
+    private static final long CLEANUP_PERIOD = 60000;
+
+    private static final int STATUS_REJECTED = 0;
+    private static final int STATUS_PROCESSED = 1;
+
+    private static final class Handoff {
+        private final byte[] data;
+        private final Promise<Void> promise;
+        private final long created;
+        private long sent;
+
+        private Handoff(byte[] data, Promise<Void> promise, long created) {
+            this.data = data;
+            this.promise = promise;
+            this.created = created;
+        }
+    }
+
+    private final Injector injector;
+    private final CacheManager cacheManager;
+    private final Timer timer;
+    private final BroadcastCodec codec;
+
+    private final ClusterRing ring;
+    private final String localNode;
+    private final long deviceTimeout;
+
+    private final Map<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+    private final Map<Long, Long> remoteDevices = new ConcurrentHashMap<>();
+    private final ExecutorService deviceLoader = Executors.newSingleThreadExecutor();
+
+    private Channel serverChannel;
+    private Timeout cleanupTimeout;
+    private Timeout checkTimeout;
+    private volatile boolean stopped;
+
+    @Inject
+    public ShardingManager(
+            Config config, Injector injector, CacheManager cacheManager, Timer timer, ObjectMapper objectMapper) {
+        this.injector = injector;
+        this.cacheManager = cacheManager;
+        this.timer = timer;
+        codec = new BroadcastCodec(objectMapper);
+        deviceTimeout = TimeUnit.SECONDS.toMillis(config.getLong(Keys.STATUS_TIMEOUT));
+
+        String nodes = config.getString(Keys.CLUSTER_NODES);
+        localNode = config.getString(Keys.CLUSTER_NODE);
+        if (nodes != null && localNode != null) {
+            List<String> nodeList = Arrays.stream(nodes.split(",")).map(String::trim).toList();
+            if (!nodeList.contains(localNode)) {
+                throw new IllegalArgumentException("Cluster node " + localNode + " is not in the nodes list");
+            }
+            ring = nodeList.size() > 1 ? new ClusterRing(nodeList) : null;
+            if (ring != null) {
+                nodeList.stream()
+                        .filter(node -> !node.equals(localNode))
+                        .forEach(node -> remoteNodes.put(node, new RemoteNode(node)));
+            }
+        } else {
+            ring = null;
+        }
+    }
+
+    private static String host(String node) {
+        return node.substring(0, node.lastIndexOf(':'));
+    }
+
+    private static int port(String node) {
+        return Integer.parseInt(node.substring(node.lastIndexOf(':') + 1));
+    }
+
+    /**
+     * Connections are accepted only from addresses the other cluster nodes resolve to. Names are resolved on every
+     * connection, so address changes are picked up through the regular DNS cache.
+     */
+    private boolean isMember(InetAddress address) {
+        for (String node : remoteNodes.keySet()) {
+            try {
+                for (InetAddress nodeAddress : InetAddress.getAllByName(host(node))) {
+                    if (nodeAddress.equals(address)) {
+                        return true;
+                    }
+                }
+            } catch (UnknownHostException e) {
+                LOGGER.warn("Cluster node {} address resolution failed", node, e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the position should be handed over to another node. Positions received from other nodes are always
+     * processed locally, so nodes with inconsistent configuration never bounce them back and forth.
+     */
+    public boolean isRemote(Channel channel, long deviceId) {
+        return ring != null && !channel.hasAttr(HANDOFF) && !ring.getOwner(deviceId).equals(localNode);
+    }
+
+    /**
+     * Completes when the owner has finished processing the position, fails when it has to be processed locally.
+     */
+    public Future<Void> handOff(Position position) {
+        RemoteNode node = remoteNodes.get(ring.getOwner(position.getDeviceId()));
+        Promise<Void> promise = ImmediateEventExecutor.INSTANCE.newPromise();
+        try {
+            node.send(new Handoff(codec.encodePosition(position), promise, System.currentTimeMillis()));
+        } catch (IOException e) {
+            promise.tryFailure(e);
+        }
+        return promise;
+    }
+
+    private final class RemoteNode {
+
+        private final String address;
+        private final Deque<Handoff> held = new ArrayDeque<>();
+        private final Map<Long, Handoff> inFlight = new HashMap<>();
+        private Channel channel;
+        private boolean connecting;
+        private boolean unreachable;
+        private long lastId;
+
+        private RemoteNode(String address) {
+            this.address = address;
+        }
+
+        private void send(Handoff handoff) {
+            boolean rejected = false;
+            synchronized (this) {
+                if (channel != null) {
+                    write(handoff);
+                } else if (held.size() < MAX_HELD) {
+                    held.add(handoff);
+                } else {
+                    rejected = true;
+                }
+            }
+            if (rejected) {
+                handoff.promise.tryFailure(new IOException("Too many positions held for cluster node " + address));
+            }
+        }
+
+        private void write(Handoff handoff) {
+            long id = ++lastId;
+            handoff.sent = System.currentTimeMillis();
+            inFlight.put(id, handoff);
+            ByteBuf buf = channel.alloc().buffer(8 + handoff.data.length);
+            buf.writeLong(id);
+            buf.writeBytes(handoff.data);
+            channel.writeAndFlush(buf, channel.voidPromise());
+        }
+
+        private void connect() {
+            connecting = true;
+            new Bootstrap()
+                    .group(EventLoopGroupFactory.getWorkerGroup())
+                    .channel(NioSocketChannel.class)
+                    .handler(new ChannelInitializer<>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            channel.pipeline().addLast(new FlushConsolidationHandler(
+                                    FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+                            channel.pipeline().addLast(new LengthFieldPrepender(4));
+                            channel.pipeline().addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_SIZE, 0, 4, 0, 4));
+                            channel.pipeline().addLast(new ResponseHandler(RemoteNode.this));
+                        }
+                    })
+                    .connect(host(address), port(address))
+                    .addListener((ChannelFuture future) -> connected(future));
+        }
+
+        private void connected(ChannelFuture future) {
+            boolean failed;
+            synchronized (this) {
+                connecting = false;
+                failed = !future.isSuccess() || stopped;
+                if (!failed) {
+                    channel = future.channel();
+                    unreachable = false;
+                    while (!held.isEmpty()) {
+                        write(held.poll());
+                    }
+                } else if (!unreachable) {
+                    unreachable = true;
+                    LOGGER.warn("Cluster node {} connection failed", address, future.cause());
+                }
+            }
+            if (failed) {
+                future.channel().close();
+            } else {
+                LOGGER.info("Cluster node {} connected", address);
+                future.channel().closeFuture().addListener(closed -> disconnected(future.channel()));
+            }
+        }
+
+        private synchronized void disconnected(Channel closed) {
+            if (channel == closed) {
+                channel = null;
+                inFlight.entrySet().stream()
+                        .sorted(Map.Entry.<Long, Handoff>comparingByKey().reversed())
+                        .forEach(entry -> held.addFirst(entry.getValue()));
+                inFlight.clear();
+                LOGGER.warn("Cluster node {} disconnected", address);
+            }
+        }
+
+        private void respond(long id, boolean processed) {
+            Handoff handoff;
+            synchronized (this) {
+                handoff = inFlight.remove(id);
+            }
+            if (handoff != null) {
+                if (processed) {
+                    handoff.promise.trySuccess(null);
+                } else {
+                    handoff.promise.tryFailure(new IOException("Cluster node " + address + " rejected position"));
+                }
+            }
+        }
+
+        private void check(long now) {
+            List<Handoff> expired = new ArrayList<>();
+            synchronized (this) {
+                while (!held.isEmpty() && now - held.peek().created > HOLD_TIMEOUT) {
+                    expired.add(held.poll());
+                }
+                Iterator<Handoff> iterator = inFlight.values().iterator();
+                while (iterator.hasNext()) {
+                    Handoff handoff = iterator.next();
+                    if (now - handoff.sent > ACKNOWLEDGEMENT_TIMEOUT) {
+                        iterator.remove();
+                        expired.add(handoff);
+                    }
+                }
+                if (channel == null && !connecting && !stopped) {
+                    connect();
+                }
+            }
+            if (!expired.isEmpty()) {
+                LOGGER.warn("Cluster node {} timed out, {} positions processed locally", address, expired.size());
+                expired.forEach(handoff -> handoff.promise.tryFailure(
+                        new TimeoutException("Cluster node " + address + " timed out")));
+            }
+        }
+
+        private synchronized void close() {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+    }
+
+    private static final class ResponseHandler extends ChannelInboundHandlerAdapter {
+
+        private final RemoteNode node;
+
+        private ResponseHandler(RemoteNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                node.respond(buf.readLong(), buf.readUnsignedByte() == STATUS_PROCESSED);
+            } finally {
+                buf.release();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            LOGGER.warn("Cluster handoff error", cause);
+            ctx.close();
+        }
+
+    }
+
+    private record Request(long id, Position position) {
+    }
+
+    /**
+     * Receives positions from other nodes, loads their devices off the event loop and answers once processing has
+     * finished. Positions are passed on in the order they arrived, also while a device is being loaded.
+     */
+    private final class HandoffHandler extends ChannelDuplexHandler {
+
+        private final Queue<Request> waiting = new ArrayDeque<>();
+        private final Map<Position, Long> processing = new IdentityHashMap<>();
+        private boolean loading;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ByteBuf buf = (ByteBuf) msg;
+            long id = buf.readLong();
+            try {
+                ByteBufInputStream input = new ByteBufInputStream(buf);
+                if (input.readUnsignedByte() != BroadcastCodec.ENTRY_POSITION) {
+                    throw new IOException("Unknown handoff entry");
+                }
+                long deviceId = input.readLong();
+                waiting.add(new Request(id, codec.decodePosition(deviceId, input)));
+            } catch (IOException e) {
+                LOGGER.warn("Cluster handoff decoding failed", e);
+                respond(ctx, id, STATUS_REJECTED, ctx.newPromise());
+                return;
+            } finally {
+                buf.release();
+            }
+            release(ctx);
+        }
+
+        private void release(ChannelHandlerContext ctx) {
+            while (!loading && !waiting.isEmpty()) {
+                Request request = waiting.peek();
+                long deviceId = request.position().getDeviceId();
+                long now = System.currentTimeMillis();
+                if (remoteDevices.computeIfPresent(deviceId, (key, time) -> now) != null) {
+                    waiting.poll();
+                    processing.put(request.position(), request.id());
+                    ctx.fireChannelRead(request.position());
+                } else {
+                    loading = true;
+                    deviceLoader.execute(() -> load(ctx, request));
+                }
+            }
+        }
+
+        private void load(ChannelHandlerContext ctx, Request request) {
+            long deviceId = request.position().getDeviceId();
+            boolean loaded;
+            try {
+                cacheManager.addDevice(deviceId);
+                if (remoteDevices.put(deviceId, System.currentTimeMillis()) != null) {
+                    cacheManager.removeDevice(deviceId);
+                }
+                loaded = true;
+            } catch (Exception e) {
+                LOGGER.warn("Cluster device {} loading failed", deviceId, e);
+                loaded = false;
+            }
+            boolean result = loaded;
+            ctx.executor().execute(() -> {
+                loading = false;
+                if (!result) {
+                    waiting.poll();
+                    respond(ctx, request.id(), STATUS_REJECTED, ctx.newPromise());
+                }
+                release(ctx);
+            });
+        }
+
+        /**
+         * Acknowledgements are sent to devices by the node that received the data, so here processing results are
+         * turned into responses to that node instead.
+         */
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof AcknowledgementHandler.EventHandled handled) {
+                Long id = processing.remove(handled.getObject());
+                if (id != null) {
+                    respond(ctx, id, STATUS_PROCESSED, promise);
+                } else {
+                    promise.trySuccess();
+                }
+            } else if (msg instanceof AcknowledgementHandler.Event) {
+                promise.trySuccess();
+            } else {
+                super.write(ctx, msg, promise);
+            }
+        }
+
+        private void respond(ChannelHandlerContext ctx, long id, int status, ChannelPromise promise) {
+            ByteBuf response = ctx.alloc().buffer(9);
+            response.writeLong(id);
+            response.writeByte(status);
+            ctx.writeAndFlush(response, promise);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            waiting.clear();
+            processing.clear();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            LOGGER.warn("Cluster handoff error", cause);
+        }
+
+    }
+
+    private void check(Timeout timeout) {
+        long now = System.currentTimeMillis();
+        remoteNodes.values().forEach(node -> node.check(now));
+        if (!stopped) {
+            checkTimeout = timer.newTimeout(this::check, RECONNECT_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cleanup(Timeout timeout) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Long> entry : remoteDevices.entrySet()) {
+            if (now - entry.getValue() > deviceTimeout && remoteDevices.remove(entry.getKey(), entry.getValue())) {
+                cacheManager.removeDevice(entry.getKey());
+            }
+        }
+        cleanupTimeout = timer.newTimeout(this::cleanup, CLEANUP_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (ring == null) {
+            return;
+        }
+        InetAddress address = InetAddress.getByName(host(localNode));
+        if (address.isAnyLocalAddress()) {
+            throw new IllegalArgumentException("Cluster node " + localNode + " must have a specific address");
+        }
+        ProcessingHandler processingHandler = injector.getInstance(ProcessingHandler.class);
+        serverChannel = new ServerBootstrap()
+                .group(EventLoopGroupFactory.getBossGroup(), EventLoopGroupFactory.getWorkerGroup())
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        InetAddress remoteAddress = ((InetSocketAddress) channel.remoteAddress()).getAddress();
+                        if (!isMember(remoteAddress)) {
+                            LOGGER.warn("Cluster connection from {} rejected", remoteAddress.getHostAddress());
+                            channel.close();
+                            return;
+                        }
+                        channel.attr(HANDOFF).set(true);
+                        channel.pipeline().addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_SIZE, 0, 4, 0, 4));
+                        channel.pipeline().addLast(new LengthFieldPrepender(4));
+                        channel.pipeline().addLast(new HandoffHandler());
+                        channel.pipeline().addLast(processingHandler);
+                    }
+                })
+                .bind(new InetSocketAddress(address, port(localNode))).syncUninterruptibly().channel();
+        check(null);
+        cleanupTimeout = timer.newTimeout(this::cleanup, CLEANUP_PERIOD, TimeUnit.MILLISECONDS);
+        LOGGER.info("Cluster node {} started", localNode);
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        if (checkTimeout != null) {
+            checkTimeout.cancel();
+        }
+        if (cleanupTimeout != null) {
+            cleanupTimeout.cancel();
+        }
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+        }
+        remoteNodes.values().forEach(RemoteNode::close);
+        deviceLoader.shutdown();
+    }
+
+}
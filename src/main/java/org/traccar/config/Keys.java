@@ -17,7 +17,7 @@ package org.traccar.config;
 
 import java.util.List;
 
-public final class Keys {
+public final class Keys extends LocationKeys {
 
     private Keys() {
     }
@@ -484,6 +484,14 @@ public final class Keys {
             "database.maxPoolSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Prepared statement cache size for MySQL and MariaDB drivers. Set to 0 to disable.
+     */
+    public static final ConfigKey<Integer> DATABASE_STATEMENT_CACHE_SIZE = new IntegerConfigKey(
+            "database.statementCacheSize",
+            List.of(KeyType.CONFIG),
+            250);
+
     /**
      * SQL query to check connection status. Default value is 'SELECT 1'. For Oracle database you can use
      * 'SELECT 1 FROM DUAL'.
@@ -507,6 +515,15 @@ public final class Keys {
             "database.throttleUnknown",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Keep an in-memory index of device identifiers to avoid a database query for every new connection. The index
+     * is loaded on startup and updated when devices change. Identifiers not in the index are still looked up in the
+     * database.
+     */
+    public static final ConfigKey<Boolean> DATABASE_DEVICE_INDEX = new BooleanConfigKey(
+            "database.deviceIndex",
+            List.of(KeyType.CONFIG));
+
     /**
      * Automatically register unknown devices in the database.
      */
@@ -542,6 +559,30 @@ public final class Keys {
             "database.saveEmpty",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Positions retention period in days. Latest position of each device is always kept.
+     */
+    public static final ConfigKey<Integer> DATABASE_RETENTION_POSITIONS = new IntegerConfigKey(
+            "database.retention.positions",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Events retention period in days.
+     */
+    public static final ConfigKey<Integer> DATABASE_RETENTION_EVENTS = new IntegerConfigKey(
+            "database.retention.events",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Store positions and events in daily partitions on PostgreSQL and MySQL, so retention drops expired days whole
+     * instead of deleting rows. Existing tables are converted on the first retention run, which locks them while
+     * existing rows are checked and indexes are built, so enable it during a maintenance window. Other databases keep
+     * deleting rows.
+     */
+    public static final ConfigKey<Boolean> DATABASE_RETENTION_PARTITIONS = new BooleanConfigKey(
+            "database.retention.partitions",
+            List.of(KeyType.CONFIG));
+
     /**
      * Device limit for self registered users. Default value is -1, which indicates no limit.
      */
@@ -805,6 +846,15 @@ public final class Keys {
             "web.sessionTimeout",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Time in seconds to cache successful Basic and Bearer authentication results. Cached results are invalidated
+     * when the user is updated. Set to 0 to disable the cache.
+     */
+    public static final ConfigKey<Integer> WEB_AUTHENTICATION_CACHE_TIMEOUT = new IntegerConfigKey(
+            "web.authenticationCacheTimeout",
+            List.of(KeyType.CONFIG),
+            60);
+
     /**
      * Enable database access console via '/console' URL. Use only for debugging. Never use in production.
      */
@@ -812,6 +862,14 @@ public final class Keys {
             "web.console",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Enable Prometheus metrics via '/metrics' URL. The endpoint does not require authentication, so access to it
+     * should be restricted on the network level.
+     */
+    public static final ConfigKey<Boolean> WEB_METRICS = new BooleanConfigKey(
+            "web.metrics",
+            List.of(KeyType.CONFIG));
+
     /**
      * Server debug version of the web app. Not recommended to use for performance reasons. It is intended to be used
      * for development and debugging purposes.
@@ -1284,6 +1342,29 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             86400L);
 
+    /**
+     * Maintain hourly position rollups and use them in summary reports. With rollups, summary distance (unless
+     * odometer is used), engine hours and spent fuel are sums of differences between consecutive positions, and
+     * average speed falls back to the mean position speed when engine hours are not available.
+     */
+    public static final ConfigKey<Boolean> REPORT_ROLLUPS = new BooleanConfigKey(
+            "report.rollups",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of threads for per-device report processing. By default it's half of the database pool size.
+     */
+    public static final ConfigKey<Integer> REPORT_THREADS = new IntegerConfigKey(
+            "report.threads",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of report threads a single user can occupy. By default it's half of the report threads.
+     */
+    public static final ConfigKey<Integer> REPORT_USER_THREADS = new IntegerConfigKey(
+            "report.userThreads",
+            List.of(KeyType.CONFIG));
+
     /**
      * Trips less than minimal duration and minimal distance are ignored. 300 seconds and 500 meters are default.
      */
@@ -1591,185 +1672,6 @@ public final class Keys {
             "processing.computedAttributes.newInstanceCreation",
             List.of(KeyType.CONFIG));
 
-    /**
-     * Boolean flag to enable or disable reverse geocoder.
-     */
-    public static final ConfigKey<Boolean> GEOCODER_ENABLE = new BooleanConfigKey(
-            "geocoder.enable",
-            List.of(KeyType.CONFIG),
-            true);
-
-    /**
-     * Reverse geocoder type. Check reverse geocoding documentation for more info.
-     */
-    public static final ConfigKey<String> GEOCODER_TYPE = new StringConfigKey(
-            "geocoder.type",
-            List.of(KeyType.CONFIG),
-            "locationiq");
-
-    /**
-     * Geocoder server URL. Applicable only to Nominatim and Gisgraphy providers.
-     */
-    public static final ConfigKey<String> GEOCODER_URL = new StringConfigKey(
-            "geocoder.url",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Provider API key. Most providers require API keys.
-     */
-    public static final ConfigKey<String> GEOCODER_KEY = new StringConfigKey(
-            "geocoder.key",
-            List.of(KeyType.CONFIG),
-            "pk.689d849289c8c63708068b2ff1f63b2d");
-
-    /**
-     * Language parameter for providers that support localization (e.g. Google and Nominatim).
-     */
-    public static final ConfigKey<String> GEOCODER_LANGUAGE = new StringConfigKey(
-            "geocoder.language",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Address format string. Default value is %h %r, %t, %s, %c. See AddressFormat for more info.
-     */
-    public static final ConfigKey<String> GEOCODER_FORMAT = new StringConfigKey(
-            "geocoder.format",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Cache size for geocoding results.
-     */
-    public static final ConfigKey<Integer> GEOCODER_CACHE_SIZE = new IntegerConfigKey(
-            "geocoder.cacheSize",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Disable automatic reverse geocoding requests for all positions.
-     */
-    public static final ConfigKey<Boolean> GEOCODER_IGNORE_POSITIONS = new BooleanConfigKey(
-            "geocoder.ignorePositions",
-            List.of(KeyType.CONFIG),
-            true);
-
-    /**
-     * Boolean flag to apply reverse geocoding to invalid positions.
-     */
-    public static final ConfigKey<Boolean> GEOCODER_PROCESS_INVALID_POSITIONS = new BooleanConfigKey(
-            "geocoder.processInvalidPositions",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Optional parameter to specify minimum distance for new reverse geocoding request. If distance is less than
-     * specified value (in meters), then Traccar will reuse last known address.
-     */
-    public static final ConfigKey<Integer> GEOCODER_REUSE_DISTANCE = new IntegerConfigKey(
-            "geocoder.reuseDistance",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Perform geocoding when preparing reports and sending notifications.
-     */
-    public static final ConfigKey<Boolean> GEOCODER_ON_REQUEST = new BooleanConfigKey(
-            "geocoder.onRequest",
-            List.of(KeyType.CONFIG),
-            true);
-
-    /**
-     * Boolean flag to enable LBS location resolution. Some devices send cell towers information and WiFi point when GPS
-     * location is not available. Traccar can determine coordinates based on that information using third party
-     * services. Default value is false.
-     */
-    public static final ConfigKey<Boolean> GEOLOCATION_ENABLE = new BooleanConfigKey(
-            "geolocation.enable",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Provider to use for LBS location. Available options: google, unwired and opencellid. By default, google is
-     * used. You have to supply a key that you get from corresponding provider. For more information see LBS geolocation
-     * documentation.
-     */
-    public static final ConfigKey<String> GEOLOCATION_TYPE = new StringConfigKey(
-            "geolocation.type",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Geolocation provider API URL address. Not required for most providers.
-     */
-    public static final ConfigKey<String> GEOLOCATION_URL = new StringConfigKey(
-            "geolocation.url",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Provider API key. OpenCellID service requires API key.
-     */
-    public static final ConfigKey<String> GEOLOCATION_KEY = new StringConfigKey(
-            "geolocation.key",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Boolean flag to apply geolocation to invalid positions.
-     */
-    public static final ConfigKey<Boolean> GEOLOCATION_PROCESS_INVALID_POSITIONS = new BooleanConfigKey(
-            "geolocation.processInvalidPositions",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Reuse last geolocation result if network details have not changed.
-     */
-    public static final ConfigKey<Boolean> GEOLOCATION_REUSE = new BooleanConfigKey(
-            "geolocation.reuse",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Process geolocation only when Wi-Fi information is available. This makes the result more accurate.
-     */
-    public static final ConfigKey<Boolean> GEOLOCATION_REQUIRE_WIFI = new BooleanConfigKey(
-            "geolocation.requireWifi",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Default MCC value to use if device doesn't report MCC.
-     */
-    public static final ConfigKey<Integer> GEOLOCATION_MCC = new IntegerConfigKey(
-            "geolocation.mcc",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Default MNC value to use if device doesn't report MNC.
-     */
-    public static final ConfigKey<Integer> GEOLOCATION_MNC = new IntegerConfigKey(
-            "geolocation.mnc",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Boolean flag to enable speed limit API to get speed limit values depending on location. Default value is false.
-     */
-    public static final ConfigKey<Boolean> SPEED_LIMIT_ENABLE = new BooleanConfigKey(
-            "speedLimit.enable",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Provider to use for speed limit. Available options: overpass. By default overpass is used.
-     */
-    public static final ConfigKey<String> SPEED_LIMIT_TYPE = new StringConfigKey(
-            "speedLimit.type",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Speed limit provider API URL address.
-     */
-    public static final ConfigKey<String> SPEED_LIMIT_URL = new StringConfigKey(
-            "speedLimit.url",
-            List.of(KeyType.CONFIG));
-
-    /**
-     * Search radius for speed limit. Value is in meters. Default value is 100.
-     */
-    public static final ConfigKey<Integer> SPEED_LIMIT_ACCURACY = new IntegerConfigKey(
-            "speedLimit.accuracy",
-            List.of(KeyType.CONFIG),
-            100);
-
     /**
      * Override latitude sign / hemisphere. Useful in cases where value is incorrect because of device bug. Value can be
      * N for North or S for South.
@@ -1972,4 +1874,23 @@ public final class Keys {
             "broadcast.secondary",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Comma-separated list of all cluster nodes as host:port pairs. Each device is owned by one node, and other nodes
+     * hand decoded positions over to it, so per-device processing state is kept on a single node. The list must be the
+     * same on every node. Nodes accept connections only from the addresses of other listed nodes, but the traffic
+     * itself is neither authenticated nor encrypted, so the cluster port must only be reachable from a trusted
+     * private network.
+     */
+    public static final ConfigKey<String> CLUSTER_NODES = new StringConfigKey(
+            "cluster.nodes",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Address of this node as it appears in the cluster nodes list. Positions from other nodes are received on this
+     * address and port only, so it has to be a specific private interface address or name, not a wildcard address.
+     */
+    public static final ConfigKey<String> CLUSTER_NODE = new StringConfigKey(
+            "cluster.node",
+            List.of(KeyType.CONFIG));
+
 }
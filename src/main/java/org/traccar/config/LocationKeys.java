@@ -0,0 +1,307 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.config;
+
+import java.util.List;
+
+/**
+ * Geocoder, geolocation and speed limit keys, kept apart only to limit the length of the keys file. They are
+ * accessed through {@link Keys} like all other keys.
+ */
+class LocationKeys {
+
+    protected LocationKeys() {
+    }
+
+    /**
+     * Boolean flag to enable or disable reverse geocoder.
+     */
+    public static final ConfigKey<Boolean> GEOCODER_ENABLE = new BooleanConfigKey(
+            "geocoder.enable",
+            List.of(KeyType.CONFIG),
+            true);
+
+    /**
+     * Reverse geocoder type. Check reverse geocoding documentation for more info.
+     */
+    public static final ConfigKey<String> GEOCODER_TYPE = new StringConfigKey(
+            "geocoder.type",
+            List.of(KeyType.CONFIG),
+            "locationiq");
+
+    /**
+     * Geocoder server URL. Applicable only to Nominatim and Gisgraphy providers.
+     */
+    public static final ConfigKey<String> GEOCODER_URL = new StringConfigKey(
+            "geocoder.url",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Provider API key. Most providers require API keys.
+     */
+    public static final ConfigKey<String> GEOCODER_KEY = new StringConfigKey(
+            "geocoder.key",
+            List.of(KeyType.CONFIG),
+            "pk.689d849289c8c63708068b2ff1f63b2d");
+
+    /**
+     * Language parameter for providers that support localization (e.g. Google and Nominatim).
+     */
+    public static final ConfigKey<String> GEOCODER_LANGUAGE = new StringConfigKey(
+            "geocoder.language",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Address format string. Default value is %h %r, %t, %s, %c. See AddressFormat for more info.
+     */
+    public static final ConfigKey<String> GEOCODER_FORMAT = new StringConfigKey(
+            "geocoder.format",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Cache size for geocoding results. Results are cached per coordinate cell, see 'geocoder.cachePrecision'.
+     */
+    public static final ConfigKey<Integer> GEOCODER_CACHE_SIZE = new IntegerConfigKey(
+            "geocoder.cacheSize",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of decimal places of latitude and longitude used for geocoder cache cells. Concurrent lookups within the
+     * same cell are also merged into one request. Default value is 4, which gives cells of about 11 meters. Maximum
+     * value is 6.
+     */
+    public static final ConfigKey<Integer> GEOCODER_CACHE_PRECISION = new IntegerConfigKey(
+            "geocoder.cachePrecision",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Optional file to keep geocoder cache between restarts.
+     */
+    public static final ConfigKey<String> GEOCODER_CACHE_FILE = new StringConfigKey(
+            "geocoder.cacheFile",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Maximum number of geocoder requests in progress. Positions processed while the limit is reached are left
+     * without an address. By default there is no limit.
+     */
+    public static final ConfigKey<Integer> GEOCODER_MAX_REQUESTS = new IntegerConfigKey(
+            "geocoder.maxRequests",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Disable automatic reverse geocoding requests for all positions.
+     */
+    public static final ConfigKey<Boolean> GEOCODER_IGNORE_POSITIONS = new BooleanConfigKey(
+            "geocoder.ignorePositions",
+            List.of(KeyType.CONFIG),
+            true);
+
+    /**
+     * Boolean flag to apply reverse geocoding to invalid positions.
+     */
+    public static final ConfigKey<Boolean> GEOCODER_PROCESS_INVALID_POSITIONS = new BooleanConfigKey(
+            "geocoder.processInvalidPositions",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Optional parameter to specify minimum distance for new reverse geocoding request. If distance is less than
+     * specified value (in meters), then Traccar will reuse last known address.
+     */
+    public static final ConfigKey<Integer> GEOCODER_REUSE_DISTANCE = new IntegerConfigKey(
+            "geocoder.reuseDistance",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Perform geocoding when preparing reports and sending notifications.
+     */
+    public static final ConfigKey<Boolean> GEOCODER_ON_REQUEST = new BooleanConfigKey(
+            "geocoder.onRequest",
+            List.of(KeyType.CONFIG),
+            true);
+
+    /**
+     * Boolean flag to enable LBS location resolution. Some devices send cell towers information and WiFi point when GPS
+     * location is not available. Traccar can determine coordinates based on that information using third party
+     * services. Default value is false.
+     */
+    public static final ConfigKey<Boolean> GEOLOCATION_ENABLE = new BooleanConfigKey(
+            "geolocation.enable",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Provider to use for LBS location. Available options: google, unwired, opencellid and offline. By default, google
+     * is used. You have to supply a key that you get from corresponding provider. For more information see LBS
+     * geolocation documentation.
+     */
+    public static final ConfigKey<String> GEOLOCATION_TYPE = new StringConfigKey(
+            "geolocation.type",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Geolocation provider API URL address. Not required for most providers.
+     */
+    public static final ConfigKey<String> GEOLOCATION_URL = new StringConfigKey(
+            "geolocation.url",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Provider API key. OpenCellID service requires API key.
+     */
+    public static final ConfigKey<String> GEOLOCATION_KEY = new StringConfigKey(
+            "geolocation.key",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Boolean flag to apply geolocation to invalid positions.
+     */
+    public static final ConfigKey<Boolean> GEOLOCATION_PROCESS_INVALID_POSITIONS = new BooleanConfigKey(
+            "geolocation.processInvalidPositions",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Reuse last geolocation result if network details have not changed.
+     */
+    public static final ConfigKey<Boolean> GEOLOCATION_REUSE = new BooleanConfigKey(
+            "geolocation.reuse",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Process geolocation only when Wi-Fi information is available. This makes the result more accurate.
+     */
+    public static final ConfigKey<Boolean> GEOLOCATION_REQUIRE_WIFI = new BooleanConfigKey(
+            "geolocation.requireWifi",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Cache size for geolocation results, in radio emitters. Results are cached per Wi-Fi access point, or per cell
+     * tower for requests without Wi-Fi, and shared between devices. Caching is disabled by default.
+     */
+    public static final ConfigKey<Integer> GEOLOCATION_CACHE_SIZE = new IntegerConfigKey(
+            "geolocation.cacheSize",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Time to keep cached geolocation results in seconds. Default value is one week.
+     */
+    public static final ConfigKey<Long> GEOLOCATION_CACHE_TIMEOUT = new LongConfigKey(
+            "geolocation.cacheTimeout",
+            List.of(KeyType.CONFIG),
+            604800L);
+
+    /**
+     * Fraction of emitters in a request that must have cached locations to answer it from the cache. Cached locations
+     * of the matching emitters also have to be close to each other. Default value is 0.5.
+     */
+    public static final ConfigKey<Double> GEOLOCATION_CACHE_OVERLAP = new DoubleConfigKey(
+            "geolocation.cacheOverlap",
+            List.of(KeyType.CONFIG),
+            0.5);
+
+    /**
+     * Optional file to keep geolocation cache between restarts.
+     */
+    public static final ConfigKey<String> GEOLOCATION_CACHE_FILE = new StringConfigKey(
+            "geolocation.cacheFile",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * OpenCellID CSV export with cell tower locations. It is imported into a sorted index file next to it on first
+     * use. Cells found in the file are resolved locally, other requests go to the configured provider, unless the
+     * type is offline.
+     */
+    public static final ConfigKey<String> GEOLOCATION_FILE = new StringConfigKey(
+            "geolocation.file",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Default MCC value to use if device doesn't report MCC.
+     */
+    public static final ConfigKey<Integer> GEOLOCATION_MCC = new IntegerConfigKey(
+            "geolocation.mcc",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Default MNC value to use if device doesn't report MNC.
+     */
+    public static final ConfigKey<Integer> GEOLOCATION_MNC = new IntegerConfigKey(
+            "geolocation.mnc",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Boolean flag to enable speed limit API to get speed limit values depending on location. Default value is false.
+     */
+    public static final ConfigKey<Boolean> SPEED_LIMIT_ENABLE = new BooleanConfigKey(
+            "speedLimit.enable",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Provider to use for speed limit. Available options: overpass, offline. By default overpass is used.
+     */
+    public static final ConfigKey<String> SPEED_LIMIT_TYPE = new StringConfigKey(
+            "speedLimit.type",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Speed limit provider API URL address.
+     */
+    public static final ConfigKey<String> SPEED_LIMIT_URL = new StringConfigKey(
+            "speedLimit.url",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Search radius for speed limit. Value is in meters. Default value is 100.
+     */
+    public static final ConfigKey<Integer> SPEED_LIMIT_ACCURACY = new IntegerConfigKey(
+            "speedLimit.accuracy",
+            List.of(KeyType.CONFIG),
+            100);
+
+    /**
+     * Speed limit file for the offline provider. Each line contains latitude, longitude and maxspeed value separated
+     * by commas.
+     */
+    public static final ConfigKey<String> SPEED_LIMIT_FILE = new StringConfigKey(
+            "speedLimit.file",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of decimal places of latitude and longitude used for speed limit cache cells and offline file lookups.
+     * Default value is 3, which gives cells of about 110 meters.
+     */
+    public static final ConfigKey<Integer> SPEED_LIMIT_CACHE_PRECISION = new IntegerConfigKey(
+            "speedLimit.cachePrecision",
+            List.of(KeyType.CONFIG),
+            3);
+
+    /**
+     * Cache size for speed limit results. Set to 0 to disable caching. Default value is 10000.
+     */
+    public static final ConfigKey<Integer> SPEED_LIMIT_CACHE_SIZE = new IntegerConfigKey(
+            "speedLimit.cacheSize",
+            List.of(KeyType.CONFIG),
+            10000);
+
+    /**
+     * Time to keep cached speed limit results in seconds. Default value is one day.
+     */
+    public static final ConfigKey<Long> SPEED_LIMIT_CACHE_TIMEOUT = new LongConfigKey(
+            "speedLimit.cacheTimeout",
+            List.of(KeyType.CONFIG),
+            86400L);
+
+}
@@ -17,7 +17,6 @@ package org.traccar.database;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.HashedWheelTimer;
-import io.netty.util.Timeout;
 import io.netty.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,12 +24,21 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.model.Position;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Reorders positions of each device by time. Every position is held for at least the threshold after it arrived and
+ * positions are released strictly in order, so an older position arriving late holds back the newer ones. Each device
+ * has its own buffer and a single timer for its head position, instead of a timer per position.
+ */
 public class BufferingManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BufferingManager.class);
@@ -43,11 +51,14 @@ public class BufferingManager {
 
         private final ChannelHandlerContext context;
         private final Position position;
-        private Timeout timeout;
+        private final long deadline;
+        private final long sequence;
 
-        private Holder(ChannelHandlerContext context, Position position) {
+        private Holder(ChannelHandlerContext context, Position position, long deadline, long sequence) {
             this.context = context;
             this.position = position;
+            this.deadline = deadline;
+            this.sequence = sequence;
         }
 
         private int compareTime(Date left, Date right) {
@@ -69,43 +80,96 @@ public class BufferingManager {
                 return deviceTimeResult;
             }
 
-            return position.getServerTime().compareTo(other.position.getServerTime());
+            int serverTimeResult = compareTime(position.getServerTime(), other.position.getServerTime());
+            if (serverTimeResult != 0) {
+                return serverTimeResult;
+            }
+
+            return Long.compare(sequence, other.sequence);
         }
     }
 
+    private static final class DeviceBuffer {
+
+        private final TreeSet<Holder> queue = new TreeSet<>();
+        private boolean scheduled;
+        private boolean removed;
+
+    }
+
     private final Timer timer = new HashedWheelTimer();
     private final Callback callback;
     private final long threshold;
 
-    private final Map<Long, TreeSet<Holder>> buffer = new HashMap<>();
+    private final Map<Long, DeviceBuffer> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
 
     public BufferingManager(Config config, Callback callback) {
         this.callback = callback;
         threshold = config.getLong(Keys.SERVER_BUFFERING_THRESHOLD);
     }
 
-    private Timeout scheduleTimeout(Holder holder) {
-        return timer.newTimeout(
-                timeout -> {
-                    LOGGER.info("released {}", holder.position.getFixTime());
-                    buffer.get(holder.position.getDeviceId()).remove(holder);
-                    callback.onReleased(holder.context, holder.position);
-                },
-                threshold, TimeUnit.MILLISECONDS);
+    /**
+     * Number of positions currently held in the buffer.
+     */
+    public int getBufferedPositions() {
+        return size.get();
+    }
+
+    /**
+     * Number of devices with positions currently held in the buffer.
+     */
+    public int getBufferedDevices() {
+        return buffers.size();
+    }
+
+    private void schedule(long deviceId, DeviceBuffer buffer, long deadline) {
+        buffer.scheduled = true;
+        long delay = Math.max(deadline - System.currentTimeMillis(), 0);
+        timer.newTimeout(timeout -> release(deviceId, buffer), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void release(long deviceId, DeviceBuffer buffer) {
+        List<Holder> released = new ArrayList<>();
+        synchronized (buffer) {
+            buffer.scheduled = false;
+            long now = System.currentTimeMillis();
+            while (!buffer.queue.isEmpty() && buffer.queue.first().deadline <= now) {
+                released.add(buffer.queue.pollFirst());
+            }
+            if (buffer.queue.isEmpty()) {
+                buffer.removed = true;
+                buffers.remove(deviceId, buffer);
+            } else {
+                schedule(deviceId, buffer, buffer.queue.first().deadline);
+            }
+        }
+        size.addAndGet(-released.size());
+        for (Holder holder : released) {
+            LOGGER.debug("released {}", holder.position.getFixTime());
+            callback.onReleased(holder.context, holder.position);
+        }
     }
 
     public void accept(ChannelHandlerContext context, Position position) {
         if (threshold > 0) {
-            synchronized (buffer) {
-                LOGGER.info("queued {}", position.getFixTime());
-                var queue = buffer.computeIfAbsent(position.getDeviceId(), k -> new TreeSet<>());
-                Holder holder = new Holder(context, position);
-                holder.timeout = scheduleTimeout(holder);
-                queue.add(holder);
-                queue.tailSet(holder).forEach(h -> {
-                    h.timeout.cancel();
-                    h.timeout = scheduleTimeout(h);
-                });
+            LOGGER.debug("queued {}", position.getFixTime());
+            long deviceId = position.getDeviceId();
+            Holder holder = new Holder(
+                    context, position, System.currentTimeMillis() + threshold, sequence.incrementAndGet());
+            size.incrementAndGet();
+            while (true) {
+                DeviceBuffer buffer = buffers.computeIfAbsent(deviceId, k -> new DeviceBuffer());
+                synchronized (buffer) {
+                    if (!buffer.removed) {
+                        buffer.queue.add(holder);
+                        if (!buffer.scheduled) {
+                            schedule(deviceId, buffer, buffer.queue.first().deadline);
+                        }
+                        return;
+                    }
+                }
             }
         } else {
             callback.onReleased(context, position);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2017 - 2024 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -40,7 +40,10 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -53,17 +56,23 @@ public class CommandsManager implements BroadcastInterface {
     private final BroadcastService broadcastService;
     private final NotificationManager notificationManager;
 
+    private final Set<Long> queuedDevices = ConcurrentHashMap.newKeySet();
+
     @Inject
     public CommandsManager(
             Storage storage, ServerManager serverManager, @Nullable SmsManager smsManager,
             ConnectionManager connectionManager, BroadcastService broadcastService,
-            NotificationManager notificationManager) {
+            NotificationManager notificationManager) throws StorageException {
         this.storage = storage;
         this.serverManager = serverManager;
         this.smsManager = smsManager;
         this.connectionManager = connectionManager;
         this.broadcastService = broadcastService;
         this.notificationManager = notificationManager;
+        for (QueuedCommand command : storage.getObjects(
+                QueuedCommand.class, new Request(new Columns.Include("deviceId")))) {
+            queuedDevices.add(command.getDeviceId());
+        }
         broadcastService.registerListener(this);
     }
 
@@ -92,6 +101,7 @@ public class CommandsManager implements BroadcastInterface {
             } else {
                 QueuedCommand queuedCommand = QueuedCommand.fromCommand(command);
                 queuedCommand.setId(storage.addObject(queuedCommand, new Request(new Columns.Exclude("id"))));
+                queuedDevices.add(deviceId);
                 broadcastService.updateCommand(true, deviceId);
                 return queuedCommand;
             }
@@ -103,12 +113,23 @@ public class CommandsManager implements BroadcastInterface {
         return readQueuedCommands(deviceId, Integer.MAX_VALUE);
     }
 
+    /**
+     * Read and remove queued commands. Devices without queued commands are tracked in memory, so for most messages
+     * this does not query the database. The device is unmarked before the query and marked again if commands may
+     * remain, so a command queued concurrently is never missed.
+     */
     public Collection<Command> readQueuedCommands(long deviceId, int count) {
+        if (!queuedDevices.remove(deviceId)) {
+            return List.of();
+        }
         try {
             var commands = storage.getObjects(QueuedCommand.class, new Request(
                     new Columns.All(),
                     new Condition.Equals("deviceId", deviceId),
                     new Order("id", false, count)));
+            if (commands.size() >= count) {
+                queuedDevices.add(deviceId);
+            }
             Map<Event, Position> events = new HashMap<>();
             for (var command : commands) {
                 storage.removeObject(QueuedCommand.class, new Request(
@@ -121,12 +142,14 @@ public class CommandsManager implements BroadcastInterface {
             notificationManager.updateEvents(events);
             return commands.stream().map(QueuedCommand::toCommand).collect(Collectors.toList());
         } catch (StorageException e) {
+            queuedDevices.add(deviceId);
             throw new RuntimeException(e);
         }
     }
 
     @Override
     public void updateCommand(boolean local, long deviceId) {
+        queuedDevices.add(deviceId);
         if (!local) {
             DeviceSession deviceSession = connectionManager.getDeviceSession(deviceId);
             if (deviceSession != null && deviceSession.supportsLiveCommands()) {
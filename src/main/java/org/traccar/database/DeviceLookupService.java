@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,9 +20,13 @@ import io.netty.util.Timer;
 import io.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -31,12 +35,14 @@ import org.traccar.storage.query.Request;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Singleton
-public class DeviceLookupService {
+public class DeviceLookupService implements BroadcastInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceLookupService.class);
 
@@ -49,6 +55,32 @@ public class DeviceLookupService {
 
     private final boolean throttlingEnabled;
 
+    private record IndexEntry(long id, String uniqueId, String model, boolean disabled, Date expirationTime) {
+
+        private static IndexEntry of(Device device) {
+            return new IndexEntry(
+                    device.getId(), device.getUniqueId(), device.getModel(),
+                    device.getDisabled(), device.getExpirationTime());
+        }
+
+        private Device toDevice() {
+            Device device = new Device();
+            device.setId(id);
+            device.setUniqueId(uniqueId);
+            device.setModel(model);
+            device.setDisabled(disabled);
+            device.setExpirationTime(expirationTime);
+            return device;
+        }
+    }
+
+    private static final Columns INDEX_COLUMNS = new Columns.Include(
+            "id", "uniqueId", "model", "disabled", "expirationTime");
+
+    private final Map<String, IndexEntry> index;
+    private final Map<Long, String> indexUniqueIds;
+    private final AtomicLong indexVersion = new AtomicLong();
+
     private static final class IdentifierInfo {
         private long lastQuery;
         private long delay;
@@ -74,10 +106,53 @@ public class DeviceLookupService {
     private final Map<String, IdentifierInfo> identifierMap = new ConcurrentHashMap<>();
 
     @Inject
-    public DeviceLookupService(Config config, Storage storage, Timer timer) {
+    public DeviceLookupService(
+            Config config, Storage storage, Timer timer, CacheManager cacheManager) throws StorageException {
         this.storage = storage;
         this.timer = timer;
         throttlingEnabled = config.getBoolean(Keys.DATABASE_THROTTLE_UNKNOWN);
+        if (config.getBoolean(Keys.DATABASE_DEVICE_INDEX)) {
+            index = new ConcurrentHashMap<>();
+            indexUniqueIds = new ConcurrentHashMap<>();
+            for (Device device : storage.getObjects(Device.class, new Request(INDEX_COLUMNS))) {
+                index(IndexEntry.of(device));
+            }
+            LOGGER.info("Device index loaded with {} devices", index.size());
+            cacheManager.addListener(this);
+        } else {
+            index = null;
+            indexUniqueIds = null;
+        }
+    }
+
+    private void index(IndexEntry entry) {
+        String oldUniqueId = indexUniqueIds.put(entry.id(), entry.uniqueId());
+        if (oldUniqueId != null && !oldUniqueId.equals(entry.uniqueId())) {
+            index.remove(oldUniqueId);
+        }
+        index.put(entry.uniqueId(), entry);
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) throws Exception {
+        if (clazz.equals(Device.class)) {
+            indexVersion.incrementAndGet();
+            Device device = null;
+            if (operation != ObjectOperation.DELETE) {
+                device = storage.getObject(Device.class, new Request(INDEX_COLUMNS, new Condition.Equals("id", id)));
+            }
+            synchronized (this) {
+                if (device != null) {
+                    index(IndexEntry.of(device));
+                } else {
+                    String uniqueId = indexUniqueIds.remove(id);
+                    if (uniqueId != null) {
+                        index.remove(uniqueId);
+                    }
+                }
+            }
+        }
     }
 
     private synchronized boolean isThrottled(String uniqueId) {
@@ -115,15 +190,35 @@ public class DeviceLookupService {
         }
     }
 
+    /**
+     * Find device by any of the identifiers. When the device index is enabled, only the fields needed to open a
+     * session are populated: id, uniqueId, model, disabled and expirationTime.
+     */
     public Device lookup(String[] uniqueIds) {
+        if (index != null) {
+            for (String uniqueId : uniqueIds) {
+                IndexEntry entry = index.get(uniqueId);
+                if (entry != null) {
+                    return entry.toDevice();
+                }
+            }
+        }
         Device device = null;
         try {
             for (String uniqueId : uniqueIds) {
                 if (!isThrottled(uniqueId)) {
+                    long version = indexVersion.get();
                     device = storage.getObject(Device.class, new Request(
                             new Columns.All(), new Condition.Equals("uniqueId", uniqueId)));
                     if (device != null) {
                         lookupSucceeded(uniqueId);
+                        if (index != null) {
+                            synchronized (this) {
+                                if (indexVersion.get() == version) {
+                                    index(IndexEntry.of(device));
+                                }
+                            }
+                        }
                         break;
                     } else {
                         lookupFailed(uniqueId);
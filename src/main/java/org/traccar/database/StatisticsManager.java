@@ -37,11 +37,19 @@ import jakarta.ws.rs.core.Form;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Usage statistics. Counters are striped and never reset, daily statistics are the difference since the previous
+ * split, which is checked periodically by {@link org.traccar.schedule.TaskStatistics} along with live rates.
+ */
 @Singleton
 public class StatisticsManager {
 
@@ -49,24 +57,61 @@ public class StatisticsManager {
 
     private static final int SPLIT_MODE = Calendar.DAY_OF_MONTH;
 
+    private static final class Counter {
+
+        private final LongAdder total = new LongAdder();
+        private long splitBase;
+        private long rateBase;
+
+        private void increment() {
+            total.increment();
+        }
+
+        private long total() {
+            return total.sum();
+        }
+
+        private int split() {
+            long current = total.sum();
+            int value = (int) (current - splitBase);
+            splitBase = current;
+            return value;
+        }
+
+        private double rate(double seconds) {
+            long current = total.sum();
+            double value = (current - rateBase) / seconds;
+            rateBase = current;
+            return value;
+        }
+
+    }
+
     private final Config config;
     private final Storage storage;
     private final Client client;
     private final ObjectMapper objectMapper;
 
-    private final AtomicInteger lastUpdate = new AtomicInteger(Calendar.getInstance().get(SPLIT_MODE));
+    private int lastUpdate = Calendar.getInstance().get(SPLIT_MODE);
+    private long lastRateUpdate = System.nanoTime();
+
+    private volatile Set<Long> users = ConcurrentHashMap.newKeySet();
+    private volatile Map<Long, String> deviceProtocols = new ConcurrentHashMap<>();
+    private volatile Map<Long, AtomicInteger> deviceMessages = new ConcurrentHashMap<>();
 
-    private final Set<Long> users = new HashSet<>();
-    private final Map<Long, String> deviceProtocols = new HashMap<>();
-    private final Map<Long, Integer> deviceMessages = new HashMap<>();
+    private final Counter requests = new Counter();
+    private final Counter messagesReceived = new Counter();
+    private final Counter messagesStored = new Counter();
+    private final Counter mailSent = new Counter();
+    private final Counter smsSent = new Counter();
+    private final Counter geocoderRequests = new Counter();
+    private final Counter geocoderCacheHits = new Counter();
+    private final Counter geocoderCacheMisses = new Counter();
+    private final Counter geolocationRequests = new Counter();
+    private final Map<String, Counter> protocolMessages = new ConcurrentHashMap<>();
 
-    private int requests;
-    private int messagesReceived;
-    private int messagesStored;
-    private int mailSent;
-    private int smsSent;
-    private int geocoderRequests;
-    private int geolocationRequests;
+    private volatile Map<String, Double> rates = Map.of();
+    private volatile Map<String, Double> protocolRates = Map.of();
 
     @Inject
     public StatisticsManager(Config config, Storage storage, Client client, ObjectMapper objectMapper) {
@@ -76,40 +121,40 @@ public class StatisticsManager {
         this.objectMapper = objectMapper;
     }
 
-    private void checkSplit() {
+    public synchronized void checkSplit() {
         int currentUpdate = Calendar.getInstance().get(SPLIT_MODE);
-        if (lastUpdate.getAndSet(currentUpdate) != currentUpdate) {
-            Statistics statistics = new Statistics();
+        if (lastUpdate != currentUpdate) {
+            lastUpdate = currentUpdate;
 
-            synchronized (this) {
-                statistics.setCaptureTime(new Date());
-                statistics.setActiveUsers(users.size());
-                statistics.setActiveDevices(deviceProtocols.size());
-                statistics.setRequests(requests);
-                statistics.setMessagesReceived(messagesReceived);
-                statistics.setMessagesStored(messagesStored);
-                statistics.setMailSent(mailSent);
-                statistics.setSmsSent(smsSent);
-                statistics.setGeocoderRequests(geocoderRequests);
-                statistics.setGeolocationRequests(geolocationRequests);
-                if (!deviceProtocols.isEmpty()) {
-                    Map<String, Integer> protocols = new HashMap<>();
-                    for (String protocol : deviceProtocols.values()) {
-                        protocols.compute(protocol, (key, count) -> count != null ? count + 1 : 1);
-                    }
-                    statistics.setProtocols(protocols);
-                }
+            Set<Long> users = this.users;
+            Map<Long, String> deviceProtocols = this.deviceProtocols;
+            this.users = ConcurrentHashMap.newKeySet();
+            this.deviceProtocols = new ConcurrentHashMap<>();
+            this.deviceMessages = new ConcurrentHashMap<>();
 
-                users.clear();
-                deviceProtocols.clear();
-                deviceMessages.clear();
-                requests = 0;
-                messagesReceived = 0;
-                messagesStored = 0;
-                mailSent = 0;
-                smsSent = 0;
-                geocoderRequests = 0;
-                geolocationRequests = 0;
+            Statistics statistics = new Statistics();
+            statistics.setCaptureTime(new Date());
+            statistics.setActiveUsers(users.size());
+            statistics.setActiveDevices(deviceProtocols.size());
+            statistics.setRequests(requests.split());
+            statistics.setMessagesReceived(messagesReceived.split());
+            statistics.setMessagesStored(messagesStored.split());
+            statistics.setMailSent(mailSent.split());
+            statistics.setSmsSent(smsSent.split());
+            statistics.setGeocoderRequests(geocoderRequests.split());
+            statistics.setGeolocationRequests(geolocationRequests.split());
+            int cacheHits = geocoderCacheHits.split();
+            int cacheMisses = geocoderCacheMisses.split();
+            if (cacheHits > 0 || cacheMisses > 0) {
+                statistics.set("geocoderCacheHits", cacheHits);
+                statistics.set("geocoderCacheMisses", cacheMisses);
+            }
+            if (!deviceProtocols.isEmpty()) {
+                Map<String, Integer> protocols = new HashMap<>();
+                for (String protocol : deviceProtocols.values()) {
+                    protocols.compute(protocol, (key, count) -> count != null ? count + 1 : 1);
+                }
+                statistics.setProtocols(protocols);
             }
 
             try {
@@ -154,54 +199,111 @@ public class StatisticsManager {
         }
     }
 
-    public synchronized void registerRequest(long userId) {
-        checkSplit();
-        requests += 1;
+    public synchronized void updateRates() {
+        long now = System.nanoTime();
+        double seconds = (now - lastRateUpdate) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRateUpdate = now;
+        if (seconds <= 0) {
+            return;
+        }
+
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("requests", requests.rate(seconds));
+        rates.put("messagesReceived", messagesReceived.rate(seconds));
+        rates.put("messagesStored", messagesStored.rate(seconds));
+        rates.put("geocoderRequests", geocoderRequests.rate(seconds));
+        rates.put("geolocationRequests", geolocationRequests.rate(seconds));
+        this.rates = rates;
+
+        Map<String, Double> protocolRates = new TreeMap<>();
+        protocolMessages.forEach((protocol, counter) -> protocolRates.put(protocol, counter.rate(seconds)));
+        this.protocolRates = protocolRates;
+    }
+
+    /**
+     * Live view of the counters: totals since startup, active users and devices since the last split and rates per
+     * second over the last update period.
+     */
+    public Map<String, Object> getLiveStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("captureTime", new Date());
+        result.put("activeUsers", users.size());
+        result.put("activeDevices", deviceProtocols.size());
+        result.put("requests", requests.total());
+        result.put("messagesReceived", messagesReceived.total());
+        result.put("messagesStored", messagesStored.total());
+        result.put("mailSent", mailSent.total());
+        result.put("smsSent", smsSent.total());
+        result.put("geocoderRequests", geocoderRequests.total());
+        result.put("geocoderCacheHits", geocoderCacheHits.total());
+        result.put("geocoderCacheMisses", geocoderCacheMisses.total());
+        result.put("geolocationRequests", geolocationRequests.total());
+        result.put("rates", rates);
+        result.put("protocolRates", protocolRates);
+        return result;
+    }
+
+    public void registerRequest(long userId) {
+        requests.increment();
         if (userId != 0 && userId != ServiceAccountUser.ID) {
             users.add(userId);
         }
     }
 
-    public synchronized void registerMessageReceived() {
-        checkSplit();
-        messagesReceived += 1;
+    public void registerMessageReceived() {
+        messagesReceived.increment();
     }
 
-    public synchronized void registerMessageStored(long deviceId, String protocol) {
-        checkSplit();
-        messagesStored += 1;
+    public void registerMessageStored(long deviceId, String protocol) {
+        messagesStored.increment();
+        if (protocol != null) {
+            protocolMessages.computeIfAbsent(protocol, key -> new Counter()).increment();
+        }
         if (deviceId != 0) {
-            deviceProtocols.put(deviceId, protocol);
-            deviceMessages.merge(deviceId, 1, Integer::sum);
+            if (protocol != null) {
+                deviceProtocols.put(deviceId, protocol);
+            }
+            deviceMessages.computeIfAbsent(deviceId, key -> new AtomicInteger()).incrementAndGet();
         }
     }
 
-    public synchronized int messageStoredCount() {
-        return messagesStored;
+    /**
+     * Total number of stored messages since startup.
+     */
+    public long messageStoredCount() {
+        return messagesStored.total();
+    }
+
+    /**
+     * Number of stored messages for the device since the last daily split.
+     */
+    public int messageStoredCount(long deviceId) {
+        AtomicInteger count = deviceMessages.get(deviceId);
+        return count != null ? count.get() : 0;
     }
 
-    public synchronized int messageStoredCount(long deviceId) {
-        return deviceMessages.getOrDefault(deviceId, 0);
+    public void registerMail() {
+        mailSent.increment();
     }
 
-    public synchronized void registerMail() {
-        checkSplit();
-        mailSent += 1;
+    public void registerSms() {
+        smsSent.increment();
     }
 
-    public synchronized void registerSms() {
-        checkSplit();
-        smsSent += 1;
+    public void registerGeocoderRequest() {
+        geocoderRequests.increment();
     }
 
-    public synchronized void registerGeocoderRequest() {
-        checkSplit();
-        geocoderRequests += 1;
+    public void registerGeocoderCache(boolean hit) {
+        if (hit) {
+            geocoderCacheHits.increment();
+        } else {
+            geocoderCacheMisses.increment();
+        }
     }
 
-    public synchronized void registerGeolocationRequest() {
-        checkSplit();
-        geolocationRequests += 1;
+    public void registerGeolocationRequest() {
+        geolocationRequests.increment();
     }
 
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geocoder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.CacheFile;
+import org.traccar.helper.CoordinateCells;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Caches addresses of another geocoder by coordinate cell. Cells are latitude and longitude rounded to the given
+ * number of decimal places. When a file is provided, cached addresses are appended to it and loaded on startup.
+ */
+public class CachingGeocoder implements Geocoder {
+
+    private static final int FILE_MAGIC = 0x54474331;
+
+    private static final CacheFile.Codec<String> CODEC = new CacheFile.Codec<>() {
+        @Override
+        public String read(DataInput input) throws IOException {
+            return input.readUTF();
+        }
+
+        @Override
+        public void write(DataOutput output, String value) throws IOException {
+            output.writeUTF(value);
+        }
+    };
+
+    private final Geocoder geocoder;
+    private final CoordinateCells cells;
+    private final Cache<Long, String> cache;
+    private final CacheFile<String> cacheFile;
+
+    private StatisticsManager statisticsManager;
+
+    public CachingGeocoder(Geocoder geocoder, int cacheSize, int precision, String file) {
+        this.geocoder = geocoder;
+        cells = new CoordinateCells(precision);
+        cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        if (file != null && !file.isEmpty()) {
+            cacheFile = new CacheFile<>(
+                    Paths.get(file), FILE_MAGIC, cells.getPrecision(), CODEC, cache.asMap(), value -> true, cacheSize);
+            cacheFile.open();
+        } else {
+            cacheFile = null;
+        }
+    }
+
+    @Override
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+        this.statisticsManager = statisticsManager;
+        geocoder.setStatisticsManager(statisticsManager);
+    }
+
+    private void put(long key, String address) {
+        if (!address.equals(cache.asMap().put(key, address)) && cacheFile != null) {
+            cacheFile.append(key, address);
+        }
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+        long key = cells.getKey(latitude, longitude);
+        String address = cache.getIfPresent(key);
+        if (statisticsManager != null) {
+            statisticsManager.registerGeocoderCache(address != null);
+        }
+        if (address != null) {
+            if (callback != null) {
+                callback.onSuccess(address);
+            }
+            return address;
+        }
+
+        if (callback != null) {
+            return geocoder.getAddress(latitude, longitude, new ReverseGeocoderCallback() {
+                @Override
+                public void onSuccess(String address) {
+                    if (address != null) {
+                        put(key, address);
+                    }
+                    callback.onSuccess(address);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    callback.onFailure(e);
+                }
+            });
+        } else {
+            address = geocoder.getAddress(latitude, longitude, null);
+            if (address != null) {
+                put(key, address);
+            }
+            return address;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geocoder;
+
+import org.traccar.database.StatisticsManager;
+import org.traccar.helper.CoordinateCells;
+import org.traccar.helper.RequestCoalescer;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Merges concurrent lookups for the same coordinate cell into a single request and limits the number of requests in
+ * progress. When the limit is reached, lookups complete immediately without an address.
+ */
+public class CoalescingGeocoder implements Geocoder {
+
+    private final Geocoder geocoder;
+    private final CoordinateCells cells;
+    private final Semaphore permits;
+    private final RequestCoalescer<Long, String> pending = new RequestCoalescer<>();
+
+    public CoalescingGeocoder(Geocoder geocoder, int precision, int maxRequests) {
+        this.geocoder = geocoder;
+        cells = new CoordinateCells(precision);
+        permits = maxRequests > 0 ? new Semaphore(maxRequests) : null;
+    }
+
+    @Override
+    public void setStatisticsManager(StatisticsManager statisticsManager) {
+        geocoder.setStatisticsManager(statisticsManager);
+    }
+
+    private boolean acquire() {
+        return permits == null || permits.tryAcquire();
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    @Override
+    public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+        if (callback == null) {
+            if (!acquire()) {
+                return null;
+            }
+            try {
+                return geocoder.getAddress(latitude, longitude, null);
+            } finally {
+                release();
+            }
+        }
+
+        long key = cells.getKey(latitude, longitude);
+        if (!pending.add(key, RequestCoalescer.callback(callback::onSuccess, callback::onFailure))) {
+            return null;
+        }
+
+        if (!acquire()) {
+            pending.complete(key, null);
+            return null;
+        }
+
+        pending.execute(key, c -> geocoder.getAddress(latitude, longitude, new ReverseGeocoderCallback() {
+            @Override
+            public void onSuccess(String address) {
+                c.onSuccess(address);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                c.onFailure(e);
+            }
+        }), RequestCoalescer.callback(address -> release(), e -> release()));
+        return null;
+    }
+
+}
@@ -28,8 +28,8 @@ public class GeocodeXyzGeocoder extends JsonGeocoder {
         return url;
     }
 
-    public GeocodeXyzGeocoder(Client client, String key, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(key), cacheSize, addressFormat);
+    public GeocodeXyzGeocoder(Client client, String key, AddressFormat addressFormat) {
+        super(client, formatUrl(key), addressFormat);
     }
 
     @Override
@@ -28,8 +28,8 @@ public class GisgraphyGeocoder extends JsonGeocoder {
         return url;
     }
 
-    public GisgraphyGeocoder(Client client, String url, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(url), cacheSize, addressFormat);
+    public GisgraphyGeocoder(Client client, String url, AddressFormat addressFormat) {
+        super(client, formatUrl(url), addressFormat);
     }
 
     @Override
@@ -36,8 +36,8 @@ public class GoogleGeocoder extends JsonGeocoder {
     }
 
     public GoogleGeocoder(
-            Client client, String url, String key, String language, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(url, key, language), cacheSize, addressFormat);
+            Client client, String url, String key, String language, AddressFormat addressFormat) {
+        super(client, formatUrl(url, key, language), addressFormat);
     }
 
     @Override
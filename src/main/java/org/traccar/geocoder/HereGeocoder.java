@@ -34,9 +34,8 @@ public class HereGeocoder extends JsonGeocoder {
     }
 
     public HereGeocoder(
-            Client client, String url, String key, String language,
-            int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(url, key, language), cacheSize, addressFormat);
+            Client client, String url, String key, String language, AddressFormat addressFormat) {
+        super(client, formatUrl(url, key, language), addressFormat);
     }
 
     @Override
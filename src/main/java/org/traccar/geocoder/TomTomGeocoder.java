@@ -29,8 +29,8 @@ public class TomTomGeocoder extends JsonGeocoder {
         return url;
     }
 
-    public TomTomGeocoder(Client client, String url, String key, int cacheSize, AddressFormat addressFormat) {
-        super(client, formatUrl(url, key), cacheSize, addressFormat);
+    public TomTomGeocoder(Client client, String url, String key, AddressFormat addressFormat) {
+        super(client, formatUrl(url, key), addressFormat);
     }
 
     @Override
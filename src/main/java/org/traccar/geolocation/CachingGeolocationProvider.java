@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geolocation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.traccar.helper.CacheFile;
+import org.traccar.helper.DistanceCalculator;
+import org.traccar.model.Network;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caches locations of another provider by individual radio emitter, shared across devices. Each emitter points to the
+ * latest location it was seen at. A lookup is answered from the cache when at least the overlap fraction of its
+ * emitters is cached and all their locations agree within a distance limit, otherwise the provider is called. Wi-Fi
+ * access points are used when present, and cell towers only for lookups without Wi-Fi, so a coarse cell lookup never
+ * returns a precise Wi-Fi location or the other way around. Entries expire after the timeout. When a file is
+ * provided, cached locations are appended to it and loaded on startup.
+ */
+public class CachingGeolocationProvider implements GeolocationProvider {
+
+    private static final int FILE_MAGIC = 0x54474c32;
+    private static final int FILE_VERSION = 2;
+
+    private static final double MAX_DISTANCE = 500;
+
+    private record Location(double latitude, double longitude, double accuracy, long time) {
+    }
+
+    private static final CacheFile.Codec<Location> CODEC = new CacheFile.Codec<>() {
+        @Override
+        public Location read(DataInput input) throws IOException {
+            return new Location(input.readDouble(), input.readDouble(), input.readDouble(), input.readLong());
+        }
+
+        @Override
+        public void write(DataOutput output, Location location) throws IOException {
+            output.writeDouble(location.latitude());
+            output.writeDouble(location.longitude());
+            output.writeDouble(location.accuracy());
+            output.writeLong(location.time());
+        }
+    };
+
+    private final GeolocationProvider provider;
+    private final long timeout;
+    private final double overlap;
+    private final Cache<Long, Location> cache;
+    private final CacheFile<Location> cacheFile;
+
+    public CachingGeolocationProvider(
+            GeolocationProvider provider, int cacheSize, long timeout, double overlap, String file) {
+        this.provider = provider;
+        this.timeout = timeout * 1000;
+        this.overlap = overlap;
+        cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        if (file != null && !file.isEmpty()) {
+            cacheFile = new CacheFile<>(
+                    Paths.get(file), FILE_MAGIC, FILE_VERSION, CODEC, cache.asMap(), this::isValid, cacheSize);
+            cacheFile.open();
+        } else {
+            cacheFile = null;
+        }
+    }
+
+    private boolean isValid(Location location) {
+        return System.currentTimeMillis() - location.time() <= timeout;
+    }
+
+    /**
+     * Wi-Fi keys if there are any, otherwise cell keys. Cell keys have the sign bit set, so they sort first.
+     */
+    private static long[] select(long[] keys) {
+        int wifi = 0;
+        while (wifi < keys.length && keys[wifi] < 0) {
+            wifi += 1;
+        }
+        return wifi > 0 && wifi < keys.length ? Arrays.copyOfRange(keys, wifi, keys.length) : keys;
+    }
+
+    private Location match(long[] keys) {
+        List<Location> matches = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            Location location = cache.getIfPresent(key);
+            if (location != null && isValid(location)) {
+                matches.add(location);
+            }
+        }
+        if (matches.isEmpty() || matches.size() < Math.ceil(keys.length * overlap)) {
+            return null;
+        }
+
+        double latitude = 0;
+        double longitude = 0;
+        for (Location location : matches) {
+            latitude += location.latitude();
+            longitude += location.longitude();
+        }
+        latitude /= matches.size();
+        longitude /= matches.size();
+
+        double accuracy = 0;
+        long time = Long.MAX_VALUE;
+        for (Location location : matches) {
+            double distance = DistanceCalculator.distance(
+                    latitude, longitude, location.latitude(), location.longitude());
+            if (distance > MAX_DISTANCE) {
+                return null;
+            }
+            accuracy = Math.max(accuracy, location.accuracy() + distance);
+            time = Math.min(time, location.time());
+        }
+        return new Location(latitude, longitude, accuracy, time);
+    }
+
+    @Override
+    public void getLocation(Network network, LocationProviderCallback callback) {
+        long[] keys = select(NetworkKeys.getKeys(network));
+        if (keys.length == 0) {
+            provider.getLocation(network, callback);
+            return;
+        }
+
+        Location cached = match(keys);
+        if (cached != null) {
+            callback.onSuccess(cached.latitude(), cached.longitude(), cached.accuracy());
+            return;
+        }
+
+        provider.getLocation(network, new LocationProviderCallback() {
+            @Override
+            public void onSuccess(double latitude, double longitude, double accuracy) {
+                Location location = new Location(latitude, longitude, accuracy, System.currentTimeMillis());
+                for (long key : keys) {
+                    cache.put(key, location);
+                    if (cacheFile != null) {
+                        cacheFile.append(key, location);
+                    }
+                }
+                callback.onSuccess(latitude, longitude, accuracy);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+}
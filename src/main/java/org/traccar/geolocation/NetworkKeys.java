@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geolocation;
+
+import org.traccar.model.CellTower;
+import org.traccar.model.Network;
+import org.traccar.model.WifiAccessPoint;
+
+import java.util.Arrays;
+
+/**
+ * Normalized keys of radio emitters. Wi-Fi keys are MAC addresses as 48-bit numbers, cell keys are hashes of MCC,
+ * MNC, LAC and cell id with the sign bit set, so the two never overlap. Signal strength is not part of the key.
+ */
+public final class NetworkKeys {
+
+    private NetworkKeys() {
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    public static long cell(int mcc, int mnc, int lac, long cid) {
+        return mix(mix(mix(mcc * 1000L + mnc) + lac) + cid) | Long.MIN_VALUE;
+    }
+
+    public static Long cell(CellTower cellTower) {
+        if (cellTower.getMobileCountryCode() == null || cellTower.getMobileNetworkCode() == null
+                || cellTower.getLocationAreaCode() == null || cellTower.getCellId() == null) {
+            return null;
+        }
+        return cell(
+                cellTower.getMobileCountryCode(), cellTower.getMobileNetworkCode(),
+                cellTower.getLocationAreaCode(), cellTower.getCellId());
+    }
+
+    /**
+     * Returns null for malformed and locally administered addresses, which are usually mobile hotspots.
+     */
+    public static Long wifi(String macAddress) {
+        if (macAddress == null) {
+            return null;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < macAddress.length(); i++) {
+            int digit = Character.digit(macAddress.charAt(i), 16);
+            if (digit >= 0) {
+                value = (value << 4) | digit;
+                digits += 1;
+            }
+        }
+        if (digits != 12 || (value & 0x020000000000L) != 0) {
+            return null;
+        }
+        return value;
+    }
+
+    public static long[] getKeys(Network network) {
+        int size = (network.getCellTowers() != null ? network.getCellTowers().size() : 0)
+                + (network.getWifiAccessPoints() != null ? network.getWifiAccessPoints().size() : 0);
+        long[] keys = new long[size];
+        int count = 0;
+        if (network.getCellTowers() != null) {
+            for (CellTower cellTower : network.getCellTowers()) {
+                Long key = cell(cellTower);
+                if (key != null) {
+                    keys[count++] = key;
+                }
+            }
+        }
+        if (network.getWifiAccessPoints() != null) {
+            for (WifiAccessPoint wifiAccessPoint : network.getWifiAccessPoints()) {
+                Long key = wifi(wifiAccessPoint.getMacAddress());
+                if (key != null) {
+                    keys[count++] = key;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+}
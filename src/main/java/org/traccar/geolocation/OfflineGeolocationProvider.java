@@ -0,0 +1,314 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.geolocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.model.CellTower;
+import org.traccar.model.Network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Cell tower locations from an OpenCellID CSV export. On first use the CSV is imported into a compact index file
+ * sorted by cell key, which is memory mapped and searched without loading it on the heap. The import sorts the export
+ * in bounded chunks and merges them, so memory use does not depend on the export size. Requests with Wi-Fi access
+ * points or without known cells are passed to the fallback provider, if there is one.
+ */
+public class OfflineGeolocationProvider implements GeolocationProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OfflineGeolocationProvider.class);
+
+    private static final int FILE_MAGIC = 0x54434932;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 20;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final GeolocationProvider fallback;
+    private final int count;
+    private final MappedByteBuffer records;
+
+    public OfflineGeolocationProvider(String file, GeolocationProvider fallback) throws IOException {
+        this(file, fallback, CHUNK_SIZE);
+    }
+
+    OfflineGeolocationProvider(String file, GeolocationProvider fallback, int chunkSize) throws IOException {
+        this.fallback = fallback;
+        Path source = Paths.get(file);
+        Path index = source.resolveSibling(source.getFileName() + ".index");
+        if (!Files.exists(index)
+                || Files.getLastModifiedTime(index).compareTo(Files.getLastModifiedTime(source)) < 0
+                || !isValid(index)) {
+            build(source, index, chunkSize);
+        }
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != FILE_MAGIC) {
+                throw new IOException("Invalid cell index file " + index);
+            }
+            count = header.getInt();
+            if ((long) count * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Cell index file is too large " + index);
+            }
+            records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) count * RECORD_SIZE);
+        }
+    }
+
+    private static boolean isValid(Path index) throws IOException {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(index))) {
+            return input.readInt() == FILE_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private int search(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = records.getLong(middle * RECORD_SIZE);
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void getLocation(Network network, LocationProviderCallback callback) {
+        if (fallback != null && network.getWifiAccessPoints() != null && !network.getWifiAccessPoints().isEmpty()) {
+            fallback.getLocation(network, callback);
+            return;
+        }
+        double latitude = 0;
+        double longitude = 0;
+        double accuracy = 0;
+        int found = 0;
+        if (network.getCellTowers() != null) {
+            for (CellTower cellTower : network.getCellTowers()) {
+                Long key = NetworkKeys.cell(cellTower);
+                int index = key != null ? search(key) : -1;
+                if (index >= 0) {
+                    long value = records.getLong(index * RECORD_SIZE + 8);
+                    latitude += (int) (value >> 32) / 1e6;
+                    longitude += (int) value / 1e6;
+                    accuracy = Math.max(accuracy, records.getInt(index * RECORD_SIZE + 16));
+                    found += 1;
+                }
+            }
+        }
+        if (found > 0) {
+            callback.onSuccess(latitude / found, longitude / found, accuracy);
+        } else if (fallback != null) {
+            fallback.getLocation(network, callback);
+        } else {
+            callback.onFailure(new GeolocationException("Cells not found"));
+        }
+    }
+
+    private static final class Run {
+
+        private final DataInputStream input;
+        private final int size;
+        private int position;
+        private long key;
+        private long coordinates;
+        private int range;
+
+        private Run(Path file, int size) throws IOException {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            this.size = size;
+        }
+
+        private boolean next() throws IOException {
+            if (position == size) {
+                return false;
+            }
+            key = input.readLong();
+            coordinates = input.readLong();
+            range = input.readInt();
+            position += 1;
+            return true;
+        }
+
+    }
+
+    private static void write(DataOutputStream stream, long key, long coordinates, int range) throws IOException {
+        stream.writeLong(key);
+        stream.writeLong(coordinates);
+        stream.writeInt(range);
+    }
+
+    private static void build(Path source, Path index, int chunkSize) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        try {
+            long[] keys = new long[chunkSize];
+            long[] coordinates = new long[chunkSize];
+            int[] ranges = new int[chunkSize];
+            int size = 0;
+            try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // radio,mcc,net,area,cell,unit,lon,lat,range,...
+                    String[] values = line.split(",", 10);
+                    if (values.length < 9) {
+                        continue;
+                    }
+                    try {
+                        keys[size] = NetworkKeys.cell(
+                                Integer.parseInt(values[1]), Integer.parseInt(values[2]),
+                                Integer.parseInt(values[3]), Long.parseLong(values[4]));
+                        long lon = Math.round(Double.parseDouble(values[6]) * 1e6);
+                        long lat = Math.round(Double.parseDouble(values[7]) * 1e6);
+                        coordinates[size] = (lat << 32) | (lon & 0xffffffffL);
+                        ranges[size] = Integer.parseInt(values[8]);
+                        size += 1;
+                    } catch (NumberFormatException e) {
+                        LOGGER.debug("Skipping cell line {}", line);
+                    }
+                    if (size == chunkSize) {
+                        files.add(writeRun(index, files.size(), keys, coordinates, ranges, size));
+                        sizes.add(size);
+                        size = 0;
+                    }
+                }
+            }
+            if (size > 0 || files.isEmpty()) {
+                files.add(writeRun(index, files.size(), keys, coordinates, ranges, size));
+                sizes.add(size);
+            }
+            merge(files, sizes, index);
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Path writeRun(
+            Path index, int number, long[] keys, long[] coordinates, int[] ranges, int size) throws IOException {
+        sort(keys, coordinates, ranges, 0, size - 1);
+        Path file = index.resolveSibling(index.getFileName() + "." + number + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int i = 0; i < size; i++) {
+                write(stream, keys[i], coordinates[i], ranges[i]);
+            }
+        }
+        return file;
+    }
+
+    private static void merge(List<Path> files, List<Integer> sizes, Path index) throws IOException {
+        long total = sizes.stream().mapToLong(Integer::longValue).sum();
+        if (total * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("Too many cells in " + index);
+        }
+        PriorityQueue<Run> queue = new PriorityQueue<>(Comparator.comparingLong(run -> run.key));
+        Path temporary = index.resolveSibling(index.getFileName() + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            for (int i = 0; i < files.size(); i++) {
+                Run run = new Run(files.get(i), sizes.get(i));
+                if (run.next()) {
+                    queue.add(run);
+                } else {
+                    run.input.close();
+                }
+            }
+            stream.writeInt(FILE_MAGIC);
+            stream.writeInt((int) total);
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                write(stream, run.key, run.coordinates, run.range);
+                if (run.next()) {
+                    queue.add(run);
+                } else {
+                    run.input.close();
+                }
+            }
+        } finally {
+            for (Run run : queue) {
+                run.input.close();
+            }
+        }
+        Files.move(temporary, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Cell index built with {} cells", total);
+    }
+
+    private static void sort(long[] keys, long[] coordinates, int[] ranges, int low, int high) {
+        while (low < high) {
+            long pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i += 1;
+                }
+                while (keys[j] > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    swap(keys, coordinates, ranges, i, j);
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (j - low < high - i) {
+                sort(keys, coordinates, ranges, low, j);
+                low = i;
+            } else {
+                sort(keys, coordinates, ranges, i, high);
+                high = j;
+            }
+        }
+    }
+
+    private static void swap(long[] keys, long[] coordinates, int[] ranges, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long value = coordinates[i];
+        coordinates[i] = coordinates[j];
+        coordinates[j] = value;
+        int range = ranges[i];
+        ranges[i] = ranges[j];
+        ranges[j] = range;
+    }
+
+}
@@ -27,12 +27,15 @@ import org.traccar.config.Keys;
 import org.traccar.forward.PositionData;
 import org.traccar.forward.PositionForwarder;
 import org.traccar.forward.ResultHandler;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PositionForwardingHandler extends BasePositionHandler {
 
@@ -50,9 +53,14 @@ public class PositionForwardingHandler extends BasePositionHandler {
 
     private final AtomicInteger deliveryPending;
 
+    private final Histogram forwardDuration;
+    private final LongAdder forwardRetries;
+    private final LongAdder forwardFailures;
+
     @Inject
     public PositionForwardingHandler(
-            Config config, CacheManager cacheManager, Timer timer, @Nullable PositionForwarder positionForwarder) {
+            Config config, CacheManager cacheManager, Timer timer, @Nullable PositionForwarder positionForwarder,
+            MetricsManager metricsManager) {
 
         this.cacheManager = cacheManager;
         this.timer = timer;
@@ -64,11 +72,18 @@ public class PositionForwardingHandler extends BasePositionHandler {
         this.retryLimit = config.getInteger(Keys.FORWARD_RETRY_LIMIT);
 
         this.deliveryPending = new AtomicInteger();
+
+        forwardDuration = metricsManager.histogram(
+                "traccar_forward_seconds", "Time to deliver a forwarded position, including retries");
+        metricsManager.gauge("traccar_forward_pending", "Forwarded positions not yet delivered", deliveryPending::get);
+        forwardRetries = metricsManager.counter("traccar_forward_retries_total", "Position forwarding retries");
+        forwardFailures = metricsManager.counter("traccar_forward_failures_total", "Positions that were not delivered");
     }
 
     class AsyncRequestAndCallback implements ResultHandler, TimerTask {
 
         private final PositionData positionData;
+        private final long startTime = System.nanoTime();
 
         private int retries = 0;
 
@@ -87,8 +102,12 @@ public class PositionForwardingHandler extends BasePositionHandler {
                 if (retryEnabled && deliveryPending.get() <= retryLimit && retries < retryCount) {
                     schedule();
                     scheduled = true;
+                    forwardRetries.increment();
                 }
             } finally {
+                if (!scheduled) {
+                    forwardFailures.increment();
+                }
                 int pending = scheduled ? deliveryPending.get() : deliveryPending.decrementAndGet();
                 LOGGER.warn("Position forwarding failed: " + pending + " pending", throwable);
             }
@@ -102,6 +121,7 @@ public class PositionForwardingHandler extends BasePositionHandler {
         public void onResult(boolean success, Throwable throwable) {
             if (success) {
                 deliveryPending.decrementAndGet();
+                forwardDuration.recordSince(startTime);
             } else {
                 retry(throwable);
             }
@@ -118,6 +138,7 @@ public class PositionForwardingHandler extends BasePositionHandler {
             } finally {
                 if (!sent) {
                     deliveryPending.decrementAndGet();
+                    forwardFailures.increment();
                 }
             }
         }
@@ -35,7 +35,8 @@ public class SpeedLimitHandler extends BasePositionHandler {
     @Override
     public void handlePosition(Position position, Callback callback) {
 
-        speedLimitProvider.getSpeedLimit(position.getLatitude(), position.getLongitude(),
+        double course = position.getSpeed() > 0 ? position.getCourse() : Double.NaN;
+        speedLimitProvider.getSpeedLimit(position.getLatitude(), position.getLongitude(), course,
                 new SpeedLimitProvider.SpeedLimitProviderCallback() {
             @Override
             public void onSuccess(double speedLimit) {
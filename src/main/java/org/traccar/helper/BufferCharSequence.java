@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte per character view over buffer content for matching. Does not copy data or modify buffer indexes, so it is only
+ * valid while the buffer is retained. String conversion decodes UTF-8 like Netty string decoder, so text fields keep
+ * multi-byte characters as long as they are delimited by ASCII characters.
+ */
+public class BufferCharSequence implements CharSequence {
+
+    private final ByteBuf buffer;
+    private final int index;
+    private final int length;
+
+    public BufferCharSequence(ByteBuf buffer) {
+        this(buffer, buffer.readerIndex(), buffer.readableBytes());
+    }
+
+    public BufferCharSequence(ByteBuf buffer, int index, int length) {
+        this.buffer = buffer;
+        this.index = index;
+        this.length = length;
+    }
+
+    public ByteBuf getBuffer() {
+        return buffer;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return (char) (buffer.getByte(index + i) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new BufferCharSequence(buffer, index + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString(index, length, StandardCharsets.UTF_8);
+    }
+
+}
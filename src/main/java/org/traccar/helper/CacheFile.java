@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Append-only file backing an in-memory cache with long keys. The file starts with a magic number and a format
+ * parameter, and a mismatch of either discards the content. New entries are appended, and once the file holds more
+ * than twice the maximum number of entries, it is rewritten from the cache content.
+ */
+public class CacheFile<V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheFile.class);
+
+    public interface Codec<V> {
+        V read(DataInput input) throws IOException;
+        void write(DataOutput output, V value) throws IOException;
+    }
+
+    private final Path file;
+    private final int magic;
+    private final int parameter;
+    private final Codec<V> codec;
+    private final Map<Long, V> entries;
+    private final Predicate<V> valid;
+    private final int maxEntries;
+
+    private DataOutputStream output;
+    private int records;
+
+    /**
+     * @param entries cache content, loaded entries are put into it and compaction writes it out
+     * @param valid filter for entries to load and keep, for example to skip expired ones
+     */
+    public CacheFile(
+            Path file, int magic, int parameter, Codec<V> codec,
+            Map<Long, V> entries, Predicate<V> valid, int maxEntries) {
+        this.file = file;
+        this.magic = magic;
+        this.parameter = parameter;
+        this.codec = codec;
+        this.entries = entries;
+        this.valid = valid;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Loads existing entries into the cache and rewrites the file, after which appends are written to it.
+     */
+    public void open() {
+        load();
+        compact();
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        int count = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != magic || input.readInt() != parameter) {
+                LOGGER.info("Cache file {} format changed, discarding it", file);
+                return;
+            }
+            while (true) {
+                long key = input.readLong();
+                V value = codec.read(input);
+                if (valid.test(value)) {
+                    entries.put(key, value);
+                    count += 1;
+                }
+            }
+        } catch (EOFException e) {
+            LOGGER.debug("Cache file {} loaded with {} entries", file, count);
+        } catch (IOException e) {
+            LOGGER.warn("Cache file read error", e);
+        }
+    }
+
+    private synchronized void compact() {
+        try {
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            int count = 0;
+            try (DataOutputStream stream = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                stream.writeInt(magic);
+                stream.writeInt(parameter);
+                for (Map.Entry<Long, V> entry : entries.entrySet()) {
+                    if (valid.test(entry.getValue())) {
+                        stream.writeLong(entry.getKey());
+                        codec.write(stream, entry.getValue());
+                        count += 1;
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = count;
+            output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+        } catch (IOException e) {
+            LOGGER.warn("Cache file write error", e);
+        }
+    }
+
+    public synchronized void append(long key, V value) {
+        if (output != null) {
+            try {
+                output.writeLong(key);
+                codec.write(output, value);
+                output.flush();
+                records += 1;
+                if (records > 2 * maxEntries) {
+                    compact();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Cache file write error", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+/**
+ * Identifies coordinates rounded to a number of decimal places by a single key.
+ */
+public class CoordinateCells {
+
+    private static final int MAX_PRECISION = 6;
+
+    private final int precision;
+    private final double scale;
+    private final long width;
+
+    public CoordinateCells(int precision) {
+        this.precision = Math.max(0, Math.min(precision, MAX_PRECISION));
+        scale = Math.pow(10, this.precision);
+        width = Math.round(360 * scale) + 1;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Cell size in degrees.
+     */
+    public double getStep() {
+        return 1 / scale;
+    }
+
+    public long getKey(double latitude, double longitude) {
+        return Math.round((latitude + 90) * scale) * width + Math.round((longitude + 180) * scale);
+    }
+
+}
@@ -0,0 +1,938 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.MatchResult;
+
+/**
+ * Matcher for the expressions produced by {@link PatternBuilder} that does not use java.util.regex. The expression
+ * is compiled into a small program which is run over the input in a single pass, tracking every alternative in
+ * parallel instead of backtracking, so matching time is linear in the input length. Results are the same as with
+ * {@code Pattern.compile(expression, Pattern.DOTALL)}: alternatives and greedy or lazy quantifiers are preferred in
+ * the same order, and {@code $} also matches before a final line terminator.
+ * <p>
+ * Supported constructs are literals and escapes, character classes without intersections or nesting, capturing and
+ * non-capturing groups, alternation, greedy and lazy quantifiers, {@code ^} and {@code $}. Anything else, such as
+ * lookaround, back references, inline flags or possessive quantifiers, is rejected when compiling. Input is matched
+ * by UTF-16 char rather than by code point.
+ */
+public final class FieldScanner {
+
+    private static final int CHAR = 0;
+    private static final int ANY = 1;
+    private static final int SET = 2;
+    private static final int SPLIT = 3;
+    private static final int JUMP = 4;
+    private static final int SAVE = 5;
+    private static final int BEGIN = 6;
+    private static final int END = 7;
+    private static final int MATCH = 8;
+
+    private static final int NONE = -1;
+
+    private final String expression;
+    private final int groupCount;
+    private final int[] operations;
+    private final int[] arguments;
+    private final int[] alternatives;
+    private final CharSet[] sets;
+    private final boolean[] open;
+    private final long[] firstLow;
+    private final long[] firstHigh;
+    private final ThreadLocal<State> states;
+
+    private FieldScanner(String expression, int groupCount, Program program) {
+        this.expression = expression;
+        this.groupCount = groupCount;
+        operations = Arrays.copyOf(program.operations, program.size);
+        arguments = Arrays.copyOf(program.arguments, program.size);
+        alternatives = Arrays.copyOf(program.alternatives, program.size);
+        sets = program.sets.toArray(new CharSet[0]);
+        open = new boolean[operations.length];
+        firstLow = new long[operations.length];
+        firstHigh = new long[operations.length];
+        for (int pc = 0; pc < operations.length; pc++) {
+            computeFirst(pc);
+        }
+        states = ThreadLocal.withInitial(() -> new State(operations.length));
+    }
+
+    /**
+     * Collect ASCII chars that the program can consume first when started from {@code start}. The instruction is
+     * marked as open, and accepts any char, if it can reach an anchor or the end of the program without consuming
+     * anything.
+     */
+    private void computeFirst(int start) {
+        boolean[] visited = new boolean[operations.length];
+        int[] stack = new int[operations.length * 2];
+        int depth = 0;
+        stack[depth++] = start;
+        while (depth > 0 && !open[start]) {
+            int pc = stack[--depth];
+            if (visited[pc]) {
+                continue;
+            }
+            visited[pc] = true;
+            switch (operations[pc]) {
+                case JUMP -> stack[depth++] = arguments[pc];
+                case SPLIT -> {
+                    stack[depth++] = alternatives[pc];
+                    stack[depth++] = arguments[pc];
+                }
+                case SAVE -> stack[depth++] = pc + 1;
+                case CHAR -> {
+                    int c = arguments[pc];
+                    if (c < 64) {
+                        firstLow[start] |= 1L << c;
+                    } else if (c < 128) {
+                        firstHigh[start] |= 1L << (c - 64);
+                    }
+                }
+                case ANY -> {
+                    firstLow[start] = -1L;
+                    firstHigh[start] = -1L;
+                }
+                case SET -> {
+                    firstLow[start] |= sets[arguments[pc]].low;
+                    firstHigh[start] |= sets[arguments[pc]].high;
+                }
+                default -> open[start] = true;
+            }
+        }
+        if (open[start]) {
+            firstLow[start] = -1L;
+            firstHigh[start] = -1L;
+        }
+    }
+
+    public static FieldScanner compile(String expression) {
+        ExpressionParser parser = new ExpressionParser(expression);
+        Node node = parser.parse();
+        Program program = new Program();
+        program.emit(SAVE, 0, 0);
+        node.compile(program);
+        program.emit(SAVE, 1, 0);
+        program.emit(MATCH, 0, 0);
+        return new FieldScanner(expression, parser.groupCount, program);
+    }
+
+    public String pattern() {
+        return expression;
+    }
+
+    public Match matcher(CharSequence input) {
+        return new Match(input);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    public final class Match implements MatchResult {
+
+        private final CharSequence input;
+        private final int[] groups = new int[groupCount * 2 + 2];
+        private boolean matched;
+        private int next;
+
+        private Match(CharSequence input) {
+            this.input = input;
+        }
+
+        public boolean matches() {
+            matched = run(input, 0, true, groups);
+            next = matched ? input.length() + 1 : 0;
+            return matched;
+        }
+
+        public boolean find() {
+            if (next > input.length()) {
+                matched = false;
+                return false;
+            }
+            matched = run(input, next, false, groups);
+            if (matched) {
+                next = groups[1] == groups[0] ? groups[1] + 1 : groups[1];
+            } else {
+                next = input.length() + 1;
+            }
+            return matched;
+        }
+
+        private int offset(int index) {
+            if (!matched) {
+                throw new IllegalStateException("No match available");
+            }
+            if (index < 0 || index >= groups.length) {
+                throw new IndexOutOfBoundsException("No group " + index / 2);
+            }
+            return groups[index];
+        }
+
+        @Override
+        public int start() {
+            return offset(0);
+        }
+
+        @Override
+        public int start(int group) {
+            return offset(group * 2);
+        }
+
+        @Override
+        public int end() {
+            return offset(1);
+        }
+
+        @Override
+        public int end(int group) {
+            return offset(group * 2 + 1);
+        }
+
+        @Override
+        public String group() {
+            return group(0);
+        }
+
+        @Override
+        public String group(int group) {
+            int start = start(group);
+            return start < 0 ? null : input.subSequence(start, end(group)).toString();
+        }
+
+        @Override
+        public int groupCount() {
+            return groupCount;
+        }
+
+    }
+
+    private boolean run(CharSequence input, int from, boolean anchored, int[] groups) {
+        State state = states.get();
+        state.nodeCount = 0;
+        int length = input.length();
+        int result = NONE;
+        boolean found = false;
+
+        int next = from < length ? input.charAt(from) : NONE;
+        state.advance();
+        add(state, 0, NONE, from, next, input, length);
+        state.swap();
+
+        for (int position = from; position < length; position++) {
+            int position1 = position + 1;
+            next = position1 < length ? input.charAt(position1) : NONE;
+            state.advance();
+            int[] currentPc = state.currentPc;
+            int[] currentCapture = state.currentCapture;
+            for (int i = 0; i < state.currentCount; i++) {
+                int pc = currentPc[i];
+                if (operations[pc] == MATCH) {
+                    if (!anchored) {
+                        found = true;
+                        result = currentCapture[i];
+                        break;
+                    }
+                } else {
+                    add(state, pc + 1, currentCapture[i], position1, next, input, length);
+                }
+            }
+            if (!found && !anchored) {
+                add(state, 0, NONE, position1, next, input, length);
+            }
+            state.swap();
+            if (state.currentCount == 0 && (found || anchored)) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < state.currentCount; i++) {
+            if (operations[state.currentPc[i]] == MATCH) {
+                found = true;
+                result = state.currentCapture[i];
+                break;
+            }
+        }
+
+        if (found) {
+            Arrays.fill(groups, NONE);
+            for (int node = result; node != NONE; node = state.links[node]) {
+                int slot = state.slots[node];
+                if (groups[slot] == NONE) {
+                    groups[slot] = state.positions[node];
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Follow the instructions that do not consume input from {@code start} and queue every thread that can consume
+     * the {@code next} char, or that reaches the end of the program. Branches that cannot start with the next char are
+     * skipped, because they would be dropped on the following step anyway.
+     */
+    private void add(State state, int start, int capture, int position, int next, CharSequence input, int length) {
+        int[] marks = state.marks;
+        int generation = state.generation;
+        int depth = 0;
+        int pc = start;
+        int current = capture;
+        if (!viable(pc, next)) {
+            return;
+        }
+        while (true) {
+            if (marks[pc] != generation) {
+                marks[pc] = generation;
+                switch (operations[pc]) {
+                    case JUMP -> {
+                        pc = arguments[pc];
+                        continue;
+                    }
+                    case SPLIT -> {
+                        int alternative = alternatives[pc];
+                        if (viable(alternative, next)) {
+                            state.stackPc[depth] = alternative;
+                            state.stackCapture[depth++] = current;
+                        }
+                        pc = arguments[pc];
+                        if (viable(pc, next)) {
+                            continue;
+                        }
+                    }
+                    case SAVE -> {
+                        current = state.save(arguments[pc], position, current);
+                        pc += 1;
+                        continue;
+                    }
+                    case BEGIN -> {
+                        if (position == 0) {
+                            pc += 1;
+                            continue;
+                        }
+                    }
+                    case END -> {
+                        if (isEnd(input, position, length)) {
+                            pc += 1;
+                            continue;
+                        }
+                    }
+                    case CHAR -> {
+                        if (next == arguments[pc]) {
+                            state.nextPc[state.nextCount] = pc;
+                            state.nextCapture[state.nextCount++] = current;
+                        }
+                    }
+                    case SET -> {
+                        if (next >= 0 && sets[arguments[pc]].contains((char) next)) {
+                            state.nextPc[state.nextCount] = pc;
+                            state.nextCapture[state.nextCount++] = current;
+                        }
+                    }
+                    default -> {
+                        if (next >= 0 || operations[pc] == MATCH) {
+                            state.nextPc[state.nextCount] = pc;
+                            state.nextCapture[state.nextCount++] = current;
+                        }
+                    }
+                }
+            }
+            if (depth == 0) {
+                return;
+            }
+            depth -= 1;
+            pc = state.stackPc[depth];
+            current = state.stackCapture[depth];
+        }
+    }
+
+    private boolean viable(int pc, int next) {
+        if (next < 0) {
+            return open[pc];
+        } else if (next < 64) {
+            return (firstLow[pc] >>> next & 1) != 0;
+        } else if (next < 128) {
+            return (firstHigh[pc] >>> (next - 64) & 1) != 0;
+        }
+        return true;
+    }
+
+    private static boolean isEnd(CharSequence input, int position, int length) {
+        if (position >= length) {
+            return true;
+        }
+        if (position == length - 2) {
+            return input.charAt(position) == '\r' && input.charAt(position + 1) == '\n';
+        }
+        if (position == length - 1) {
+            char c = input.charAt(position);
+            if (c == '\n') {
+                return position == 0 || input.charAt(position - 1) != '\r';
+            }
+            return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        return false;
+    }
+
+    private static final class State {
+
+        private int[] currentPc;
+        private int[] currentCapture;
+        private int currentCount;
+        private int[] nextPc;
+        private int[] nextCapture;
+        private int nextCount;
+
+        private final int[] marks;
+        private int generation;
+
+        private final int[] stackPc;
+        private final int[] stackCapture;
+
+        private int[] slots = new int[64];
+        private int[] positions = new int[64];
+        private int[] links = new int[64];
+        private int nodeCount;
+
+        State(int size) {
+            currentPc = new int[size];
+            currentCapture = new int[size];
+            nextPc = new int[size];
+            nextCapture = new int[size];
+            marks = new int[size];
+            stackPc = new int[size + 1];
+            stackCapture = new int[size + 1];
+        }
+
+        void advance() {
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 0;
+            }
+            generation += 1;
+        }
+
+        void swap() {
+            int[] pc = currentPc;
+            currentPc = nextPc;
+            nextPc = pc;
+            int[] capture = currentCapture;
+            currentCapture = nextCapture;
+            nextCapture = capture;
+            currentCount = nextCount;
+            nextCount = 0;
+        }
+
+        int save(int slot, int position, int link) {
+            if (nodeCount == slots.length) {
+                slots = Arrays.copyOf(slots, nodeCount * 2);
+                positions = Arrays.copyOf(positions, nodeCount * 2);
+                links = Arrays.copyOf(links, nodeCount * 2);
+            }
+            slots[nodeCount] = slot;
+            positions[nodeCount] = position;
+            links[nodeCount] = link;
+            return nodeCount++;
+        }
+
+    }
+
+    private static final class Program {
+
+        private int[] operations = new int[64];
+        private int[] arguments = new int[64];
+        private int[] alternatives = new int[64];
+        private int size;
+        private final List<CharSet> sets = new ArrayList<>();
+
+        int emit(int operation, int argument, int alternative) {
+            if (size == operations.length) {
+                operations = Arrays.copyOf(operations, size * 2);
+                arguments = Arrays.copyOf(arguments, size * 2);
+                alternatives = Arrays.copyOf(alternatives, size * 2);
+            }
+            operations[size] = operation;
+            arguments[size] = argument;
+            alternatives[size] = alternative;
+            return size++;
+        }
+
+        int set(CharSet set) {
+            sets.add(set);
+            return sets.size() - 1;
+        }
+
+    }
+
+    private interface Node {
+        void compile(Program program);
+    }
+
+    private record Instruction(int operation, int argument) implements Node {
+        @Override
+        public void compile(Program program) {
+            program.emit(operation, argument, 0);
+        }
+    }
+
+    private record CharClass(CharSet set) implements Node {
+        @Override
+        public void compile(Program program) {
+            program.emit(SET, program.set(set), 0);
+        }
+    }
+
+    private record Sequence(List<Node> nodes) implements Node {
+        @Override
+        public void compile(Program program) {
+            for (Node node : nodes) {
+                node.compile(program);
+            }
+        }
+    }
+
+    private record Alternation(List<Node> nodes) implements Node {
+        @Override
+        public void compile(Program program) {
+            int[] jumps = new int[nodes.size() - 1];
+            for (int i = 0; i < jumps.length; i++) {
+                int split = program.emit(SPLIT, program.size + 1, 0);
+                nodes.get(i).compile(program);
+                jumps[i] = program.emit(JUMP, 0, 0);
+                program.alternatives[split] = program.size;
+            }
+            nodes.get(jumps.length).compile(program);
+            for (int jump : jumps) {
+                program.arguments[jump] = program.size;
+            }
+        }
+    }
+
+    private record Group(int index, Node node) implements Node {
+        @Override
+        public void compile(Program program) {
+            program.emit(SAVE, index * 2, 0);
+            node.compile(program);
+            program.emit(SAVE, index * 2 + 1, 0);
+        }
+    }
+
+    private record Repeat(Node node, int min, int max, boolean greedy) implements Node {
+
+        private int split(Program program, int body, int exit) {
+            return greedy ? program.emit(SPLIT, body, exit) : program.emit(SPLIT, exit, body);
+        }
+
+        private void patch(Program program, int split) {
+            if (greedy) {
+                program.alternatives[split] = program.size;
+            } else {
+                program.arguments[split] = program.size;
+            }
+        }
+
+        @Override
+        public void compile(Program program) {
+            if (max < 0) {
+                for (int i = 1; i < min; i++) {
+                    node.compile(program);
+                }
+                if (min > 0) {
+                    int loop = program.size;
+                    node.compile(program);
+                    split(program, loop, program.size + 1);
+                } else {
+                    int split = split(program, program.size + 1, 0);
+                    node.compile(program);
+                    program.emit(JUMP, split, 0);
+                    patch(program, split);
+                }
+            } else {
+                for (int i = 0; i < min; i++) {
+                    node.compile(program);
+                }
+                int[] splits = new int[max - min];
+                for (int i = 0; i < splits.length; i++) {
+                    splits[i] = split(program, program.size + 1, 0);
+                    node.compile(program);
+                }
+                for (int split : splits) {
+                    patch(program, split);
+                }
+            }
+        }
+
+    }
+
+    private static final class CharSet {
+
+        private static final CharSet DIGIT = new CharSet(false, '0', '9');
+        private static final CharSet SPACE = new CharSet(false, '\t', '\r', ' ', ' ');
+        private static final CharSet WORD = new CharSet(false, '0', '9', 'A', 'Z', '_', '_', 'a', 'z');
+
+        private final boolean negated;
+        private final char[] ranges;
+        private final long low;
+        private final long high;
+
+        CharSet(boolean negated, char... ranges) {
+            this.negated = negated;
+            this.ranges = ranges;
+            long low = 0;
+            long high = 0;
+            for (char c = 0; c < 64; c++) {
+                if (test(c)) {
+                    low |= 1L << c;
+                }
+                if (test((char) (c + 64))) {
+                    high |= 1L << c;
+                }
+            }
+            this.low = low;
+            this.high = high;
+        }
+
+        private boolean test(char c) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+
+        boolean contains(char c) {
+            if (c < 64) {
+                return (low >>> c & 1) != 0;
+            } else if (c < 128) {
+                return (high >>> (c - 64) & 1) != 0;
+            }
+            return test(c);
+        }
+
+        void addTo(List<Character> target) {
+            if (!negated) {
+                for (char c : ranges) {
+                    target.add(c);
+                }
+                return;
+            }
+            int next = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    target.add((char) next);
+                    target.add((char) (ranges[i] - 1));
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_VALUE) {
+                target.add((char) next);
+                target.add(Character.MAX_VALUE);
+            }
+        }
+
+    }
+
+    private static final class ExpressionParser {
+
+        private final String expression;
+        private int index;
+        private int groupCount;
+
+        ExpressionParser(String expression) {
+            this.expression = expression;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " near index " + index + " in " + expression);
+        }
+
+        private boolean more() {
+            return index < expression.length();
+        }
+
+        private char peek() {
+            return expression.charAt(index);
+        }
+
+        private char read() {
+            if (!more()) {
+                throw error("Unexpected end");
+            }
+            return expression.charAt(index++);
+        }
+
+        Node parse() {
+            Node node = parseAlternation();
+            if (more()) {
+                throw error("Unmatched closing parenthesis");
+            }
+            return node;
+        }
+
+        private Node parseAlternation() {
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(parseSequence());
+            while (more() && peek() == '|') {
+                index += 1;
+                nodes.add(parseSequence());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Alternation(nodes);
+        }
+
+        private Node parseSequence() {
+            List<Node> nodes = new ArrayList<>();
+            while (more() && peek() != '|' && peek() != ')') {
+                nodes.add(parseQuantifier(parseAtom()));
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Sequence(nodes);
+        }
+
+        private Node parseAtom() {
+            char c = read();
+            switch (c) {
+                case '(':
+                    int group = 0;
+                    if (more() && peek() == '?') {
+                        index += 1;
+                        if (!more() || read() != ':') {
+                            throw error("Unsupported group construct");
+                        }
+                    } else {
+                        group = ++groupCount;
+                    }
+                    Node node = parseAlternation();
+                    if (!more() || read() != ')') {
+                        throw error("Unclosed group");
+                    }
+                    return group > 0 ? new Group(group, node) : node;
+                case '[':
+                    return new CharClass(parseClass());
+                case '.':
+                    return new Instruction(ANY, 0);
+                case '^':
+                    return new Instruction(BEGIN, 0);
+                case '$':
+                    return new Instruction(END, 0);
+                case '\\':
+                    CharSet set = parseSetEscape();
+                    return set != null ? new CharClass(set) : new Instruction(CHAR, parseCharEscape());
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw error("Dangling quantifier");
+                default:
+                    return new Instruction(CHAR, c);
+            }
+        }
+
+        private Node parseQuantifier(Node node) {
+            if (!more()) {
+                return node;
+            }
+            int min;
+            int max;
+            switch (peek()) {
+                case '*':
+                    min = 0;
+                    max = -1;
+                    break;
+                case '+':
+                    min = 1;
+                    max = -1;
+                    break;
+                case '?':
+                    min = 0;
+                    max = 1;
+                    break;
+                case '{':
+                    index += 1;
+                    min = parseNumber();
+                    max = min;
+                    if (more() && peek() == ',') {
+                        index += 1;
+                        max = more() && peek() == '}' ? -1 : parseNumber();
+                    }
+                    if (!more() || peek() != '}' || max >= 0 && max < min) {
+                        throw error("Invalid repetition");
+                    }
+                    break;
+                default:
+                    return node;
+            }
+            index += 1;
+            boolean greedy = true;
+            if (more() && peek() == '?') {
+                index += 1;
+                greedy = false;
+            } else if (more() && peek() == '+') {
+                throw error("Possessive quantifiers are not supported");
+            }
+            return new Repeat(node, min, max, greedy);
+        }
+
+        private int parseNumber() {
+            int start = index;
+            while (more() && peek() >= '0' && peek() <= '9') {
+                index += 1;
+            }
+            if (start == index) {
+                throw error("Invalid repetition");
+            }
+            return Integer.parseInt(expression, start, index, 10);
+        }
+
+        private CharSet parseClass() {
+            boolean negated = more() && peek() == '^';
+            if (negated) {
+                index += 1;
+            }
+            List<Character> ranges = new ArrayList<>();
+            if (more() && peek() == ']') {
+                throw error("Empty character class");
+            }
+            while (true) {
+                char c = read();
+                if (c == ']') {
+                    break;
+                } else if (c == '[' || c == '&' && more() && peek() == '&') {
+                    throw error("Nested classes and intersections are not supported");
+                }
+                if (c == '\\') {
+                    CharSet set = parseSetEscape();
+                    if (set != null) {
+                        set.addTo(ranges);
+                        continue;
+                    }
+                    c = parseCharEscape();
+                }
+                char last = c;
+                if (more() && peek() == '-' && index + 1 < expression.length()
+                        && expression.charAt(index + 1) != ']') {
+                    index += 1;
+                    last = read();
+                    if (last == '[') {
+                        throw error("Nested classes and intersections are not supported");
+                    } else if (last == '\\') {
+                        if (parseSetEscape() != null) {
+                            throw error("Invalid range");
+                        }
+                        last = parseCharEscape();
+                    }
+                    if (last < c) {
+                        throw error("Invalid range");
+                    }
+                }
+                ranges.add(c);
+                ranges.add(last);
+            }
+            char[] result = new char[ranges.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ranges.get(i);
+            }
+            return new CharSet(negated, result);
+        }
+
+        private CharSet parseSetEscape() {
+            if (!more()) {
+                throw error("Unexpected end");
+            }
+            CharSet set = switch (peek()) {
+                case 'd', 'D' -> CharSet.DIGIT;
+                case 's', 'S' -> CharSet.SPACE;
+                case 'w', 'W' -> CharSet.WORD;
+                default -> null;
+            };
+            if (set != null) {
+                if (Character.isUpperCase(read())) {
+                    List<Character> ranges = new ArrayList<>();
+                    set.addTo(ranges);
+                    char[] result = new char[ranges.size()];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = ranges.get(i);
+                    }
+                    return new CharSet(true, result);
+                }
+            }
+            return set;
+        }
+
+        private char parseCharEscape() {
+            char c = read();
+            switch (c) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                case 'a':
+                    return '\u0007';
+                case 'e':
+                    return '\u001b';
+                case '0':
+                    return parseOctal();
+                case 'x':
+                    if (more() && peek() == '{') {
+                        throw error("Unsupported escape");
+                    }
+                    return (char) parseHex(2);
+                case 'u':
+                    return (char) parseHex(4);
+                case 'c':
+                    return (char) (read() ^ 64);
+                default:
+                    if (c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z') {
+                        throw error("Unsupported escape");
+                    }
+                    return c;
+            }
+        }
+
+        private char parseOctal() {
+            int value = 0;
+            int digits = 0;
+            while (digits < 3 && more() && peek() >= '0' && peek() <= '7' && value * 8 + peek() - '0' <= 0377) {
+                value = value * 8 + read() - '0';
+                digits += 1;
+            }
+            if (digits == 0) {
+                throw error("Illegal octal escape");
+            }
+            return (char) value;
+        }
+
+        private int parseHex(int digits) {
+            int value = 0;
+            for (int i = 0; i < digits; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw error("Illegal hexadecimal escape");
+                }
+                value = value * 16 + digit;
+            }
+            return value;
+        }
+
+    }
+
+}
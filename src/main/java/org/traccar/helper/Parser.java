@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2017 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,26 +17,54 @@ package org.traccar.helper;
 
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Parser {
 
     private int position;
+    private final CharSequence input;
     private final Matcher matcher;
+    private final FieldScanner.Match match;
+    private final MatchResult result;
 
-    public Parser(Pattern pattern, String input) {
+    public Parser(Pattern pattern, CharSequence input) {
+        this.input = input;
         matcher = pattern.matcher(input);
+        match = null;
+        result = matcher;
+    }
+
+    public Parser(FieldScanner scanner, CharSequence input) {
+        this.input = input;
+        matcher = null;
+        match = scanner.matcher(input);
+        result = match;
     }
 
     public boolean matches() {
         position = 1;
-        return matcher.matches();
+        return matcher != null ? matcher.matches() : match.matches();
     }
 
     public boolean find() {
         position = 1;
-        return matcher.find();
+        return matcher != null ? matcher.find() : match.find();
+    }
+
+    private boolean isEmpty(int group) {
+        return result.start(group) == result.end(group);
+    }
+
+    private int nextIntValue(int radix) {
+        int group = position++;
+        return Integer.parseInt(input, result.start(group), result.end(group), radix);
+    }
+
+    private long nextLongValue(int radix) {
+        int group = position++;
+        return Long.parseLong(input, result.start(group), result.end(group), radix);
     }
 
     public void skip(int number) {
@@ -49,8 +77,7 @@ public class Parser {
 
     public boolean hasNext(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value == null || value.isEmpty()) {
+            if (isEmpty(i)) {
                 position += number;
                 return false;
             }
@@ -60,8 +87,7 @@ public class Parser {
 
     public boolean hasNextAny(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value != null && !value.isEmpty()) {
+            if (!isEmpty(i)) {
                 return true;
             }
         }
@@ -70,12 +96,12 @@ public class Parser {
     }
 
     public String next() {
-        return matcher.group(position++);
+        return result.group(position++);
     }
 
     public Integer nextInt() {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return nextIntValue(10);
         } else {
             return null;
         }
@@ -83,7 +109,7 @@ public class Parser {
 
     public int nextInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return nextIntValue(10);
         } else {
             return defaultValue;
         }
@@ -91,7 +117,7 @@ public class Parser {
 
     public Integer nextHexInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return nextIntValue(16);
         } else {
             return null;
         }
@@ -99,7 +125,7 @@ public class Parser {
 
     public int nextHexInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return nextIntValue(16);
         } else {
             return defaultValue;
         }
@@ -107,7 +133,7 @@ public class Parser {
 
     public Integer nextBinInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return nextIntValue(2);
         } else {
             return null;
         }
@@ -115,7 +141,7 @@ public class Parser {
 
     public int nextBinInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return nextIntValue(2);
         } else {
             return defaultValue;
         }
@@ -123,7 +149,7 @@ public class Parser {
 
     public Long nextLong() {
         if (hasNext()) {
-            return Long.parseLong(next());
+            return nextLongValue(10);
         } else {
             return null;
         }
@@ -131,7 +157,7 @@ public class Parser {
 
     public Long nextHexLong() {
         if (hasNext()) {
-            return Long.parseLong(next(), 16);
+            return nextLongValue(16);
         } else {
             return null;
         }
@@ -143,7 +169,7 @@ public class Parser {
 
     public long nextLong(int radix, long defaultValue) {
         if (hasNext()) {
-            return Long.parseLong(next(), radix);
+            return nextLongValue(radix);
         } else {
             return defaultValue;
         }
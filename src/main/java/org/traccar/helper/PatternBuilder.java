@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2020 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -86,6 +86,14 @@ public class PatternBuilder {
         return Pattern.compile(toString(), Pattern.DOTALL);
     }
 
+    /**
+     * Compile into a {@link FieldScanner}, which gives the same results as {@link #compile()} without backtracking.
+     * Fails if the pattern uses constructs the scanner does not support.
+     */
+    public FieldScanner compileScanner() {
+        return FieldScanner.compile(toString());
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
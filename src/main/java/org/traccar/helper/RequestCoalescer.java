@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Shares one asynchronous request between all callers asking for the same key while it is in progress.
+ */
+public class RequestCoalescer<K, V> {
+
+    public interface Callback<V> {
+        void onSuccess(V value);
+        void onFailure(Throwable e);
+    }
+
+    public static <V> Callback<V> callback(Consumer<V> onSuccess, Consumer<Throwable> onFailure) {
+        return new Callback<>() {
+            @Override
+            public void onSuccess(V value) {
+                onSuccess.accept(value);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                onFailure.accept(e);
+            }
+        };
+    }
+
+    private final Map<K, List<Callback<V>>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a waiting callback, which can be null to only mark the key as pending. Returns true if there was no
+     * request in progress for the key, in which case the caller has to either execute or complete it.
+     */
+    public boolean add(K key, Callback<V> callback) {
+        boolean[] first = new boolean[1];
+        pending.compute(key, (k, callbacks) -> {
+            if (callbacks == null) {
+                callbacks = new ArrayList<>(1);
+                first[0] = true;
+            }
+            if (callback != null) {
+                callbacks.add(callback);
+            }
+            return callbacks;
+        });
+        return first[0];
+    }
+
+    public boolean contains(K key) {
+        return pending.containsKey(key);
+    }
+
+    public void complete(K key, V value) {
+        pending.remove(key).forEach(c -> c.onSuccess(value));
+    }
+
+    public void fail(K key, Throwable e) {
+        pending.remove(key).forEach(c -> c.onFailure(e));
+    }
+
+    /**
+     * Starts the request for a key added with {@link #add}. The listener sees the result first and then all waiting
+     * callbacks receive it. The result is delivered exactly once, even if the request calls back more than once or
+     * throws an exception, before or after calling back.
+     */
+    public void execute(K key, Consumer<Callback<V>> request, Callback<V> listener) {
+        AtomicBoolean completed = new AtomicBoolean();
+        try {
+            request.accept(new Callback<>() {
+                @Override
+                public void onSuccess(V value) {
+                    if (completed.compareAndSet(false, true)) {
+                        listener.onSuccess(value);
+                        complete(key, value);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    if (completed.compareAndSet(false, true)) {
+                        listener.onFailure(e);
+                        fail(key, e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            if (completed.compareAndSet(false, true)) {
+                listener.onFailure(e);
+                fail(key, e);
+            } else {
+                throw e;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import org.traccar.model.Modifiable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reuses JSON of recently serialized {@link Modifiable} objects, so a position written by several forwarders,
+ * sockets and the database is only rendered once. Entries are dropped as soon as the object is modified and the
+ * cache only holds a bounded number of recent objects.
+ */
+public class SerializationCacheModule extends SimpleModule {
+
+    private static final int CACHE_SIZE = 1024;
+
+    private record Entry(Object value, Object config, long modifications, String json) {
+    }
+
+    private final AtomicReferenceArray<Entry> cache = new AtomicReferenceArray<>(CACHE_SIZE);
+
+    public SerializationCacheModule() {
+        super("SerializationCacheModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(
+                    SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                return wrap(beanDesc.getBeanClass(), serializer);
+            }
+
+            @Override
+            public JsonSerializer<?> modifyMapSerializer(
+                    SerializationConfig config, MapType valueType, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                return wrap(valueType.getRawClass(), serializer);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonSerializer<?> wrap(Class<?> clazz, JsonSerializer<?> serializer) {
+        if (Modifiable.class.isAssignableFrom(clazz) && !(serializer instanceof CachingSerializer)) {
+            return new CachingSerializer((JsonSerializer<Object>) serializer);
+        }
+        return serializer;
+    }
+
+    private String lookup(Object value, Object config, long modifications) {
+        Entry entry = cache.get(System.identityHashCode(value) & (CACHE_SIZE - 1));
+        if (entry != null && entry.value() == value && entry.config() == config
+                && entry.modifications() == modifications) {
+            return entry.json();
+        }
+        return null;
+    }
+
+    private void store(Object value, Object config, long modifications, String json) {
+        cache.set(System.identityHashCode(value) & (CACHE_SIZE - 1), new Entry(value, config, modifications, json));
+    }
+
+    private final class CachingSerializer extends JsonSerializer<Object>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        private final JsonSerializer<Object> delegate;
+
+        private CachingSerializer(JsonSerializer<Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer resolvable) {
+                resolvable.resolve(provider);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(
+                SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            if (delegate instanceof ContextualSerializer contextual) {
+                JsonSerializer<?> serializer = contextual.createContextual(provider, property);
+                if (serializer != delegate) {
+                    return new CachingSerializer((JsonSerializer<Object>) serializer);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!(gen instanceof JsonGeneratorImpl) || gen.getPrettyPrinter() != null || gen.getCodec() == null
+                    || provider.getActiveView() != null) {
+                delegate.serialize(value, gen, provider);
+                return;
+            }
+            Object config = provider.getConfig();
+            long modifications = ((Modifiable) value).modificationCount();
+            String json = lookup(value, config, modifications);
+            if (json == null) {
+                StringWriter writer = new StringWriter();
+                try (JsonGenerator generator = gen.getCodec().getFactory().createGenerator(writer)) {
+                    delegate.serialize(value, generator, provider);
+                }
+                json = writer.toString();
+                store(value, config, modifications, json);
+            }
+            gen.writeRawValue(json);
+        }
+
+        @Override
+        public void serializeWithType(
+                Object value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+                throws IOException {
+            delegate.serializeWithType(value, gen, provider, typeSer);
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public boolean usesObjectId() {
+            return delegate.usesObjectId();
+        }
+
+        @Override
+        public JsonSerializer<Object> unwrappingSerializer(NameTransformer unwrapper) {
+            return delegate.unwrappingSerializer(unwrapper);
+        }
+
+        @Override
+        public Class<Object> handledType() {
+            return delegate.handledType();
+        }
+
+    }
+
+}
@@ -27,12 +27,17 @@ import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public final class PositionUtil {
 
+    private static final int BATCH_SIZE = 500;
+
     private PositionUtil() {
     }
 
@@ -64,6 +69,21 @@ public final class PositionUtil {
                 new Order("fixTime")));
     }
 
+    public static Map<Long, Position> getPositions(
+            Storage storage, Collection<Long> positionIds) throws StorageException {
+        Map<Long, Position> result = new HashMap<>();
+        List<Long> ids = positionIds.stream().filter(id -> id > 0).distinct().collect(Collectors.toList());
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            var positions = storage.getObjects(Position.class, new Request(
+                    new Columns.All(),
+                    new Condition.In("id", ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())))));
+            for (Position position : positions) {
+                result.put(position.getId(), position);
+            }
+        }
+        return result;
+    }
+
     public static List<Position> getLatestPositions(Storage storage, long userId) throws StorageException {
         var devices = storage.getObjects(Device.class, new Request(
                 new Columns.Include("id"),
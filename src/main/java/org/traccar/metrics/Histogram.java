@@ -0,0 +1,75 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed exponential buckets from about one microsecond to 17 seconds. Recording is a few
+ * uncontended additions, so it can be used on hot paths.
+ */
+public final class Histogram {
+
+    static final int BUCKETS = 26;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Upper bound of the bucket in seconds, infinite for the last one.
+     */
+    static double upperBound(int index) {
+        return index < BUCKETS - 1 ? (1024L << index) / 1e9 : Double.POSITIVE_INFINITY;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos <= 1024) {
+            return 0;
+        }
+        return Math.min(64 - Long.numberOfLeadingZeros((nanos - 1) >>> 10), BUCKETS - 1);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucket(nanos)].increment();
+        sum.add(nanos);
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    long[] getBuckets() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = buckets[i].sum();
+        }
+        return result;
+    }
+
+    double getSum() {
+        return sum.sum() / 1e9;
+    }
+
+}
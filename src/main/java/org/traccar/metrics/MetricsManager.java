@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.metrics;
+
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of runtime metrics written in Prometheus text format. Metrics are identified by name and label pairs;
+ * callers should keep the returned objects instead of looking them up for every event.
+ */
+@Singleton
+public class MetricsManager {
+
+    private static final class Family {
+
+        private final String help;
+        private final String type;
+        private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+
+    }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private static String formatLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"");
+            String value = labels[i + 1] != null ? labels[i + 1] : "";
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\' -> builder.append("\\\\");
+                    case '"' -> builder.append("\\\"");
+                    case '\n' -> builder.append("\\n");
+                    default -> builder.append(c);
+                }
+            }
+            builder.append('"');
+        }
+        return builder.toString();
+    }
+
+    private Object register(String name, String help, String type, String[] labels, Object metric) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type);
+        }
+        return family.metrics.computeIfAbsent(formatLabels(labels), key -> metric != null ? metric : new Histogram());
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) register(name, help, "histogram", labels, null);
+    }
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) register(name, help, "counter", labels, new LongAdder());
+    }
+
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        register(name, help, "counter", labels, value);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, "gauge", labels, value);
+    }
+
+    private static void writeSample(
+            Writer writer, String name, String labels, String extraLabel, double value) throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            writer.write('{');
+            writer.write(labels);
+            if (extraLabel != null) {
+                if (!labels.isEmpty()) {
+                    writer.write(',');
+                }
+                writer.write(extraLabel);
+            }
+            writer.write('}');
+        }
+        writer.write(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write('\n');
+    }
+
+    public void write(Writer writer) throws IOException {
+        for (Map.Entry<String, Family> familyEntry : families.entrySet()) {
+            String name = familyEntry.getKey();
+            Family family = familyEntry.getValue();
+            writer.write("# HELP " + name + " " + family.help + "\n");
+            writer.write("# TYPE " + name + " " + family.type + "\n");
+            for (Map.Entry<String, Object> entry : family.metrics.entrySet()) {
+                String labels = entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof Histogram histogram) {
+                    long[] buckets = histogram.getBuckets();
+                    long count = 0;
+                    for (int i = 0; i < buckets.length; i++) {
+                        count += buckets[i];
+                        double bound = Histogram.upperBound(i);
+                        String le = Double.isInfinite(bound) ? "+Inf" : Double.toString(bound);
+                        writeSample(writer, name + "_bucket", labels, "le=\"" + le + "\"", count);
+                    }
+                    writeSample(writer, name + "_sum", labels, null, histogram.getSum());
+                    writeSample(writer, name + "_count", labels, null, count);
+                } else if (metric instanceof LongAdder counter) {
+                    writeSample(writer, name, labels, null, counter.sum());
+                } else if (metric instanceof LongSupplier supplier) {
+                    writeSample(writer, name, labels, null, supplier.getAsLong());
+                } else if (metric instanceof DoubleSupplier supplier) {
+                    writeSample(writer, name, labels, null, supplier.getAsDouble());
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,495 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Insertion ordered attribute map with compact storage. Keys are interned and kept in a flat array, integer, long,
+ * double and boolean values are stored unboxed, and an open addressing index is only built for larger maps.
+ * Values keep their original boxed type when read back, and typed accessors read and write numbers without boxing.
+ */
+public class AttributeMap extends AbstractMap<String, Object> implements Modifiable {
+
+    private static final int MAX_KEYS = 10000;
+    private static final Map<String, String> KEYS = new ConcurrentHashMap<>();
+
+    private static final byte TYPE_OBJECT = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int INDEX_THRESHOLD = 8;
+
+    private String[] keys;
+    private byte[] types;
+    private long[] values;
+    private Object[] objects;
+    private int[] index;
+    private int size;
+    private int modCount;
+    private int modifications;
+
+    public AttributeMap() {
+    }
+
+    public AttributeMap(Map<String, ?> map) {
+        if (!map.isEmpty()) {
+            allocate(map.size());
+            map.forEach(this::put);
+        }
+    }
+
+    private static String intern(String key) {
+        if (key == null) {
+            return null;
+        }
+        String canonical = KEYS.get(key);
+        if (canonical == null) {
+            if (KEYS.size() >= MAX_KEYS) {
+                return key;
+            }
+            canonical = KEYS.putIfAbsent(key, key);
+            if (canonical == null) {
+                canonical = key;
+            }
+        }
+        return canonical;
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        types = new byte[capacity];
+        values = new long[capacity];
+    }
+
+    private void grow() {
+        if (keys == null) {
+            allocate(INITIAL_CAPACITY);
+            return;
+        }
+        int capacity = keys.length + Math.max(keys.length >> 1, INITIAL_CAPACITY / 2);
+        keys = Arrays.copyOf(keys, capacity);
+        types = Arrays.copyOf(types, capacity);
+        values = Arrays.copyOf(values, capacity);
+        if (objects != null) {
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        if (index != null) {
+            buildIndex();
+        }
+    }
+
+    private void buildIndex() {
+        index = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        for (int slot = 0; slot < size; slot++) {
+            insertIndex(slot);
+        }
+    }
+
+    private void insertIndex(int slot) {
+        int mask = index.length - 1;
+        int i = hash(keys[slot]) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    private int find(Object key) {
+        if (index == null) {
+            for (int slot = 0; slot < size; slot++) {
+                String k = keys[slot];
+                if (k == key || key != null && key.equals(k)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        int i = hash(key) & mask;
+        int entry;
+        while ((entry = index[i]) != 0) {
+            String k = keys[entry - 1];
+            if (k == key || key != null && key.equals(k)) {
+                return entry - 1;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private Object load(int slot) {
+        long value = values[slot];
+        return switch (types[slot]) {
+            case TYPE_BOOLEAN -> value != 0;
+            case TYPE_INTEGER -> (int) value;
+            case TYPE_LONG -> value;
+            case TYPE_DOUBLE -> Double.longBitsToDouble(value);
+            default -> objects[slot];
+        };
+    }
+
+    private void store(int slot, Object value) {
+        if (value instanceof Integer integerValue) {
+            store(slot, TYPE_INTEGER, integerValue);
+        } else if (value instanceof Double doubleValue) {
+            store(slot, TYPE_DOUBLE, Double.doubleToRawLongBits(doubleValue));
+        } else if (value instanceof Boolean booleanValue) {
+            store(slot, TYPE_BOOLEAN, booleanValue ? 1 : 0);
+        } else if (value instanceof Long longValue) {
+            store(slot, TYPE_LONG, longValue);
+        } else {
+            modifications += 1;
+            if (objects == null) {
+                objects = new Object[keys.length];
+            }
+            types[slot] = TYPE_OBJECT;
+            objects[slot] = value;
+        }
+    }
+
+    private void store(int slot, byte type, long value) {
+        modifications += 1;
+        types[slot] = type;
+        values[slot] = value;
+        if (objects != null) {
+            objects[slot] = null;
+        }
+    }
+
+    private int append(String key) {
+        if (keys == null || size == keys.length) {
+            grow();
+        }
+        int slot = size++;
+        keys[slot] = intern(key);
+        if (index != null) {
+            insertIndex(slot);
+        } else if (size > INDEX_THRESHOLD) {
+            buildIndex();
+        }
+        modCount += 1;
+        return slot;
+    }
+
+    private void store(String key, byte type, long value) {
+        int slot = find(key);
+        store(slot >= 0 ? slot : append(key), type, value);
+    }
+
+    private void removeSlot(int slot) {
+        int moved = size - slot - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, slot + 1, keys, slot, moved);
+            System.arraycopy(types, slot + 1, types, slot, moved);
+            System.arraycopy(values, slot + 1, values, slot, moved);
+            if (objects != null) {
+                System.arraycopy(objects, slot + 1, objects, slot, moved);
+            }
+        }
+        size -= 1;
+        keys[size] = null;
+        if (objects != null) {
+            objects[size] = null;
+        }
+        if (index != null) {
+            if (size > INDEX_THRESHOLD) {
+                buildIndex();
+            } else {
+                index = null;
+            }
+        }
+        modCount += 1;
+        modifications += 1;
+    }
+
+    @Override
+    public long modificationCount() {
+        return modifications;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = find(key);
+        return slot >= 0 ? load(slot) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            Object previous = load(slot);
+            store(slot, value);
+            return previous;
+        }
+        store(append(key), value);
+        return null;
+    }
+
+    public void set(String key, boolean value) {
+        store(key, TYPE_BOOLEAN, value ? 1 : 0);
+    }
+
+    public void set(String key, int value) {
+        store(key, TYPE_INTEGER, value);
+    }
+
+    public void set(String key, long value) {
+        store(key, TYPE_LONG, value);
+    }
+
+    public void set(String key, double value) {
+        store(key, TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        int slot = find(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return switch (types[slot]) {
+            case TYPE_BOOLEAN -> values[slot] != 0;
+            case TYPE_INTEGER, TYPE_LONG, TYPE_DOUBLE -> false;
+            default -> objects[slot] instanceof Boolean booleanValue
+                    ? booleanValue : Boolean.parseBoolean(objects[slot].toString());
+        };
+    }
+
+    public int getInteger(String key, int defaultValue) {
+        int slot = find(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return switch (types[slot]) {
+            case TYPE_INTEGER, TYPE_LONG -> (int) values[slot];
+            case TYPE_DOUBLE -> (int) Double.longBitsToDouble(values[slot]);
+            default -> {
+                Object value = load(slot);
+                yield value instanceof Number numberValue ? numberValue.intValue() : Integer.parseInt(value.toString());
+            }
+        };
+    }
+
+    public long getLong(String key, long defaultValue) {
+        int slot = find(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return switch (types[slot]) {
+            case TYPE_INTEGER, TYPE_LONG -> values[slot];
+            case TYPE_DOUBLE -> (long) Double.longBitsToDouble(values[slot]);
+            default -> {
+                Object value = load(slot);
+                yield value instanceof Number numberValue ? numberValue.longValue() : Long.parseLong(value.toString());
+            }
+        };
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        int slot = find(key);
+        if (slot < 0) {
+            return defaultValue;
+        }
+        return switch (types[slot]) {
+            case TYPE_INTEGER, TYPE_LONG -> values[slot];
+            case TYPE_DOUBLE -> Double.longBitsToDouble(values[slot]);
+            default -> {
+                Object value = load(slot);
+                yield value instanceof Number numberValue
+                        ? numberValue.doubleValue() : Double.parseDouble(value.toString());
+            }
+        };
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        Object previous = load(slot);
+        removeSlot(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0, size, null);
+            if (objects != null) {
+                Arrays.fill(objects, 0, size, null);
+            }
+            size = 0;
+            index = null;
+            modCount += 1;
+            modifications += 1;
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new EntrySet();
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            AttributeMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new SlotEntry(last, expectedModCount);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeSlot(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+
+        private final int slot;
+        private final int expectedModCount;
+        private final String key;
+
+        private SlotEntry(int slot, int expectedModCount) {
+            this.slot = slot;
+            this.expectedModCount = expectedModCount;
+            this.key = keys[slot];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            if (modCount != expectedModCount) {
+                return get(key);
+            }
+            return load(slot);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            if (modCount != expectedModCount) {
+                return put(key, value);
+            }
+            Object previous = load(slot);
+            store(slot, value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> entry
+                    && Objects.equals(key, entry.getKey())
+                    && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,13 +15,13 @@
  */
 package org.traccar.model;
 
-import java.util.LinkedHashMap;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.util.Map;
-import java.util.Objects;
 
 public class ExtendedModel extends BaseModel {
 
-    private Map<String, Object> attributes = new LinkedHashMap<>();
+    private AttributeMap attributes = new AttributeMap();
 
     public boolean hasAttribute(String key) {
         return attributes.containsKey(key);
@@ -31,49 +31,72 @@ public class ExtendedModel extends BaseModel {
         return attributes;
     }
 
+    @JsonDeserialize(as = AttributeMap.class)
     public void setAttributes(Map<String, Object> attributes) {
-        this.attributes = Objects.requireNonNullElseGet(attributes, LinkedHashMap::new);
+        if (attributes == null) {
+            this.attributes = new AttributeMap();
+        } else if (attributes instanceof AttributeMap attributeMap) {
+            this.attributes = attributeMap;
+        } else {
+            this.attributes = new AttributeMap(attributes);
+        }
+    }
+
+    public void set(String key, boolean value) {
+        attributes.set(key, value);
+    }
+
+    public void set(String key, int value) {
+        attributes.set(key, value);
+    }
+
+    public void set(String key, long value) {
+        attributes.set(key, value);
+    }
+
+    public void set(String key, double value) {
+        attributes.set(key, value);
     }
 
     public void set(String key, Boolean value) {
         if (value != null) {
-            attributes.put(key, value);
+            attributes.set(key, value);
         }
     }
 
     public void set(String key, Byte value) {
         if (value != null) {
-            attributes.put(key, value.intValue());
+            attributes.set(key, value.intValue());
         }
     }
 
     public void set(String key, Short value) {
         if (value != null) {
-            attributes.put(key, value.intValue());
+            attributes.set(key, value.intValue());
         }
     }
 
     public void set(String key, Integer value) {
         if (value != null) {
-            attributes.put(key, value);
+            attributes.set(key, value);
         }
     }
 
     public void set(String key, Long value) {
         if (value != null) {
-            attributes.put(key, value);
+            attributes.set(key, value);
         }
     }
 
     public void set(String key, Float value) {
         if (value != null) {
-            attributes.put(key, value.doubleValue());
+            attributes.set(key, value.doubleValue());
         }
     }
 
     public void set(String key, Double value) {
         if (value != null) {
-            attributes.put(key, value);
+            attributes.set(key, value);
         }
     }
 
@@ -103,55 +126,19 @@ public class ExtendedModel extends BaseModel {
     }
 
     public double getDouble(String key) {
-        if (attributes.containsKey(key)) {
-            Object value = attributes.get(key);
-            if (value instanceof Number numberValue) {
-                return numberValue.doubleValue();
-            } else {
-                return Double.parseDouble(value.toString());
-            }
-        } else {
-            return 0.0;
-        }
+        return attributes.getDouble(key, 0.0);
     }
 
     public boolean getBoolean(String key) {
-        if (attributes.containsKey(key)) {
-            Object value = attributes.get(key);
-            if (value instanceof Boolean booleanValue) {
-                return booleanValue;
-            } else {
-                return Boolean.parseBoolean(value.toString());
-            }
-        } else {
-            return false;
-        }
+        return attributes.getBoolean(key, false);
     }
 
     public int getInteger(String key) {
-        if (attributes.containsKey(key)) {
-            Object value = attributes.get(key);
-            if (value instanceof Number numberValue) {
-                return numberValue.intValue();
-            } else {
-                return Integer.parseInt(value.toString());
-            }
-        } else {
-            return 0;
-        }
+        return attributes.getInteger(key, 0);
     }
 
     public long getLong(String key) {
-        if (attributes.containsKey(key)) {
-            Object value = attributes.get(key);
-            if (value instanceof Number numberValue) {
-                return numberValue.longValue();
-            } else {
-                return Long.parseLong(value.toString());
-            }
-        } else {
-            return 0;
-        }
+        return attributes.getLong(key, 0);
     }
 
 }
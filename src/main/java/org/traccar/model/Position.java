@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.model;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -24,7 +25,7 @@ import org.traccar.storage.QueryIgnore;
 import org.traccar.storage.StorageName;
 
 @StorageName("tc_positions")
-public class Position extends Message {
+public class Position extends Message implements Modifiable {
 
     public static final String KEY_ORIGINAL = "raw";
     public static final String KEY_INDEX = "index";
@@ -150,6 +151,8 @@ public class Position extends Message {
     public static final String ALARM_TAMPERING = "tampering";
     public static final String ALARM_REMOVING = "removing";
 
+    private int modifications;
+
     public Position() {
     }
 
@@ -165,6 +168,7 @@ public class Position extends Message {
 
     public void setProtocol(String protocol) {
         this.protocol = protocol;
+        modifications += 1;
     }
 
     private Date serverTime = new Date();
@@ -175,6 +179,7 @@ public class Position extends Message {
 
     public void setServerTime(Date serverTime) {
         this.serverTime = serverTime;
+        modifications += 1;
     }
 
     private Date deviceTime;
@@ -185,6 +190,7 @@ public class Position extends Message {
 
     public void setDeviceTime(Date deviceTime) {
         this.deviceTime = deviceTime;
+        modifications += 1;
     }
 
     private Date fixTime;
@@ -195,6 +201,7 @@ public class Position extends Message {
 
     public void setFixTime(Date fixTime) {
         this.fixTime = fixTime;
+        modifications += 1;
     }
 
     @QueryIgnore
@@ -213,6 +220,7 @@ public class Position extends Message {
     @QueryIgnore
     public void setOutdated(boolean outdated) {
         this.outdated = outdated;
+        modifications += 1;
     }
 
     private boolean valid;
@@ -223,6 +231,7 @@ public class Position extends Message {
 
     public void setValid(boolean valid) {
         this.valid = valid;
+        modifications += 1;
     }
 
     private double latitude;
@@ -236,6 +245,7 @@ public class Position extends Message {
             throw new IllegalArgumentException("Latitude out of range");
         }
         this.latitude = latitude;
+        modifications += 1;
     }
 
     private double longitude;
@@ -249,6 +259,7 @@ public class Position extends Message {
             throw new IllegalArgumentException("Longitude out of range");
         }
         this.longitude = longitude;
+        modifications += 1;
     }
 
     private double altitude; // value in meters
@@ -259,6 +270,7 @@ public class Position extends Message {
 
     public void setAltitude(double altitude) {
         this.altitude = altitude;
+        modifications += 1;
     }
 
     private double speed; // value in knots
@@ -269,6 +281,7 @@ public class Position extends Message {
 
     public void setSpeed(double speed) {
         this.speed = speed;
+        modifications += 1;
     }
 
     private double course;
@@ -279,6 +292,7 @@ public class Position extends Message {
 
     public void setCourse(double course) {
         this.course = course;
+        modifications += 1;
     }
 
     private String address;
@@ -289,6 +303,7 @@ public class Position extends Message {
 
     public void setAddress(String address) {
         this.address = address;
+        modifications += 1;
     }
 
     private double accuracy;
@@ -299,6 +314,7 @@ public class Position extends Message {
 
     public void setAccuracy(double accuracy) {
         this.accuracy = accuracy;
+        modifications += 1;
     }
 
     private Network network;
@@ -309,6 +325,7 @@ public class Position extends Message {
 
     public void setNetwork(Network network) {
         this.network = network;
+        modifications += 1;
     }
 
     private List<Long> geofenceIds;
@@ -323,6 +340,36 @@ public class Position extends Message {
         } else {
             this.geofenceIds = null;
         }
+        modifications += 1;
+    }
+
+    @Override
+    public void setId(long id) {
+        super.setId(id);
+        modifications += 1;
+    }
+
+    @Override
+    public void setDeviceId(long deviceId) {
+        super.setDeviceId(deviceId);
+        modifications += 1;
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        modifications += 1;
+    }
+
+    /**
+     * Counts changes made through setters and attributes. Network and geofence lists are expected to be replaced
+     * through setters rather than modified in place.
+     */
+    @Override
+    public long modificationCount() {
+        long attributeModifications = getAttributes() instanceof Modifiable attributes
+                ? attributes.modificationCount() : 0;
+        return (long) modifications << 32 | attributeModifications & 0xffffffffL;
     }
 
     @JsonIgnore
@@ -337,6 +384,7 @@ public class Position extends Message {
     @Override
     public void setType(String type) {
         super.setType(type);
+        modifications += 1;
     }
 
 }
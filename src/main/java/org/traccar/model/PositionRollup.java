@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.model;
+
+import org.traccar.storage.StorageName;
+
+import java.util.Date;
+
+@StorageName("tc_position_rollups")
+public class PositionRollup extends BaseModel {
+
+    private long deviceId;
+
+    public long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    private Date periodStart;
+
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(Date periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    private long firstPositionId;
+
+    public long getFirstPositionId() {
+        return firstPositionId;
+    }
+
+    public void setFirstPositionId(long firstPositionId) {
+        this.firstPositionId = firstPositionId;
+    }
+
+    private long lastPositionId;
+
+    public long getLastPositionId() {
+        return lastPositionId;
+    }
+
+    public void setLastPositionId(long lastPositionId) {
+        this.lastPositionId = lastPositionId;
+    }
+
+    private int positionCount;
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public void setPositionCount(int positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    private double distance; // meters
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    private double maxSpeed; // knots
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    private double averageSpeed; // knots
+
+    public double getAverageSpeed() {
+        return averageSpeed;
+    }
+
+    public void setAverageSpeed(double averageSpeed) {
+        this.averageSpeed = averageSpeed;
+    }
+
+    private long engineHours; // milliseconds
+
+    public long getEngineHours() {
+        return engineHours;
+    }
+
+    public void setEngineHours(long engineHours) {
+        this.engineHours = engineHours;
+    }
+
+    private double spentFuel;
+
+    public double getSpentFuel() {
+        return spentFuel;
+    }
+
+    public void setSpentFuel(double spentFuel) {
+        this.spentFuel = spentFuel;
+    }
+
+}
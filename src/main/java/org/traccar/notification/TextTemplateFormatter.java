@@ -42,6 +42,9 @@ public class TextTemplateFormatter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TextTemplateFormatter.class);
 
+    private static final DateTool DATE_TOOL = new DateTool();
+    private static final NumberTool NUMBER_TOOL = new NumberTool();
+
     private final VelocityEngine velocityEngine;
     private final TokenManager tokenManager;
 
@@ -66,8 +69,8 @@ public class TextTemplateFormatter {
         }
 
         velocityContext.put("webUrl", velocityEngine.getProperty("web.url"));
-        velocityContext.put("dateTool", new DateTool());
-        velocityContext.put("numberTool", new NumberTool());
+        velocityContext.put("dateTool", DATE_TOOL);
+        velocityContext.put("numberTool", NUMBER_TOOL);
         velocityContext.put("locale", Locale.getDefault());
 
         return velocityContext;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 - 2018 Anton Tananaev (anton@traccar.org)
+ * Copyright 2014 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,16 +15,18 @@
  */
 package org.traccar.protocol;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.Protocol;
+import org.traccar.helper.BufferCharSequence;
+import org.traccar.helper.FieldScanner;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
 import org.traccar.model.Position;
 
 import java.net.SocketAddress;
-import java.util.regex.Pattern;
 
 public class FreedomProtocolDecoder extends BaseProtocolDecoder {
 
@@ -32,7 +34,7 @@ public class FreedomProtocolDecoder extends BaseProtocolDecoder {
         super(protocol);
     }
 
-    private static final Pattern PATTERN = new PatternBuilder()
+    private static final FieldScanner PATTERN = new PatternBuilder()
             .text("IMEI,")
             .number("(d+),")                     // imei
             .number("(dddd)/(dd)/(dd), ")        // date (yyyy/dd/mm)
@@ -43,13 +45,14 @@ public class FreedomProtocolDecoder extends BaseProtocolDecoder {
             .number("Lon:(ddd)(d+.d+), ")        // longitude
             .text("Spd:").number("(d+.d+)")      // speed
             .any()
-            .compile();
+            .compileScanner();
 
     @Override
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        Parser parser = new Parser(PATTERN, (String) msg);
+        CharSequence sentence = msg instanceof ByteBuf buf ? new BufferCharSequence(buf) : (String) msg;
+        Parser parser = new Parser(PATTERN, sentence);
         if (!parser.matches()) {
             return null;
         }
@@ -24,6 +24,7 @@ import org.traccar.Protocol;
 import org.traccar.config.Keys;
 import org.traccar.helper.BitUtil;
 import org.traccar.helper.DataConverter;
+import org.traccar.helper.FieldScanner;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
 import org.traccar.helper.UnitsConverter;
@@ -172,7 +173,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return null;
     }
 
-    private static final Pattern PATTERN_INF = new PatternBuilder()
+    private static final FieldScanner PATTERN_INF = new PatternBuilder()
             .text("+").expression("(?:RESP|BUFF):GTINF,")
             .expression("(.{6}|.{10})?,")        // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -212,7 +213,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .number("(dd)(dd)(dd),")             // time (hhmmss)
             .number("(xxxx)")                    // counter
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeInf(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_INF, sentence);
@@ -284,7 +285,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_VER = new PatternBuilder()
+    private static final FieldScanner PATTERN_VER = new PatternBuilder()
             .text("+").expression("(?:RESP|BUFF):GTVER,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -296,7 +297,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .number("(dd)(dd)(dd),")             // time (hhmmss)
             .number("(xxxx)")                    // counter
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeVer(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_VER, sentence);
@@ -318,7 +319,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         parser.skip(20);
     }
 
-    private static final Pattern PATTERN_LOCATION = new PatternBuilder()
+    private static final FieldScanner PATTERN_LOCATION = new PatternBuilder()
             .number("(d{1,2}.?d?)?,")            // hdop
             .number("(d{1,3}.d)?,")              // speed
             .number("(d{1,3}.?d?)?,")            // course
@@ -342,7 +343,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .number("(x+)?,")                    // cid
             .groupEnd()
             .number("(?:d+|(d+.d))?,")           // rssi / odometer
-            .compile();
+            .compileScanner();
 
     private void decodeLocation(Position position, Parser parser) {
         Double hdop = parser.nextDouble();
@@ -446,7 +447,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return index;
     }
 
-    private static final Pattern PATTERN_OBD = new PatternBuilder()
+    private static final FieldScanner PATTERN_OBD = new PatternBuilder()
             .text("+RESP:GTOBD,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -479,7 +480,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeObd(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_OBD, sentence);
@@ -803,7 +804,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         position.set(Position.PREFIX_OUT + 2, BitUtil.check(output, 1));
     }
 
-    private static final Pattern PATTERN_FRI = new PatternBuilder()
+    private static final FieldScanner PATTERN_FRI = new PatternBuilder()
             .text("+").expression("(?:RESP|BUFF):GT...,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -847,7 +848,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeFri(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_FRI, sentence);
@@ -1059,7 +1060,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_LSW = new PatternBuilder()
+    private static final FieldScanner PATTERN_LSW = new PatternBuilder()
             .text("+RESP:").expression("GT[LT]SW,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1072,7 +1073,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeLsw(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_LSW, sentence);
@@ -1090,7 +1091,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_IDA = new PatternBuilder()
+    private static final FieldScanner PATTERN_IDA = new PatternBuilder()
             .text("+RESP:GTIDA,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1106,7 +1107,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeIda(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_IDA, sentence);
@@ -1126,7 +1127,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_WIF = new PatternBuilder()
+    private static final FieldScanner PATTERN_WIF = new PatternBuilder()
             .text("+RESP:GTWIF,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1139,7 +1140,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeWif(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_WIF, sentence);
@@ -1167,7 +1168,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_GSM = new PatternBuilder()
+    private static final FieldScanner PATTERN_GSM = new PatternBuilder()
             .text("+RESP:GTGSM,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1178,7 +1179,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeGsm(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_GSM, sentence);
@@ -1206,7 +1207,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_PNA = new PatternBuilder()
+    private static final FieldScanner PATTERN_PNA = new PatternBuilder()
             .text("+RESP:GT").expression("P[NF]A,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1216,7 +1217,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodePna(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_PNA, sentence);
@@ -1232,7 +1233,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_DAR = new PatternBuilder()
+    private static final FieldScanner PATTERN_DAR = new PatternBuilder()
             .text("+RESP:GTDAR,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1246,7 +1247,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeDar(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_DAR, sentence);
@@ -1271,7 +1272,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_DTT = new PatternBuilder()
+    private static final FieldScanner PATTERN_DTT = new PatternBuilder()
             .text("+RESP:GTDTT,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1284,7 +1285,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeDtt(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_DTT, sentence);
@@ -1308,7 +1309,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_BAA = new PatternBuilder()
+    private static final FieldScanner PATTERN_BAA = new PatternBuilder()
             .text("+RESP:GTBAA,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1326,7 +1327,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeBaa(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_BAA, sentence);
@@ -1364,7 +1365,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_BID = new PatternBuilder()
+    private static final FieldScanner PATTERN_BID = new PatternBuilder()
             .text("+RESP:GTBID,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1380,7 +1381,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeBid(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_BID, sentence);
@@ -1406,7 +1407,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_LSA = new PatternBuilder()
+    private static final FieldScanner PATTERN_LSA = new PatternBuilder()
             .text("+RESP:GTLSA,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1426,7 +1427,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeLsa(Channel channel, SocketAddress remoteAddress, String sentence) {
         Parser parser = new Parser(PATTERN_LSA, sentence);
@@ -1446,7 +1447,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN = new PatternBuilder()
+    private static final FieldScanner PATTERN = new PatternBuilder()
             .text("+").expression("(?:RESP|BUFF):GT...,")
             .expression("(?:.{6}|.{10})?,")      // protocol version
             .number("(d{15}|x{14}),")            // imei
@@ -1467,7 +1468,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeOther(Channel channel, SocketAddress remoteAddress, String sentence, String type) {
         Parser parser = new Parser(PATTERN, sentence);
@@ -1509,7 +1510,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private static final Pattern PATTERN_BASIC = new PatternBuilder()
+    private static final FieldScanner PATTERN_BASIC = new PatternBuilder()
             .text("+").expression("(?:RESP|BUFF)").text(":")
             .expression("GT...,")
             .expression("[^,]+,").optional()     // protocol version
@@ -1539,7 +1540,7 @@ public class Gl200TextProtocolDecoder extends BaseProtocolDecoder {
             .text(",")
             .number("(xxxx)")                    // count number
             .text("$").optional()
-            .compile();
+            .compileScanner();
 
     private Object decodeBasic(Channel channel, SocketAddress remoteAddress, String sentence, String type) {
         Parser parser = new Parser(PATTERN_BASIC, sentence);
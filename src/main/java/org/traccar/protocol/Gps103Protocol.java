@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2019 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package org.traccar.protocol;
 
-import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import org.traccar.BaseProtocol;
 import org.traccar.CharacterDelimiterFrameDecoder;
@@ -45,7 +44,6 @@ public class Gps103Protocol extends BaseProtocol {
             protected void addProtocolHandlers(PipelineBuilder pipeline, Config config) {
                 pipeline.addLast(new CharacterDelimiterFrameDecoder(2048, false, "\r\n", "\n", ";", "*"));
                 pipeline.addLast(new StringEncoder());
-                pipeline.addLast(new StringDecoder());
                 pipeline.addLast(new Gps103ProtocolEncoder(Gps103Protocol.this));
                 pipeline.addLast(new Gps103ProtocolDecoder(Gps103Protocol.this));
             }
@@ -54,7 +52,6 @@ public class Gps103Protocol extends BaseProtocol {
             @Override
             protected void addProtocolHandlers(PipelineBuilder pipeline, Config config) {
                 pipeline.addLast(new StringEncoder());
-                pipeline.addLast(new StringDecoder());
                 pipeline.addLast(new Gps103ProtocolEncoder(Gps103Protocol.this));
                 pipeline.addLast(new Gps103ProtocolDecoder(Gps103Protocol.this));
             }
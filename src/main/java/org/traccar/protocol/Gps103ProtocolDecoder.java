@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2021 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,15 @@ package org.traccar.protocol;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.util.AsciiString;
 import org.traccar.BaseProtocolDecoder;
 import org.traccar.session.DeviceSession;
 import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
+import org.traccar.helper.BufferCharSequence;
 import org.traccar.helper.DataConverter;
 import org.traccar.helper.DateBuilder;
+import org.traccar.helper.FieldScanner;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
 import org.traccar.helper.UnitsConverter;
@@ -44,7 +47,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         super(protocol);
     }
 
-    private static final Pattern PATTERN = new PatternBuilder()
+    private static final FieldScanner PATTERN = new PatternBuilder()
             .text("imei:")
             .number("(d+),")                     // imei
             .expression("([^,]+),")              // alarm
@@ -89,9 +92,9 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
             .number(",([-+]?d+)?").optional()    // temperature
             .groupEnd()
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_OBD = new PatternBuilder()
+    private static final FieldScanner PATTERN_OBD = new PatternBuilder()
             .text("imei:")
             .number("(d+),")                     // imei
             .expression("OBD,")                  // type
@@ -109,9 +112,9 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
             .number("(d+.d+),")                  // battery
             .number("([^;]*)")                   // dtcs
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_ALT = new PatternBuilder()
+    private static final FieldScanner PATTERN_ALT = new PatternBuilder()
             .text("imei:")
             .number("(d+),")                     // imei
             .expression("[^,]+,")
@@ -133,7 +136,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
             .number("([01]),")                   // charge
             .expression("(?:-+|(.+))")           // error
             .any()
-            .compile();
+            .compileScanner();
 
     private String decodeAlarm(String value) {
         if (value.startsWith("T:")) {
@@ -158,7 +161,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         };
     }
 
-    private Position decodeRegular(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeRegular(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN, sentence);
         if (!parser.matches()) {
@@ -258,7 +261,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
         return position;
     }
 
-    private Position decodeObd(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeObd(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_OBD, sentence);
         if (!parser.matches()) {
@@ -293,7 +296,7 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
     }
 
 
-    private Position decodeAlternative(Channel channel, SocketAddress remoteAddress, String sentence) {
+    private Position decodeAlternative(Channel channel, SocketAddress remoteAddress, CharSequence sentence) {
 
         Parser parser = new Parser(PATTERN_ALT, sentence);
         if (!parser.matches()) {
@@ -369,9 +372,9 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = (String) msg;
+        CharSequence sentence = msg instanceof ByteBuf buf ? new BufferCharSequence(buf) : (String) msg;
 
-        if (sentence.contains("imei:") && sentence.length() <= 30) {
+        if (AsciiString.contains(sentence, "imei:") && sentence.length() <= 30) {
             if (channel != null) {
                 channel.writeAndFlush(new NetworkMessage("LOAD", remoteAddress));
                 Matcher matcher = Pattern.compile("imei:(\\d+),").matcher(sentence);
@@ -382,23 +385,24 @@ public class Gps103ProtocolDecoder extends BaseProtocolDecoder {
             return null;
         }
 
-        if (!sentence.isEmpty() && Character.isDigit(sentence.charAt(0))) {
+        if (sentence.length() > 0 && Character.isDigit(sentence.charAt(0))) {
             if (channel != null) {
                 channel.writeAndFlush(new NetworkMessage("ON", remoteAddress));
             }
-            int start = sentence.indexOf("imei:");
+            String value = sentence.toString();
+            int start = value.indexOf("imei:");
             if (start >= 0) {
-                sentence = sentence.substring(start);
+                sentence = value.substring(start);
             } else {
                 return null;
             }
         }
 
-        if (sentence.startsWith("vr", 21)) {
-            return decodePhoto(channel, remoteAddress, sentence);
-        } else if (sentence.substring(21, 21 + 3).contains("OBD")) {
+        if (AsciiString.regionMatches(sentence, false, 21, "vr", 0, 2)) {
+            return decodePhoto(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence.subSequence(21, 21 + 3), "OBD")) {
             return decodeObd(channel, remoteAddress, sentence);
-        } else if (sentence.endsWith("*")) {
+        } else if (sentence.length() > 0 && sentence.charAt(sentence.length() - 1) == '*') {
             return decodeAlternative(channel, remoteAddress, sentence);
         } else {
             return decodeRegular(channel, remoteAddress, sentence);
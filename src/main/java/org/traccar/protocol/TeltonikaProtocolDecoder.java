@@ -41,6 +41,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
@@ -48,6 +49,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
     private static final int IMAGE_PACKET_MAX = 2048;
 
     private static final Map<Integer, Map<Set<String>, BiConsumer<Position, ByteBuf>>> PARAMETERS = new HashMap<>();
+    private static final Map<String, BiConsumer<Position, ByteBuf>[]> PARAMETER_TABLES = new ConcurrentHashMap<>();
 
     private final boolean connectionless;
     private boolean extended;
@@ -308,20 +310,33 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         }
     }
 
-    private void decodeParameter(Position position, int id, ByteBuf buf, int length, int codec, String model) {
+    /**
+     * Returns parameter handlers for the model, indexed by IO id. Tables are built once per model.
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Position, ByteBuf>[] getParameterTable(String model) {
+        return PARAMETER_TABLES.computeIfAbsent(model != null ? model : "", key -> {
+            int size = PARAMETERS.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+            BiConsumer<Position, ByteBuf>[] table = (BiConsumer<Position, ByteBuf>[]) new BiConsumer<?, ?>[size];
+            PARAMETERS.forEach((id, handlers) -> handlers.forEach((models, handler) -> {
+                if (models == null || models.contains(key)) {
+                    table[id] = handler;
+                }
+            }));
+            return table;
+        });
+    }
+
+    private void decodeParameter(
+            Position position, int id, ByteBuf buf, int length, int codec,
+            BiConsumer<Position, ByteBuf>[] parameters) {
         if (codec == CODEC_GH3000) {
             decodeGh3000Parameter(position, id, buf, length);
         } else {
-            int index = buf.readerIndex();
-            boolean decoded = false;
-            for (var entry : PARAMETERS.getOrDefault(id, new HashMap<>()).entrySet()) {
-                if (entry.getKey() == null || model != null && entry.getKey().contains(model)) {
-                    entry.getValue().accept(position, buf);
-                    decoded = true;
-                    break;
-                }
-            }
-            if (decoded) {
+            BiConsumer<Position, ByteBuf> handler = id < parameters.length ? parameters[id] : null;
+            if (handler != null) {
+                int index = buf.readerIndex();
+                handler.accept(position, buf);
                 buf.readerIndex(index + length);
             } else {
                 position.set(Position.PREFIX_IO + id, readValue(buf, length));
@@ -393,6 +408,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
     private void decodeLocation(Position position, ByteBuf buf, int codec, String model) {
 
         int globalMask = 0x0f;
+        var parameters = getParameterTable(model);
 
         if (codec == CODEC_GH3000) {
 
@@ -487,7 +503,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 1)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 1, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 1, codec, parameters);
             }
         }
 
@@ -495,7 +511,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 2)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 2, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 2, codec, parameters);
             }
         }
 
@@ -503,7 +519,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (BitUtil.check(globalMask, 3)) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 4, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 4, codec, parameters);
             }
         }
 
@@ -511,7 +527,7 @@ public class TeltonikaProtocolDecoder extends BaseProtocolDecoder {
         if (codec == CODEC_8 || codec == CODEC_8_EXT || codec == CODEC_16) {
             int cnt = readExtByte(buf, codec, CODEC_8_EXT);
             for (int j = 0; j < cnt; j++) {
-                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 8, codec, model);
+                decodeParameter(position, readExtByte(buf, codec, CODEC_8_EXT, CODEC_16), buf, 8, codec, parameters);
             }
         }
 
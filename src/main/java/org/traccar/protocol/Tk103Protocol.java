@@ -1,6 +1,6 @@
 /*
  * Copyright 2017 Christoph Krey (c@ckrey.de)
- * Copyright 2015 - 2019 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,6 @@
  */
 package org.traccar.protocol;
 
-import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import org.traccar.BaseProtocol;
 import org.traccar.PipelineBuilder;
@@ -53,7 +52,6 @@ public class Tk103Protocol extends BaseProtocol {
             @Override
             protected void addProtocolHandlers(PipelineBuilder pipeline, Config config) {
                 pipeline.addLast(new Tk103FrameDecoder());
-                pipeline.addLast(new StringDecoder());
                 pipeline.addLast(new StringEncoder());
                 pipeline.addLast(new Tk103ProtocolEncoder(Tk103Protocol.this));
                 pipeline.addLast(new Tk103ProtocolDecoder(Tk103Protocol.this));
@@ -62,7 +60,6 @@ public class Tk103Protocol extends BaseProtocol {
         addServer(new TrackerServer(config, getName(), true) {
             @Override
             protected void addProtocolHandlers(PipelineBuilder pipeline, Config config) {
-                pipeline.addLast(new StringDecoder());
                 pipeline.addLast(new StringEncoder());
                 pipeline.addLast(new Tk103ProtocolEncoder(Tk103Protocol.this));
                 pipeline.addLast(new Tk103ProtocolDecoder(Tk103Protocol.this));
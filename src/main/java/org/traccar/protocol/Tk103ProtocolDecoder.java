@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.traccar.protocol;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.util.AsciiString;
 import org.traccar.BaseProtocolDecoder;
 import org.traccar.helper.DataConverter;
 import org.traccar.session.DeviceSession;
@@ -25,7 +26,9 @@ import org.traccar.NetworkMessage;
 import org.traccar.Protocol;
 import org.traccar.config.Keys;
 import org.traccar.helper.BitUtil;
+import org.traccar.helper.BufferCharSequence;
 import org.traccar.helper.DateBuilder;
+import org.traccar.helper.FieldScanner;
 import org.traccar.helper.Parser;
 import org.traccar.helper.PatternBuilder;
 import org.traccar.model.CellTower;
@@ -34,7 +37,6 @@ import org.traccar.model.Position;
 import org.traccar.model.WifiAccessPoint;
 
 import java.net.SocketAddress;
-import java.util.regex.Pattern;
 
 public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
 
@@ -49,7 +51,7 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
         decodeLow = getConfig().getBoolean(Keys.PROTOCOL_DECODE_LOW.withPrefix(getProtocolName()));
     }
 
-    private static final Pattern PATTERN = new PatternBuilder()
+    private static final FieldScanner PATTERN = new PatternBuilder()
             .text("(").optional()
             .groupBegin()
             .expression("(.{12})")               // device id
@@ -87,9 +89,9 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .any()
             .number("([+-]ddd.d)?")              // temperature
             .text(")").optional()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_BATTERY = new PatternBuilder()
+    private static final FieldScanner PATTERN_BATTERY = new PatternBuilder()
             .text("(").optional()
             .number("(d+),")                     // device id
             .text("ZC20,")
@@ -100,9 +102,9 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .number("(d+),")                     // power voltage
             .number("d+")                        // installed
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_CELL = new PatternBuilder()
+    private static final FieldScanner PATTERN_CELL = new PatternBuilder()
             .text("(")
             .number("(d{12})")                   // device id
             .expression(".{4}")                  // type
@@ -110,9 +112,9 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .expression("(.+),")                 // cell
             .number("(d{8})")                    // odometer
             .text(")")
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_NETWORK = new PatternBuilder()
+    private static final FieldScanner PATTERN_NETWORK = new PatternBuilder()
             .text("(").optional()
             .number("(d{12})")                   // device id
             .text("BZ00,")
@@ -121,9 +123,9 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .number("(x+),")                     // lac
             .number("(x+),")                     // cid
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_LBSWIFI = new PatternBuilder()
+    private static final FieldScanner PATTERN_LBSWIFI = new PatternBuilder()
             .text("(").optional()
             .number("(d+),")                     // device id
             .expression("(.{4}),")               // command
@@ -136,9 +138,9 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .number("(dd)(dd)(dd),")             // date (ddmmyy)
             .number("(dd)(dd)(dd)")              // time (hhmmss)
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_COMMAND_RESULT = new PatternBuilder()
+    private static final FieldScanner PATTERN_COMMAND_RESULT = new PatternBuilder()
             .text("(").optional()
             .number("(d+),")                     // device id
             .expression(".{4},")                 // command
@@ -146,15 +148,15 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             .number("(dd)(dd)(dd),")             // time (hhmmss)
             .expression("\\$([\\s\\S]*?)(?:\\$|$)") // message
             .any()
-            .compile();
+            .compileScanner();
 
-    private static final Pattern PATTERN_VIN = new PatternBuilder()
+    private static final FieldScanner PATTERN_VIN = new PatternBuilder()
             .text("(")
             .number("(d+)")                      // device id
             .expression("BV00")                  // command
             .expression("(.{17})")               // vin
             .text(")")
-            .compile();
+            .compileScanner();
 
     private String decodeAlarm(int value) {
         return switch (value) {
@@ -482,11 +484,11 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
     protected Object decode(
             Channel channel, SocketAddress remoteAddress, Object msg) throws Exception {
 
-        String sentence = (String) msg;
+        CharSequence sentence = msg instanceof ByteBuf buf ? new BufferCharSequence(buf) : (String) msg;
 
         if (channel != null) {
-            String id = sentence.substring(1, 13);
-            String type = sentence.substring(13, 17);
+            String id = sentence.subSequence(1, 13).toString();
+            String type = sentence.subSequence(13, 17).toString();
             if (type.equals("BP00")) {
                 channel.writeAndFlush(new NetworkMessage("(" + id + "AP01HSO)", remoteAddress));
                 return null;
@@ -495,20 +497,20 @@ public class Tk103ProtocolDecoder extends BaseProtocolDecoder {
             }
         }
 
-        if (sentence.indexOf('{') > 0 && sentence.indexOf('}') > 0) {
-            return decodeCell(channel, remoteAddress, sentence);
-        } else if (sentence.contains("ZC20")) {
-            return decodeBattery(channel, remoteAddress, sentence);
-        } else if (sentence.contains("BZ00")) {
-            return decodeNetwork(channel, remoteAddress, sentence);
-        } else if (sentence.contains("ZC03")) {
-            return decodeCommandResult(channel, remoteAddress, sentence);
-        } else if (sentence.contains("DW5")) {
-            return decodeLbsWifi(channel, remoteAddress, sentence);
-        } else if (sentence.contains("BV00")) {
-            return decodeVin(channel, remoteAddress, sentence);
-        } else if (sentence.contains("BS50") || sentence.contains("BS51")) {
-            return decodeBms(channel, remoteAddress, sentence);
+        if (AsciiString.indexOf(sentence, '{', 0) > 0 && AsciiString.indexOf(sentence, '}', 0) > 0) {
+            return decodeCell(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "ZC20")) {
+            return decodeBattery(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "BZ00")) {
+            return decodeNetwork(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "ZC03")) {
+            return decodeCommandResult(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "DW5")) {
+            return decodeLbsWifi(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "BV00")) {
+            return decodeVin(channel, remoteAddress, sentence.toString());
+        } else if (AsciiString.contains(sentence, "BS50") || AsciiString.contains(sentence, "BS51")) {
+            return decodeBms(channel, remoteAddress, sentence.toString());
         }
 
         Parser parser = new Parser(PATTERN, sentence);
@@ -20,12 +20,16 @@ import org.apache.poi.ss.util.WorkbookUtil;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.model.DeviceUtil;
+import org.traccar.helper.model.PositionUtil;
+import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.Geofence;
 import org.traccar.model.Group;
 import org.traccar.model.Maintenance;
 import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.reports.common.ReportTaskExecutor;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.storage.Storage;
@@ -46,29 +50,56 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class EventsReportProvider {
 
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final ReportTaskExecutor reportTaskExecutor;
 
     @Inject
-    public EventsReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public EventsReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, ReportTaskExecutor reportTaskExecutor) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.reportTaskExecutor = reportTaskExecutor;
     }
 
-    private List<Event> getEvents(long deviceId, Date from, Date to) throws StorageException {
-        return storage.getObjects(Event.class, new Request(
-                new Columns.All(),
-                new Condition.And(
-                        new Condition.Equals("deviceId", deviceId),
-                        new Condition.Between("eventTime", "from", from, "to", to)),
-                new Order("eventTime")));
+    private Map<Long, String> getNames(long userId, Class<? extends BaseModel> clazz) throws StorageException {
+        var objects = storage.getObjects(clazz, new Request(
+                new Columns.Include("id", "name"),
+                new Condition.Permission(User.class, userId, clazz)));
+        Map<Long, String> result = new HashMap<>();
+        for (BaseModel object : objects) {
+            if (object instanceof Geofence geofence) {
+                result.put(geofence.getId(), geofence.getName());
+            } else if (object instanceof Maintenance maintenance) {
+                result.put(maintenance.getId(), maintenance.getName());
+            }
+        }
+        return result;
+    }
+
+    private List<Event> getEvents(
+            long deviceId, Collection<String> types, Date from, Date to,
+            Map<Long, String> geofenceNames, Map<Long, String> maintenanceNames) throws StorageException {
+        Condition condition = new Condition.And(
+                new Condition.Equals("deviceId", deviceId),
+                new Condition.Between("eventTime", "from", from, "to", to));
+        if (!types.isEmpty() && !types.contains(Event.ALL_EVENTS)) {
+            condition = new Condition.And(condition, new Condition.In("type", types));
+        }
+        var events = storage.getObjects(Event.class, new Request(new Columns.All(), condition, new Order("eventTime")));
+        return events.stream()
+                .filter(event -> event.getGeofenceId() == 0 || geofenceNames.containsKey(event.getGeofenceId()))
+                .filter(event -> event.getMaintenanceId() == 0
+                        || maintenanceNames.containsKey(event.getMaintenanceId()))
+                .collect(Collectors.toList());
     }
 
     public Collection<Event> getObjects(
@@ -76,21 +107,14 @@ public class EventsReportProvider {
             Collection<String> types, Date from, Date to) throws StorageException {
         reportUtils.checkPeriodLimit(from, to);
 
+        var geofenceNames = getNames(userId, Geofence.class);
+        var maintenanceNames = getNames(userId, Maintenance.class);
+
         ArrayList<Event> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            Collection<Event> events = getEvents(device.getId(), from, to);
-            boolean all = types.isEmpty() || types.contains(Event.ALL_EVENTS);
-            for (Event event : events) {
-                if (all || types.contains(event.getType())) {
-                    long geofenceId = event.getGeofenceId();
-                    long maintenanceId = event.getMaintenanceId();
-                    if ((geofenceId == 0 || reportUtils.getObject(userId, Geofence.class, geofenceId) != null)
-                            && (maintenanceId == 0
-                            || reportUtils.getObject(userId, Maintenance.class, maintenanceId) != null)) {
-                       result.add(event);
-                    }
-                }
-            }
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        for (var events : reportTaskExecutor.execute(userId, devices,
+                device -> getEvents(device.getId(), types, from, to, geofenceNames, maintenanceNames))) {
+            result.addAll(events);
         }
         return result;
     }
@@ -100,46 +124,20 @@ public class EventsReportProvider {
             Collection<String> types, Date from, Date to) throws StorageException, IOException {
         reportUtils.checkPeriodLimit(from, to);
 
+        var geofenceNames = getNames(userId, Geofence.class);
+        var maintenanceNames = getNames(userId, Maintenance.class);
+
         ArrayList<DeviceReportSection> devicesEvents = new ArrayList<>();
         ArrayList<String> sheetNames = new ArrayList<>();
-        HashMap<Long, String> geofenceNames = new HashMap<>();
-        HashMap<Long, String> maintenanceNames = new HashMap<>();
-        HashMap<Long, Position> positions = new HashMap<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            Collection<Event> events = getEvents(device.getId(), from, to);
-            boolean all = types.isEmpty() || types.contains(Event.ALL_EVENTS);
-            for (Iterator<Event> iterator = events.iterator(); iterator.hasNext();) {
-                Event event = iterator.next();
-                if (all || types.contains(event.getType())) {
-                    long geofenceId = event.getGeofenceId();
-                    long maintenanceId = event.getMaintenanceId();
-                    if (geofenceId != 0) {
-                        Geofence geofence = reportUtils.getObject(userId, Geofence.class, geofenceId);
-                        if (geofence != null) {
-                            geofenceNames.put(geofenceId, geofence.getName());
-                        } else {
-                            iterator.remove();
-                        }
-                    } else if (maintenanceId != 0) {
-                        Maintenance maintenance = reportUtils.getObject(userId, Maintenance.class, maintenanceId);
-                        if (maintenance != null) {
-                            maintenanceNames.put(maintenanceId, maintenance.getName());
-                        } else {
-                            iterator.remove();
-                        }
-                    }
-                } else {
-                    iterator.remove();
-                }
-            }
-            for (Event event : events) {
-                long positionId = event.getPositionId();
-                if (positionId > 0) {
-                    Position position = storage.getObject(Position.class, new Request(
-                            new Columns.All(), new Condition.Equals("id", positionId)));
-                    positions.put(positionId, position);
-                }
-            }
+        Map<Long, Position> positions = new HashMap<>();
+        var devices = new ArrayList<>(DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds));
+        var devicesEventsList = reportTaskExecutor.execute(userId, devices,
+                device -> getEvents(device.getId(), types, from, to, geofenceNames, maintenanceNames));
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            Collection<Event> events = devicesEventsList.get(i);
+            positions.putAll(PositionUtil.getPositions(
+                    storage, events.stream().map(Event::getPositionId).collect(Collectors.toList())));
             DeviceReportSection deviceEvents = new DeviceReportSection();
             deviceEvents.setDeviceName(device.getName());
             sheetNames.add(WorkbookUtil.createSafeSheetName(deviceEvents.getDeviceName()));
@@ -21,9 +21,9 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.model.DeviceUtil;
 import org.traccar.helper.model.PositionUtil;
-import org.traccar.model.Device;
 import org.traccar.model.Group;
 import org.traccar.model.Position;
+import org.traccar.reports.common.ReportTaskExecutor;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.storage.Storage;
@@ -50,14 +50,17 @@ public class RouteReportProvider {
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final ReportTaskExecutor reportTaskExecutor;
 
     private final Map<String, Integer> namesCount = new HashMap<>();
 
     @Inject
-    public RouteReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public RouteReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, ReportTaskExecutor reportTaskExecutor) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.reportTaskExecutor = reportTaskExecutor;
     }
 
     public Collection<Position> getObjects(long userId, Collection<Long> deviceIds, Collection<Long> groupIds,
@@ -65,8 +68,10 @@ public class RouteReportProvider {
         reportUtils.checkPeriodLimit(from, to);
 
         ArrayList<Position> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            result.addAll(PositionUtil.getPositions(storage, device.getId(), from, to));
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        for (var positions : reportTaskExecutor.execute(userId, devices,
+                device -> PositionUtil.getPositions(storage, device.getId(), from, to))) {
+            result.addAll(positions);
         }
         return result;
     }
@@ -84,11 +89,11 @@ public class RouteReportProvider {
 
         ArrayList<DeviceReportSection> devicesRoutes = new ArrayList<>();
         ArrayList<String> sheetNames = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        devicesRoutes.addAll(reportTaskExecutor.execute(userId, devices, device -> {
             var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
             DeviceReportSection deviceRoutes = new DeviceReportSection();
             deviceRoutes.setDeviceName(device.getName());
-            sheetNames.add(WorkbookUtil.createSafeSheetName(getUniqueSheetName(deviceRoutes.getDeviceName())));
             if (device.getGroupId() > 0) {
                 Group group = storage.getObject(Group.class, new Request(
                         new Columns.All(), new Condition.Equals("id", device.getGroupId())));
@@ -97,7 +102,10 @@ public class RouteReportProvider {
                 }
             }
             deviceRoutes.setObjects(positions);
-            devicesRoutes.add(deviceRoutes);
+            return deviceRoutes;
+        }));
+        for (DeviceReportSection section : devicesRoutes) {
+            sheetNames.add(WorkbookUtil.createSafeSheetName(getUniqueSheetName(section.getDeviceName())));
         }
 
         File file = Paths.get(config.getString(Keys.TEMPLATES_ROOT), "export", "route.xlsx").toFile();
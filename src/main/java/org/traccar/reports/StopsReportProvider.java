@@ -20,8 +20,8 @@ import org.apache.poi.ss.util.WorkbookUtil;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.model.DeviceUtil;
-import org.traccar.model.Device;
 import org.traccar.model.Group;
+import org.traccar.reports.common.ReportTaskExecutor;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.reports.model.StopReportItem;
@@ -47,12 +47,15 @@ public class StopsReportProvider {
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final ReportTaskExecutor reportTaskExecutor;
 
     @Inject
-    public StopsReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public StopsReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, ReportTaskExecutor reportTaskExecutor) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.reportTaskExecutor = reportTaskExecutor;
     }
 
     public Collection<StopReportItem> getObjects(
@@ -61,8 +64,10 @@ public class StopsReportProvider {
         reportUtils.checkPeriodLimit(from, to);
 
         ArrayList<StopReportItem> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            result.addAll(reportUtils.detectTripsAndStops(device, from, to, StopReportItem.class));
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        for (var items : reportTaskExecutor.execute(userId, devices,
+                device -> reportUtils.detectTripsAndStops(device, from, to, StopReportItem.class))) {
+            result.addAll(items);
         }
         return result;
     }
@@ -74,11 +79,11 @@ public class StopsReportProvider {
 
         ArrayList<DeviceReportSection> devicesStops = new ArrayList<>();
         ArrayList<String> sheetNames = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        devicesStops.addAll(reportTaskExecutor.execute(userId, devices, device -> {
             Collection<StopReportItem> stops = reportUtils.detectTripsAndStops(device, from, to, StopReportItem.class);
             DeviceReportSection deviceStops = new DeviceReportSection();
             deviceStops.setDeviceName(device.getName());
-            sheetNames.add(WorkbookUtil.createSafeSheetName(deviceStops.getDeviceName()));
             if (device.getGroupId() > 0) {
                 Group group = storage.getObject(Group.class, new Request(
                         new Columns.All(), new Condition.Equals("id", device.getGroupId())));
@@ -87,7 +92,10 @@ public class StopsReportProvider {
                 }
             }
             deviceStops.setObjects(stops);
-            devicesStops.add(deviceStops);
+            return deviceStops;
+        }));
+        for (DeviceReportSection section : devicesStops) {
+            sheetNames.add(WorkbookUtil.createSafeSheetName(section.getDeviceName()));
         }
 
         File file = Paths.get(config.getString(Keys.TEMPLATES_ROOT), "export", "stops.xlsx").toFile();
@@ -26,8 +26,11 @@ import org.traccar.helper.model.PositionUtil;
 import org.traccar.helper.model.UserUtil;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
+import org.traccar.model.PositionRollup;
+import org.traccar.reports.common.ReportTaskExecutor;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.SummaryReportItem;
+import org.traccar.schedule.TaskPositionRollups;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -56,14 +59,19 @@ public class SummaryReportProvider {
     private final ReportUtils reportUtils;
     private final PermissionsService permissionsService;
     private final Storage storage;
+    private final ReportTaskExecutor reportTaskExecutor;
+    private final boolean rollups;
 
     @Inject
     public SummaryReportProvider(
-            Config config, ReportUtils reportUtils, PermissionsService permissionsService, Storage storage) {
+            Config config, ReportUtils reportUtils, PermissionsService permissionsService, Storage storage,
+            ReportTaskExecutor reportTaskExecutor) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.permissionsService = permissionsService;
         this.storage = storage;
+        this.reportTaskExecutor = reportTaskExecutor;
+        rollups = config.getBoolean(Keys.REPORT_ROLLUPS);
     }
 
     private Position getEdgePosition(long deviceId, Date from, Date to, boolean end) throws StorageException {
@@ -75,6 +83,55 @@ public class SummaryReportProvider {
                 new Order("fixTime", end, 1)));
     }
 
+    private Position addPositions(
+            PositionRollup result, Position previous, long deviceId, Date from, Date to) throws StorageException {
+        for (Position position : PositionUtil.getPositions(storage, deviceId, from, to)) {
+            reportUtils.addRollupPosition(result, previous, position);
+            previous = position;
+        }
+        return previous;
+    }
+
+    private PositionRollup calculateRollup(long deviceId, Date from, Date to) throws StorageException {
+        long period = TaskPositionRollups.PERIOD;
+        // First period is always read from positions, so that no value is calculated from a position before the range
+        long rollupFrom = TaskPositionRollups.truncate(from.getTime()) + period;
+        long rollupTo = TaskPositionRollups.truncate(to.getTime());
+
+        PositionRollup latest = TaskPositionRollups.getLatestRollup(storage, deviceId);
+        rollupTo = latest != null ? Math.min(rollupTo, latest.getPeriodStart().getTime() + period) : rollupFrom;
+
+        PositionRollup result = new PositionRollup();
+        if (rollupFrom >= rollupTo) {
+            addPositions(result, null, deviceId, from, to);
+            return result;
+        }
+
+        Position previous = addPositions(result, null, deviceId, from, new Date(rollupFrom - 1));
+        var rollups = storage.getObjects(PositionRollup.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Between(
+                                "periodStart", "from", new Date(rollupFrom), "to", new Date(rollupTo - 1))),
+                new Order("periodStart")));
+        for (PositionRollup rollup : rollups) {
+            if (previous == null) {
+                long periodStart = rollup.getPeriodStart().getTime();
+                previous = addPositions(
+                        result, null, deviceId, new Date(periodStart), new Date(periodStart + period - 1));
+            } else {
+                reportUtils.mergeRollup(result, rollup);
+            }
+        }
+        if (previous != null && result.getLastPositionId() != previous.getId()) {
+            previous = storage.getObject(Position.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", result.getLastPositionId())));
+        }
+        addPositions(result, previous, deviceId, new Date(rollupTo), to);
+        return result;
+    }
+
     private Collection<SummaryReportItem> calculateDeviceResult(
             Device device, Date from, Date to, boolean fast) throws StorageException {
 
@@ -84,9 +141,14 @@ public class SummaryReportProvider {
 
         Position first = null;
         Position last = null;
-        if (fast) {
+        PositionRollup rollup = null;
+        if (fast || rollups) {
             first = getEdgePosition(device.getId(), from, to, false);
             last = getEdgePosition(device.getId(), from, to, true);
+            if (rollups && first != null) {
+                rollup = calculateRollup(device.getId(), from, to);
+                result.setMaxSpeed(rollup.getMaxSpeed());
+            }
         } else {
             var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
             for (Position position : positions) {
@@ -102,20 +164,33 @@ public class SummaryReportProvider {
 
         if (first != null && last != null) {
             boolean ignoreOdometer = config.getBoolean(Keys.REPORT_IGNORE_ODOMETER);
-            result.setDistance(PositionUtil.calculateDistance(first, last, !ignoreOdometer));
-            result.setSpentFuel(reportUtils.calculateFuel(first, last));
-
-            if (first.hasAttribute(Position.KEY_HOURS) && last.hasAttribute(Position.KEY_HOURS)) {
-                result.setStartHours(first.getLong(Position.KEY_HOURS));
-                result.setEndHours(last.getLong(Position.KEY_HOURS));
-                long engineHours = result.getEngineHours();
-                if (engineHours > 0) {
-                    result.setAverageSpeed(UnitsConverter.knotsFromMps(result.getDistance() * 1000 / engineHours));
+            boolean useOdometer = !ignoreOdometer
+                    && first.getDouble(Position.KEY_ODOMETER) != 0 && last.getDouble(Position.KEY_ODOMETER) != 0;
+            if (rollup != null) {
+                result.setDistance(useOdometer
+                        ? PositionUtil.calculateDistance(first, last, true) : rollup.getDistance());
+                result.setSpentFuel(rollup.getSpentFuel());
+                if (first.hasAttribute(Position.KEY_HOURS)) {
+                    result.setStartHours(first.getLong(Position.KEY_HOURS));
+                    result.setEndHours(result.getStartHours() + rollup.getEngineHours());
+                }
+            } else {
+                result.setDistance(PositionUtil.calculateDistance(first, last, !ignoreOdometer));
+                result.setSpentFuel(reportUtils.calculateFuel(first, last));
+                if (first.hasAttribute(Position.KEY_HOURS) && last.hasAttribute(Position.KEY_HOURS)) {
+                    result.setStartHours(first.getLong(Position.KEY_HOURS));
+                    result.setEndHours(last.getLong(Position.KEY_HOURS));
                 }
             }
 
-            if (!ignoreOdometer
-                    && first.getDouble(Position.KEY_ODOMETER) != 0 && last.getDouble(Position.KEY_ODOMETER) != 0) {
+            long engineHours = result.getEngineHours();
+            if (engineHours > 0) {
+                result.setAverageSpeed(UnitsConverter.knotsFromMps(result.getDistance() * 1000 / engineHours));
+            } else if (rollup != null) {
+                result.setAverageSpeed(rollup.getAverageSpeed());
+            }
+
+            if (useOdometer) {
                 result.setStartOdometer(first.getDouble(Position.KEY_ODOMETER));
                 result.setEndOdometer(last.getDouble(Position.KEY_ODOMETER));
             } else {
@@ -157,9 +232,9 @@ public class SummaryReportProvider {
         var tz = UserUtil.getTimezone(permissionsService.getServer(), permissionsService.getUser(userId)).toZoneId();
 
         ArrayList<SummaryReportItem> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            var deviceResults = calculateDeviceResults(
-                    device, from.toInstant().atZone(tz), to.toInstant().atZone(tz), daily);
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        for (var deviceResults : reportTaskExecutor.execute(userId, devices, device -> calculateDeviceResults(
+                device, from.toInstant().atZone(tz), to.toInstant().atZone(tz), daily))) {
             for (SummaryReportItem summaryReport : deviceResults) {
                 if (summaryReport.getStartTime() != null && summaryReport.getEndTime() != null) {
                     result.add(summaryReport);
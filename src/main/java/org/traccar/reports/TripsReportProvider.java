@@ -20,8 +20,8 @@ import org.apache.poi.ss.util.WorkbookUtil;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.model.DeviceUtil;
-import org.traccar.model.Device;
 import org.traccar.model.Group;
+import org.traccar.reports.common.ReportTaskExecutor;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.reports.model.TripReportItem;
@@ -47,12 +47,15 @@ public class TripsReportProvider {
     private final Config config;
     private final ReportUtils reportUtils;
     private final Storage storage;
+    private final ReportTaskExecutor reportTaskExecutor;
 
     @Inject
-    public TripsReportProvider(Config config, ReportUtils reportUtils, Storage storage) {
+    public TripsReportProvider(
+            Config config, ReportUtils reportUtils, Storage storage, ReportTaskExecutor reportTaskExecutor) {
         this.config = config;
         this.reportUtils = reportUtils;
         this.storage = storage;
+        this.reportTaskExecutor = reportTaskExecutor;
     }
 
     public Collection<TripReportItem> getObjects(
@@ -61,8 +64,10 @@ public class TripsReportProvider {
         reportUtils.checkPeriodLimit(from, to);
 
         ArrayList<TripReportItem> result = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            result.addAll(reportUtils.detectTripsAndStops(device, from, to, TripReportItem.class));
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        for (var items : reportTaskExecutor.execute(userId, devices,
+                device -> reportUtils.detectTripsAndStops(device, from, to, TripReportItem.class))) {
+            result.addAll(items);
         }
         return result;
     }
@@ -74,11 +79,11 @@ public class TripsReportProvider {
 
         ArrayList<DeviceReportSection> devicesTrips = new ArrayList<>();
         ArrayList<String> sheetNames = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+        var devices = DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds);
+        devicesTrips.addAll(reportTaskExecutor.execute(userId, devices, device -> {
             Collection<TripReportItem> trips = reportUtils.detectTripsAndStops(device, from, to, TripReportItem.class);
             DeviceReportSection deviceTrips = new DeviceReportSection();
             deviceTrips.setDeviceName(device.getName());
-            sheetNames.add(WorkbookUtil.createSafeSheetName(deviceTrips.getDeviceName()));
             if (device.getGroupId() > 0) {
                 Group group = storage.getObject(Group.class, new Request(
                         new Columns.All(), new Condition.Equals("id", device.getGroupId())));
@@ -87,7 +92,10 @@ public class TripsReportProvider {
                 }
             }
             deviceTrips.setObjects(trips);
-            devicesTrips.add(deviceTrips);
+            return deviceTrips;
+        }));
+        for (DeviceReportSection section : devicesTrips) {
+            sheetNames.add(WorkbookUtil.createSafeSheetName(section.getDeviceName()));
         }
 
         File file = Paths.get(config.getString(Keys.TEMPLATES_ROOT), "export", "trips.xlsx").toFile();
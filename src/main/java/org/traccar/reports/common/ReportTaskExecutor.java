@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.reports.common;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.storage.StorageException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs per-device report work on a shared bounded pool. The pool is smaller than the database connection pool, so
+ * reports never take all connections, and each user is limited to a share of the pool.
+ */
+@Singleton
+public class ReportTaskExecutor {
+
+    public interface DeviceTask<T> {
+        T run(Device device) throws StorageException;
+    }
+
+    private static final class UserPermits {
+        private final Semaphore semaphore;
+        private int references;
+
+        private UserPermits(int permits) {
+            semaphore = new Semaphore(permits);
+        }
+    }
+
+    private final ExecutorService executor;
+    private final int userThreads;
+    private final Map<Long, UserPermits> userPermits = new ConcurrentHashMap<>();
+
+    @Inject
+    public ReportTaskExecutor(Config config) {
+        int threads = config.getInteger(Keys.REPORT_THREADS);
+        if (threads <= 0) {
+            int poolSize = config.getInteger(Keys.DATABASE_MAX_POOL_SIZE);
+            threads = Math.max(1, (poolSize > 0 ? poolSize : 10) / 2);
+        }
+        int userThreads = config.getInteger(Keys.REPORT_USER_THREADS);
+        this.userThreads = userThreads > 0 ? Math.min(userThreads, threads) : Math.max(1, threads / 2);
+
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "report-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Execute task for each device and return results in the original device order.
+     */
+    public <T> List<T> execute(
+            long userId, Collection<Device> devices, DeviceTask<T> task) throws StorageException {
+
+        List<T> results = new ArrayList<>(devices.size());
+        if (devices.size() <= 1) {
+            for (Device device : devices) {
+                results.add(task.run(device));
+            }
+            return results;
+        }
+
+        Semaphore permits = userPermits.compute(userId, (key, value) -> {
+            if (value == null) {
+                value = new UserPermits(userThreads);
+            }
+            value.references += 1;
+            return value;
+        }).semaphore;
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<T>> futures = new ArrayList<>(devices.size());
+        try {
+            for (Device device : devices) {
+                if (cancelled.get()) {
+                    break;
+                }
+                permits.acquire();
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return cancelled.get() ? null : task.run(device);
+                        } catch (StorageException | RuntimeException e) {
+                            cancelled.set(true);
+                            throw e;
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException storageException) {
+                throw storageException;
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new StorageException(e.getCause());
+        } finally {
+            // Queued tasks still run to release their permits, but skip the work once the report has failed
+            cancelled.set(true);
+            userPermits.computeIfPresent(userId, (key, value) -> --value.references > 0 ? value : null);
+        }
+        return results;
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 - 2017 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -41,6 +41,7 @@ import org.traccar.model.Device;
 import org.traccar.model.Driver;
 import org.traccar.model.Event;
 import org.traccar.model.Position;
+import org.traccar.model.PositionRollup;
 import org.traccar.model.User;
 import org.traccar.reports.model.BaseReportItem;
 import org.traccar.reports.model.StopReportItem;
@@ -62,8 +63,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ReportUtils {
 
@@ -109,6 +110,44 @@ public class ReportUtils {
         return 0;
     }
 
+    public void addRollupPosition(PositionRollup rollup, Position previous, Position position) {
+        if (rollup.getPositionCount() == 0) {
+            rollup.setFirstPositionId(position.getId());
+        }
+        rollup.setLastPositionId(position.getId());
+        rollup.setPositionCount(rollup.getPositionCount() + 1);
+        rollup.setMaxSpeed(Math.max(rollup.getMaxSpeed(), position.getSpeed()));
+        rollup.setAverageSpeed(rollup.getAverageSpeed()
+                + (position.getSpeed() - rollup.getAverageSpeed()) / rollup.getPositionCount());
+        if (previous != null) {
+            // Values are accumulated per pair of positions, so sums over consecutive periods match edge differences
+            rollup.setDistance(rollup.getDistance() + position.getDouble(Position.KEY_DISTANCE));
+            if (previous.hasAttribute(Position.KEY_HOURS) && position.hasAttribute(Position.KEY_HOURS)) {
+                rollup.setEngineHours(rollup.getEngineHours()
+                        + position.getLong(Position.KEY_HOURS) - previous.getLong(Position.KEY_HOURS));
+            }
+            rollup.setSpentFuel(rollup.getSpentFuel() + calculateFuel(previous, position));
+        }
+    }
+
+    public void mergeRollup(PositionRollup rollup, PositionRollup other) {
+        if (other.getPositionCount() == 0) {
+            return;
+        }
+        if (rollup.getPositionCount() == 0) {
+            rollup.setFirstPositionId(other.getFirstPositionId());
+        }
+        rollup.setLastPositionId(other.getLastPositionId());
+        int count = rollup.getPositionCount() + other.getPositionCount();
+        rollup.setAverageSpeed((rollup.getAverageSpeed() * rollup.getPositionCount()
+                + other.getAverageSpeed() * other.getPositionCount()) / count);
+        rollup.setPositionCount(count);
+        rollup.setMaxSpeed(Math.max(rollup.getMaxSpeed(), other.getMaxSpeed()));
+        rollup.setDistance(rollup.getDistance() + other.getDistance());
+        rollup.setEngineHours(rollup.getEngineHours() + other.getEngineHours());
+        rollup.setSpentFuel(rollup.getSpentFuel() + other.getSpentFuel());
+    }
+
     public String findDriver(Position firstPosition, Position lastPosition) {
         if (firstPosition.hasAttribute(Position.KEY_DRIVER_UNIQUE_ID)) {
             return firstPosition.getString(Position.KEY_DRIVER_UNIQUE_ID);
@@ -365,36 +404,39 @@ public class ReportUtils {
         List<T> result = new ArrayList<>();
         boolean ignoreOdometer = config.getBoolean(Keys.REPORT_IGNORE_ODOMETER);
         boolean trips = reportClass.equals(TripReportItem.class);
-        Set<String> filter = Set.of(Event.TYPE_DEVICE_MOVING, Event.TYPE_DEVICE_STOPPED);
-
         var events = storage.getObjects(Event.class, new Request(
                 new Columns.All(),
                 new Condition.And(
-                        new Condition.Equals("deviceId", device.getId()),
-                        new Condition.Between("eventTime", "from", from, "to", to)),
+                        new Condition.And(
+                                new Condition.Equals("deviceId", device.getId()),
+                                new Condition.Between("eventTime", "from", from, "to", to)),
+                        new Condition.In("type", List.of(Event.TYPE_DEVICE_MOVING, Event.TYPE_DEVICE_STOPPED))),
                 new Order("eventTime")));
-        var filteredEvents = events.stream()
-                .filter(event -> filter.contains(event.getType()))
-                .collect(Collectors.toList());
 
+        List<Event[]> pairs = new ArrayList<>();
         Event startEvent = null;
-        for (Event event : filteredEvents) {
+        for (Event event : events) {
             boolean motion = event.getType().equals(Event.TYPE_DEVICE_MOVING);
             if (motion == trips) {
                 startEvent = event;
             } else if (startEvent != null) {
-                Position startPosition = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", startEvent.getPositionId())));
-                Position endPosition = storage.getObject(Position.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", event.getPositionId())));
-                if (startPosition != null && endPosition != null) {
-                    result.add(calculateTripOrStop(
-                            device, startPosition, endPosition, 0, ignoreOdometer, reportClass));
-                }
+                pairs.add(new Event[] {startEvent, event});
                 startEvent = null;
             }
         }
 
+        var positions = PositionUtil.getPositions(storage, pairs.stream()
+                .flatMap(pair -> Stream.of(pair[0].getPositionId(), pair[1].getPositionId()))
+                .collect(Collectors.toList()));
+        for (Event[] pair : pairs) {
+            Position startPosition = positions.get(pair[0].getPositionId());
+            Position endPosition = positions.get(pair[1].getPositionId());
+            if (startPosition != null && endPosition != null) {
+                result.add(calculateTripOrStop(
+                        device, startPosition, endPosition, 0, ignoreOdometer, reportClass));
+            }
+        }
+
         return result;
     }
 
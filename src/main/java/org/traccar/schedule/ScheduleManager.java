@@ -48,9 +48,12 @@ public class ScheduleManager implements LifecycleObject {
                 TaskClearStatus.class,
                 TaskExpirations.class,
                 TaskDeleteTemporary.class,
+                TaskDataRetention.class,
+                TaskPositionRollups.class,
                 TaskReports.class,
                 TaskDeviceInactivityCheck.class,
-                TaskWebSocketKeepalive.class)
+                TaskWebSocketKeepalive.class,
+                TaskStatistics.class)
                 .forEachOrdered(taskClass -> {
                     var task = injector.getInstance(taskClass);
                     if (task.multipleInstances() || !secondary) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+import org.traccar.storage.DatabasePartitions;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TaskDataRetention extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskDataRetention.class);
+
+    private static final long CHECK_PERIOD_HOURS = 24;
+    private static final long DELETE_WINDOW = TimeUnit.DAYS.toMillis(1);
+
+    private final Storage storage;
+    private final DatabasePartitions partitions;
+    private final int positionsDays;
+    private final int eventsDays;
+
+    @Inject
+    public TaskDataRetention(Config config, Storage storage, DatabasePartitions partitions) {
+        this.storage = storage;
+        this.partitions = partitions;
+        positionsDays = config.getInteger(Keys.DATABASE_RETENTION_POSITIONS);
+        eventsDays = config.getInteger(Keys.DATABASE_RETENTION_EVENTS);
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (positionsDays > 0 || eventsDays > 0) {
+            executor.scheduleAtFixedRate(this, 1, CHECK_PERIOD_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    private static Date cutoff(int days) {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+    }
+
+    @Override
+    public void run() {
+        Date positionsCutoff = positionsDays > 0 ? cutoff(positionsDays) : null;
+        Date eventsCutoff = eventsDays > 0 ? cutoff(eventsDays) : null;
+        if (partitions.isEnabled()) {
+            try {
+                if (positionsCutoff != null) {
+                    partitions.maintain(Position.class, "fixTime", positionsCutoff);
+                }
+                if (eventsCutoff != null) {
+                    partitions.maintain(Event.class, "eventTime", eventsCutoff);
+                }
+            } catch (StorageException e) {
+                LOGGER.warn("Data partitions error", e);
+            }
+        }
+        try {
+            var devices = storage.getObjects(Device.class, new Request(new Columns.Include("id", "positionId")));
+            for (Device device : devices) {
+                if (positionsCutoff != null) {
+                    removeExpired(Position.class, "fixTime", device, positionsCutoff);
+                }
+                if (eventsCutoff != null) {
+                    removeExpired(Event.class, "eventTime", device, eventsCutoff);
+                }
+            }
+        } catch (StorageException e) {
+            LOGGER.warn("Data retention error", e);
+        }
+    }
+
+    private static Condition getCondition(
+            Class<?> clazz, String timeColumn, Device device, Date from, Date to) {
+        var conditions = new LinkedList<Condition>();
+        conditions.add(new Condition.Equals("deviceId", device.getId()));
+        if (from != null) {
+            conditions.add(new Condition.Compare(timeColumn, ">=", "from", from));
+        }
+        conditions.add(new Condition.Compare(timeColumn, "<", "to", to));
+        if (clazz.equals(Position.class) && device.getPositionId() > 0) {
+            conditions.add(new Condition.Compare("id", "<>", "positionId", device.getPositionId()));
+        }
+        return Condition.merge(conditions);
+    }
+
+    /**
+     * Oldest expired row of the device, not counting its latest position, or null when there is nothing to delete.
+     */
+    private Date getOldestTime(Class<?> clazz, String timeColumn, Device device, Date cutoff)
+            throws StorageException {
+        var items = storage.getObjects(clazz, new Request(
+                new Columns.Include(timeColumn),
+                getCondition(clazz, timeColumn, device, null, cutoff),
+                new Order(timeColumn, false, 1)));
+        if (items.isEmpty()) {
+            return null;
+        }
+        Object item = items.get(0);
+        return item instanceof Position position ? position.getFixTime() : ((Event) item).getEventTime();
+    }
+
+    /**
+     * Deletes expired rows one time window at a time, so a device with a long history does not produce one huge
+     * transaction on the first run. Each window starts at the oldest remaining row, which skips gaps in the history.
+     * The latest position of the device is always kept.
+     */
+    private void removeExpired(Class<?> clazz, String timeColumn, Device device, Date cutoff) throws StorageException {
+        Date oldest;
+        while ((oldest = getOldestTime(clazz, timeColumn, device, cutoff)) != null) {
+            Date to = new Date(Math.min(oldest.getTime() + DELETE_WINDOW, cutoff.getTime()));
+            storage.removeObject(clazz, new Request(getCondition(clazz, timeColumn, device, oldest, to)));
+        }
+    }
+
+}
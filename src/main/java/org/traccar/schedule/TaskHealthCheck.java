@@ -45,8 +45,8 @@ public class TaskHealthCheck implements ScheduleTask {
     private long period;
     private double dropThreshold;
 
-    private int messageLastTotal;
-    private int messageLastPeriod;
+    private long messageLastTotal;
+    private long messageLastPeriod;
 
     @Inject
     public TaskHealthCheck(Config config, Client client, StatisticsManager statisticsManager) {
@@ -97,8 +97,8 @@ public class TaskHealthCheck implements ScheduleTask {
                 LOGGER.warn("Web health check failed with status {}", status);
             }
 
-            int messageCurrentTotal = statisticsManager.messageStoredCount();
-            int messageCurrentPeriod = messageCurrentTotal - messageLastTotal;
+            long messageCurrentTotal = statisticsManager.messageStoredCount();
+            long messageCurrentPeriod = messageCurrentTotal - messageLastTotal;
             if (dropThreshold > 0 && messageLastPeriod > 0) {
                 double drop = messageCurrentPeriod / (double) messageLastPeriod;
                 if (drop < dropThreshold) {
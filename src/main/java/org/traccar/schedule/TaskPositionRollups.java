@@ -0,0 +1,199 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.model.PositionUtil;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.model.PositionRollup;
+import org.traccar.reports.common.ReportUtils;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TaskPositionRollups extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskPositionRollups.class);
+
+    public static final long PERIOD = TimeUnit.HOURS.toMillis(1);
+
+    private static final long CHECK_PERIOD_MINUTES = 15;
+    private static final long WINDOW = TimeUnit.DAYS.toMillis(1);
+
+    private final Storage storage;
+    private final ReportUtils reportUtils;
+    private final boolean enabled;
+
+    private long lastPositionId = -1;
+
+    @Inject
+    public TaskPositionRollups(Config config, Storage storage, ReportUtils reportUtils) {
+        this.storage = storage;
+        this.reportUtils = reportUtils;
+        enabled = config.getBoolean(Keys.REPORT_ROLLUPS);
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (enabled) {
+            executor.scheduleAtFixedRate(this, CHECK_PERIOD_MINUTES, CHECK_PERIOD_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    public static long truncate(long time) {
+        return time - Math.floorMod(time, PERIOD);
+    }
+
+    public static PositionRollup getLatestRollup(Storage storage, long deviceId) throws StorageException {
+        return storage.getObject(PositionRollup.class, new Request(
+                new Columns.All(),
+                new Condition.Equals("deviceId", deviceId),
+                new Order("periodStart", true, 1)));
+    }
+
+    @Override
+    public void run() {
+        // Keep one full period of lag so that buffered and delayed positions are included
+        long end = truncate(System.currentTimeMillis()) - PERIOD;
+        try {
+            Position newest = storage.getObject(Position.class, new Request(
+                    new Columns.Include("id"), new Order("id", true, 1)));
+            if (newest == null) {
+                return;
+            }
+            if (lastPositionId < 0) {
+                PositionRollup rollup = storage.getObject(PositionRollup.class, new Request(
+                        new Columns.Include("lastPositionId"), new Order("lastPositionId", true, 1)));
+                lastPositionId = rollup != null ? rollup.getLastPositionId() : newest.getId();
+            }
+            updateLatePositions(lastPositionId, newest.getId(), end);
+            for (Device device : storage.getObjects(Device.class, new Request(new Columns.Include("id")))) {
+                updateDevice(device.getId(), end);
+            }
+            lastPositionId = newest.getId();
+        } catch (StorageException e) {
+            LOGGER.warn("Position rollup error", e);
+        }
+    }
+
+    private void updateLatePositions(long fromId, long toId, long end) throws StorageException {
+        // Positions stored since the previous run with an old fix time, like history uploads and buffered data
+        Map<Long, Set<Long>> periods = new HashMap<>();
+        for (Position position : storage.getObjects(Position.class, new Request(
+                new Columns.Include("deviceId", "fixTime"),
+                new Condition.And(
+                        new Condition.Compare("id", ">", "fromId", fromId),
+                        new Condition.And(
+                                new Condition.Compare("id", "<=", "toId", toId),
+                                new Condition.Compare("fixTime", "<", "end", new Date(end))))))) {
+            periods.computeIfAbsent(position.getDeviceId(), k -> new TreeSet<>())
+                    .add(truncate(position.getFixTime().getTime()));
+        }
+        for (var entry : periods.entrySet()) {
+            long deviceId = entry.getKey();
+            PositionRollup latest = getLatestRollup(storage, deviceId);
+            if (latest == null) {
+                continue;
+            }
+            // Periods after the latest rollup are handled by the regular catch-up
+            long limit = latest.getPeriodStart().getTime() + PERIOD;
+            long covered = Long.MIN_VALUE;
+            for (long periodStart : entry.getValue()) {
+                // The following period is recalculated too, because its first position has a new predecessor
+                long start = Math.max(periodStart, covered);
+                long periodEnd = Math.min(periodStart + 2 * PERIOD, limit);
+                if (start < periodEnd) {
+                    storage.removeObject(PositionRollup.class, new Request(new Condition.And(
+                            new Condition.Equals("deviceId", deviceId),
+                            new Condition.Between(
+                                    "periodStart", "from", new Date(start), "to", new Date(periodEnd - 1)))));
+                    calculateRollups(deviceId, start, periodEnd);
+                    covered = periodEnd;
+                }
+            }
+        }
+    }
+
+    private void updateDevice(long deviceId, long end) throws StorageException {
+        PositionRollup latest = getLatestRollup(storage, deviceId);
+        long start = latest != null ? latest.getPeriodStart().getTime() + PERIOD : 0;
+        while (start < end) {
+            // Skip gaps without any data instead of walking through empty periods
+            Position next = storage.getObject(Position.class, new Request(
+                    new Columns.Include("fixTime"),
+                    new Condition.And(
+                            new Condition.Equals("deviceId", deviceId),
+                            new Condition.Compare("fixTime", ">=", "time", new Date(start))),
+                    new Order("fixTime", false, 1)));
+            if (next == null) {
+                return;
+            }
+            start = truncate(next.getFixTime().getTime());
+            long windowEnd = Math.min(end, start + WINDOW);
+            if (start < windowEnd) {
+                calculateRollups(deviceId, start, windowEnd);
+            }
+            start = windowEnd;
+        }
+    }
+
+    private void calculateRollups(long deviceId, long start, long end) throws StorageException {
+        Position previous = storage.getObject(Position.class, new Request(
+                new Columns.All(),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Compare("fixTime", "<", "time", new Date(start))),
+                new Order("fixTime", true, 1)));
+        PositionRollup rollup = null;
+        for (Position position : PositionUtil.getPositions(storage, deviceId, new Date(start), new Date(end - 1))) {
+            long periodStart = truncate(position.getFixTime().getTime());
+            if (rollup == null || rollup.getPeriodStart().getTime() != periodStart) {
+                if (rollup != null) {
+                    storeRollup(rollup);
+                }
+                rollup = new PositionRollup();
+                rollup.setDeviceId(deviceId);
+                rollup.setPeriodStart(new Date(periodStart));
+            }
+            reportUtils.addRollupPosition(rollup, previous, position);
+            previous = position;
+        }
+        if (rollup != null) {
+            storeRollup(rollup);
+        }
+    }
+
+    private void storeRollup(PositionRollup rollup) throws StorageException {
+        rollup.setId(storage.addObject(rollup, new Request(new Columns.Exclude("id"))));
+    }
+
+}
@@ -336,6 +336,7 @@ public class ConnectionManager implements BroadcastInterface {
             if (listeners.containsKey(id1)) {
                 userDevices.get(id1).add(id2);
                 deviceUsers.put(id2, new HashSet<>(List.of(id1)));
+                broadcastService.updateInterest(Set.copyOf(deviceUsers.keySet()));
             }
         }
     }
@@ -380,6 +381,7 @@ public class ConnectionManager implements BroadcastInterface {
                     new Columns.Include("id"), new Condition.Permission(User.class, userId, Device.class)));
             userDevices.put(userId, devices.stream().map(BaseModel::getId).collect(Collectors.toSet()));
             devices.forEach(device -> deviceUsers.computeIfAbsent(device.getId(), id -> new HashSet<>()).add(userId));
+            broadcastService.updateInterest(Set.copyOf(deviceUsers.keySet()));
         }
         set.add(listener);
     }
@@ -394,6 +396,7 @@ public class ConnectionManager implements BroadcastInterface {
                 userIds.remove(userId);
                 return userIds.isEmpty() ? null : userIds;
             }));
+            broadcastService.updateInterest(Set.copyOf(deviceUsers.keySet()));
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import jakarta.inject.Singleton;
 import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.broadcast.BroadcastService;
 import org.traccar.config.Config;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.model.Attribute;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Calendar;
@@ -45,6 +47,7 @@ import org.traccar.storage.query.Request;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -61,6 +64,8 @@ public class CacheManager implements BroadcastInterface {
     private final BroadcastService broadcastService;
 
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Histogram readLockWait;
+    private final Histogram writeLockWait;
 
     private final CacheGraph graph = new CacheGraph();
 
@@ -68,15 +73,34 @@ public class CacheManager implements BroadcastInterface {
     private final Map<Long, Position> devicePositions = new HashMap<>();
     private final Map<Long, AtomicInteger> deviceReferences = new HashMap<>();
 
+    private final Set<BroadcastInterface> listeners = ConcurrentHashMap.newKeySet();
+
     @Inject
-    public CacheManager(Config config, Storage storage, BroadcastService broadcastService) throws StorageException {
+    public CacheManager(
+            Config config, Storage storage, BroadcastService broadcastService,
+            MetricsManager metricsManager) throws StorageException {
         this.config = config;
         this.storage = storage;
         this.broadcastService = broadcastService;
+        String help = "Time spent waiting for the cache lock";
+        readLockWait = metricsManager.histogram("traccar_cache_lock_wait_seconds", help, "mode", "read");
+        writeLockWait = metricsManager.histogram("traccar_cache_lock_wait_seconds", help, "mode", "write");
         server = storage.getObject(Server.class, new Request(new Columns.All()));
         broadcastService.registerListener(this);
     }
 
+    private void lockRead() {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        readLockWait.recordSince(start);
+    }
+
+    private void lockWrite() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        writeLockWait.recordSince(start);
+    }
+
     @Override
     public String toString() {
         return graph.toString();
@@ -86,9 +110,16 @@ public class CacheManager implements BroadcastInterface {
         return config;
     }
 
+    /**
+     * Register listener for object invalidations, both local and received from other cluster nodes.
+     */
+    public void addListener(BroadcastInterface listener) {
+        listeners.add(listener);
+    }
+
     public <T extends BaseModel> T getObject(Class<T> clazz, long id) {
         try {
-            lock.readLock().lock();
+            lockRead();
             return graph.getObject(clazz, id);
         } finally {
             lock.readLock().unlock();
@@ -97,7 +128,7 @@ public class CacheManager implements BroadcastInterface {
 
     public <T extends BaseModel> Set<T> getDeviceObjects(long deviceId, Class<T> clazz) {
         try {
-            lock.readLock().lock();
+            lockRead();
             return graph.getObjects(Device.class, deviceId, clazz, Set.of(Group.class), true)
                     .collect(Collectors.toUnmodifiableSet());
         } finally {
@@ -107,7 +138,7 @@ public class CacheManager implements BroadcastInterface {
 
     public Position getPosition(long deviceId) {
         try {
-            lock.readLock().lock();
+            lockRead();
             return devicePositions.get(deviceId);
         } finally {
             lock.readLock().unlock();
@@ -116,7 +147,7 @@ public class CacheManager implements BroadcastInterface {
 
     public Server getServer() {
         try {
-            lock.readLock().lock();
+            lockRead();
             return server;
         } finally {
             lock.readLock().unlock();
@@ -125,7 +156,7 @@ public class CacheManager implements BroadcastInterface {
 
     public Set<User> getNotificationUsers(long notificationId, long deviceId) {
         try {
-            lock.readLock().lock();
+            lockRead();
             Set<User> deviceUsers = getDeviceObjects(deviceId, User.class);
             return graph.getObjects(Notification.class, notificationId, User.class, Set.of(), false)
                     .filter(deviceUsers::contains)
@@ -137,7 +168,7 @@ public class CacheManager implements BroadcastInterface {
 
     public Set<Notification> getDeviceNotifications(long deviceId) {
         try {
-            lock.readLock().lock();
+            lockRead();
             var direct = graph.getObjects(Device.class, deviceId, Notification.class, Set.of(Group.class), true)
                     .map(BaseModel::getId)
                     .collect(Collectors.toUnmodifiableSet());
@@ -151,7 +182,7 @@ public class CacheManager implements BroadcastInterface {
 
     public void addDevice(long deviceId) throws Exception {
         try {
-            lock.writeLock().lock();
+            lockWrite();
             if (deviceReferences.computeIfAbsent(deviceId, k -> new AtomicInteger()).getAndIncrement() <= 0) {
                 Device device = storage.getObject(Device.class, new Request(
                         new Columns.All(), new Condition.Equals("id", deviceId)));
@@ -169,7 +200,7 @@ public class CacheManager implements BroadcastInterface {
 
     public void removeDevice(long deviceId) {
         try {
-            lock.writeLock().lock();
+            lockWrite();
             if (deviceReferences.computeIfAbsent(deviceId, k -> new AtomicInteger()).decrementAndGet() <= 0) {
                 graph.removeObject(Device.class, deviceId);
                 devicePositions.remove(deviceId);
@@ -182,7 +213,7 @@ public class CacheManager implements BroadcastInterface {
 
     public void updatePosition(Position position) {
         try {
-            lock.writeLock().lock();
+            lockWrite();
             if (deviceReferences.containsKey(position.getDeviceId())) {
                 devicePositions.put(position.getDeviceId(), position);
             }
@@ -198,6 +229,10 @@ public class CacheManager implements BroadcastInterface {
             broadcastService.invalidateObject(true, clazz, id, operation);
         }
 
+        for (BroadcastInterface listener : listeners) {
+            listener.invalidateObject(false, clazz, id, operation);
+        }
+
         if (operation == ObjectOperation.DELETE) {
             graph.removeObject(clazz, id);
         }
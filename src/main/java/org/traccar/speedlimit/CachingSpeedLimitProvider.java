@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.speedlimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.traccar.helper.CoordinateCells;
+import org.traccar.helper.RequestCoalescer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches speed limits of another provider by coordinate cell. Roads without a limit are cached as well. Concurrent
+ * lookups for the same cell share one request, and once a lookup for a moving vehicle succeeds, the next cell along
+ * the course is requested in advance. After a provider error, lookups of uncached cells fail immediately until the
+ * back-off period ends.
+ */
+public class CachingSpeedLimitProvider implements SpeedLimitProvider {
+
+    private static final double NOT_FOUND = Double.NaN;
+    private static final long FAILURE_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+
+    private final SpeedLimitProvider provider;
+    private final CoordinateCells cells;
+    private final Cache<Long, Double> cache;
+    private final RequestCoalescer<Long, Double> pending = new RequestCoalescer<>();
+
+    private volatile Throwable failure;
+    private volatile long failureTime;
+
+    public CachingSpeedLimitProvider(SpeedLimitProvider provider, int cacheSize, long timeout, int precision) {
+        this.provider = provider;
+        cells = new CoordinateCells(precision);
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(timeout, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+        getSpeedLimit(latitude, longitude, Double.NaN, callback);
+    }
+
+    @Override
+    public void getSpeedLimit(
+            double latitude, double longitude, double course, SpeedLimitProviderCallback callback) {
+
+        long key = cells.getKey(latitude, longitude);
+        Double speedLimit = cache.getIfPresent(key);
+        if (speedLimit == null) {
+            request(key, latitude, longitude, course, callback);
+        } else if (Double.isNaN(speedLimit)) {
+            callback.onFailure(new SpeedLimitException("Not found"));
+        } else {
+            callback.onSuccess(speedLimit);
+            prefetch(key, latitude, longitude, course);
+        }
+    }
+
+    private void prefetch(long key, double latitude, double longitude, double course) {
+        if (Double.isNaN(course)) {
+            return;
+        }
+        double radians = Math.toRadians(course);
+        double nextLatitude = latitude + Math.cos(radians) * cells.getStep();
+        double nextLongitude = longitude
+                + Math.sin(radians) * cells.getStep() / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        if (Math.abs(nextLatitude) <= 90 && Math.abs(nextLongitude) <= 180) {
+            long nextKey = cells.getKey(nextLatitude, nextLongitude);
+            if (nextKey != key && cache.getIfPresent(nextKey) == null && !pending.contains(nextKey)) {
+                request(nextKey, nextLatitude, nextLongitude, Double.NaN, null);
+            }
+        }
+    }
+
+    private void request(
+            long key, double latitude, double longitude, double course, SpeedLimitProviderCallback callback) {
+
+        Throwable error = failure;
+        if (error != null && System.currentTimeMillis() - failureTime < FAILURE_BACKOFF) {
+            if (callback != null) {
+                callback.onFailure(error);
+            }
+            return;
+        }
+
+        if (!pending.add(key, callback != null
+                ? RequestCoalescer.callback(callback::onSuccess, callback::onFailure) : null)) {
+            return;
+        }
+
+        pending.execute(key, c -> provider.getSpeedLimit(latitude, longitude, new SpeedLimitProviderCallback() {
+            @Override
+            public void onSuccess(double speedLimit) {
+                c.onSuccess(speedLimit);
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                c.onFailure(e);
+            }
+        }), RequestCoalescer.callback(speedLimit -> {
+            failure = null;
+            cache.put(key, speedLimit);
+            prefetch(key, latitude, longitude, course);
+        }, e -> {
+            if (e instanceof SpeedLimitException) {
+                cache.put(key, NOT_FOUND);
+            } else {
+                failureTime = System.currentTimeMillis();
+                failure = e;
+            }
+        }));
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.speedlimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.helper.CoordinateCells;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Speed limits from a local file, for example exported from an OpenStreetMap extract. Each line contains latitude,
+ * longitude and a maxspeed tag value separated by commas, such as "48.8566,2.3522,50" or "40.7,-74.0,25 mph".
+ * Empty lines and lines starting with '#' are ignored.
+ */
+public class OfflineSpeedLimitProvider implements SpeedLimitProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OfflineSpeedLimitProvider.class);
+
+    private final CoordinateCells cells;
+    private final Map<Long, Double> speedLimits = new HashMap<>();
+
+    public OfflineSpeedLimitProvider(String file, int precision) throws IOException {
+        cells = new CoordinateCells(precision);
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] values = line.split(",", 3);
+                if (values.length < 3) {
+                    continue;
+                }
+                Double speedLimit = OverpassSpeedLimitProvider.parseSpeed(values[2].trim());
+                if (speedLimit != null) {
+                    try {
+                        speedLimits.putIfAbsent(cells.getKey(
+                                Double.parseDouble(values[0]), Double.parseDouble(values[1])), speedLimit);
+                    } catch (NumberFormatException e) {
+                        LOGGER.debug("Skipping speed limit line {}", line);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+        Double speedLimit = speedLimits.get(cells.getKey(latitude, longitude));
+        double step = cells.getStep();
+        for (int i = -1; speedLimit == null && i <= 1; i++) {
+            for (int j = -1; speedLimit == null && j <= 1; j++) {
+                speedLimit = speedLimits.get(cells.getKey(latitude + i * step, longitude + j * step));
+            }
+        }
+        if (speedLimit != null) {
+            callback.onSuccess(speedLimit);
+        } else {
+            callback.onFailure(new SpeedLimitException("Not found"));
+        }
+    }
+
+}
@@ -36,7 +36,7 @@ public class OverpassSpeedLimitProvider implements SpeedLimitProvider {
         this.url = url + "?data=[out:json];way[maxspeed](around:" + accuracy + ",%f,%f);out%%20tags;";
     }
 
-    private Double parseSpeed(String value) {
+    static Double parseSpeed(String value) {
         if (value.endsWith(" mph")) {
             return UnitsConverter.knotsFromMph(Double.parseDouble(value.substring(0, value.length() - 4)));
         } else if (value.endsWith(" knots")) {
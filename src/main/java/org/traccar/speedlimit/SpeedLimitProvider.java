@@ -1,5 +1,5 @@
 /*
- * Copyright 2020 Anton Tananaev (anton@traccar.org)
+ * Copyright 2020 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,4 +27,12 @@ public interface SpeedLimitProvider {
 
     void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback);
 
+    /**
+     * Lookup with a known direction of travel. Course is in degrees, NaN when the direction is unknown.
+     */
+    default void getSpeedLimit(
+            double latitude, double longitude, double course, SpeedLimitProviderCallback callback) {
+        getSpeedLimit(latitude, longitude, callback);
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
 import liquibase.Contexts;
 import liquibase.Liquibase;
 import liquibase.database.Database;
@@ -29,6 +30,8 @@ import liquibase.resource.DirectoryResourceAccessor;
 import liquibase.resource.ResourceAccessor;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 
 import jakarta.inject.Singleton;
 import javax.sql.DataSource;
@@ -42,7 +45,8 @@ public class DatabaseModule extends AbstractModule {
     @Singleton
     @Provides
     public static DataSource provideDataSource(
-            Config config) throws ReflectiveOperationException, IOException, LiquibaseException {
+            Config config, MetricsManager metricsManager)
+            throws ReflectiveOperationException, IOException, LiquibaseException {
 
         String driverFile = config.getString(Keys.DATABASE_DRIVER_FILE);
         if (driverFile != null) {
@@ -77,6 +81,33 @@ public class DatabaseModule extends AbstractModule {
             hikariConfig.setMaximumPoolSize(maxPoolSize);
         }
 
+        String url = config.getString(Keys.DATABASE_URL);
+        int statementCacheSize = config.getInteger(Keys.DATABASE_STATEMENT_CACHE_SIZE);
+        if (statementCacheSize > 0 && url != null
+                && (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:"))) {
+            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+            hikariConfig.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "4096");
+            hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+
+        hikariConfig.setMetricsTrackerFactory((poolName, poolStats) -> {
+            metricsManager.gauge(
+                    "traccar_database_pool_active", "Connections in use", poolStats::getActiveConnections);
+            metricsManager.gauge(
+                    "traccar_database_pool_idle", "Idle connections", poolStats::getIdleConnections);
+            metricsManager.gauge(
+                    "traccar_database_pool_pending", "Threads waiting for a connection", poolStats::getPendingThreads);
+            Histogram wait = metricsManager.histogram(
+                    "traccar_database_pool_wait_seconds", "Time to acquire a connection from the pool");
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    wait.record(elapsedAcquiredNanos);
+                }
+            };
+        });
+
         DataSource dataSource = new HikariDataSource(hikariConfig);
 
         String changelog = config.getString(Keys.DATABASE_CHANGELOG);
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Native daily range partitions of history tables on PostgreSQL and MySQL. A table is converted on first use: the
+ * existing rows become one partition ending tomorrow, and new rows go to daily partitions created a week ahead. Each
+ * partition is named after the day it ends, so the name alone gives its range. Partitions that ended before the
+ * retention cutoff are dropped whole, and the database limits range queries on the time column to matching
+ * partitions by itself. Rows outside of the created ranges go to a default partition on PostgreSQL and to the first
+ * or last partition on MySQL.
+ */
+@Singleton
+public class DatabasePartitions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabasePartitions.class);
+
+    private static final int DAYS_AHEAD = 7;
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private enum Dialect {
+        POSTGRESQL, MYSQL
+    }
+
+    private final boolean enabled;
+    private final Provider<DataSource> dataSourceProvider;
+
+    @Inject
+    public DatabasePartitions(Config config, Provider<DataSource> dataSourceProvider) {
+        enabled = config.getBoolean(Keys.DATABASE_RETENTION_PARTITIONS) && !config.getBoolean(Keys.DATABASE_MEMORY);
+        this.dataSourceProvider = dataSourceProvider;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    static String getName(String table, LocalDate end) {
+        return table + "_p" + NAME_FORMAT.format(end);
+    }
+
+    static LocalDate getEnd(String table, String name) {
+        String prefix = table + "_p";
+        if (name.length() == prefix.length() + 8 && name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            try {
+                return LocalDate.parse(name.substring(prefix.length()), NAME_FORMAT);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Partitions can be dropped when they ended a day before the cutoff, so rows stored in local time are never
+     * removed early.
+     */
+    static boolean isExpired(LocalDate end, Date cutoff) {
+        return end.isBefore(cutoff.toInstant().atZone(ZoneOffset.UTC).toLocalDate());
+    }
+
+    /**
+     * Converts the table if needed, creates upcoming partitions and drops expired ones. The latest position of each
+     * device is moved out of a position partition before it is dropped.
+     *
+     * @return number of dropped partitions
+     */
+    public synchronized int maintain(Class<?> clazz, String timeColumn, Date cutoff) throws StorageException {
+        String table = clazz.getAnnotation(StorageName.class).value();
+        String column = timeColumn.toLowerCase();
+        String keep = clazz.equals(Position.class)
+                ? "SELECT positionid FROM " + Device.class.getAnnotation(StorageName.class).value() : null;
+        try (Connection connection = dataSourceProvider.get().getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            Dialect dialect = switch (product) {
+                case "PostgreSQL" -> Dialect.POSTGRESQL;
+                case "MySQL", "MariaDB" -> Dialect.MYSQL;
+                default -> null;
+            };
+            if (dialect == null) {
+                LOGGER.warn("Database partitions are not supported by {}", product);
+                return 0;
+            }
+            if (dialect == Dialect.MYSQL && keep != null) {
+                restoreKept(connection, table);
+            }
+
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            List<LocalDate> ends = getPartitions(connection, dialect, table);
+            if (ends == null) {
+                LocalDate end = today.plusDays(1);
+                LOGGER.info("Converting {} to partitions", table);
+                if (dialect == Dialect.POSTGRESQL) {
+                    convertPostgresql(connection, table, column, end);
+                } else {
+                    convertMysql(connection, table, column, end);
+                }
+                ends = List.of(end);
+            }
+
+            List<LocalDate> created = new ArrayList<>();
+            LocalDate last = ends.isEmpty() ? today : ends.get(ends.size() - 1);
+            for (LocalDate end = last.plusDays(1); !end.isAfter(today.plusDays(DAYS_AHEAD)); end = end.plusDays(1)) {
+                created.add(end);
+            }
+            if (!created.isEmpty()) {
+                if (dialect == Dialect.POSTGRESQL) {
+                    createPostgresql(connection, table, column, created);
+                } else {
+                    createMysql(connection, table, column, created);
+                }
+            }
+
+            int dropped = 0;
+            for (LocalDate end : ends) {
+                if (!isExpired(end, cutoff)) {
+                    break;
+                }
+                if (dialect == Dialect.POSTGRESQL) {
+                    dropPostgresql(connection, table, getName(table, end), keep);
+                } else {
+                    dropMysql(connection, table, getName(table, end), keep);
+                }
+                dropped += 1;
+            }
+            return dropped;
+        } catch (SQLException e) {
+            throw new StorageException("Partition maintenance of " + table + " failed", e);
+        }
+    }
+
+    /**
+     * Returns partition end days in ascending order, or null if the table is not partitioned.
+     */
+    private List<LocalDate> getPartitions(Connection connection, Dialect dialect, String table) throws SQLException {
+        String query;
+        if (dialect == Dialect.POSTGRESQL) {
+            if (!exists(connection, "SELECT 1 FROM pg_partitioned_table t JOIN pg_class c ON c.oid = t.partrelid "
+                    + "WHERE c.relname = ?", table)) {
+                return null;
+            }
+            query = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?";
+        } else {
+            if (!exists(connection, "SELECT 1 FROM information_schema.partitions WHERE table_schema = DATABASE() "
+                    + "AND table_name = ? AND partition_name IS NOT NULL", table)) {
+                return null;
+            }
+            query = "SELECT partition_name FROM information_schema.partitions WHERE table_schema = DATABASE() "
+                    + "AND table_name = ? AND partition_name IS NOT NULL";
+        }
+        List<LocalDate> ends = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    LocalDate end = getEnd(table, resultSet.getString(1));
+                    if (end != null) {
+                        ends.add(end);
+                    }
+                }
+            }
+        }
+        ends.sort(null);
+        return ends;
+    }
+
+    private static boolean exists(Connection connection, String query, String value) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, value);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String... queries) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String query : queries) {
+                statement.execute(query);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String literal(LocalDate day) {
+        return "'" + day + "'";
+    }
+
+    /**
+     * Existing table becomes the first partition. Identity columns are not allowed in partitions, so ids continue
+     * from a new sequence of the parent table. Regular indexes are recreated on the parent, which reuses matching
+     * indexes of the old table, but the id index has to be built. The old table is checked against its range while
+     * it is locked, so the conversion should run in a maintenance window.
+     */
+    private void convertPostgresql(
+            Connection connection, String table, String column, LocalDate end) throws SQLException {
+        String legacy = getName(table, end);
+        String sequence = table + "_partitioned_id_seq";
+        List<String> queries = new ArrayList<>();
+        queries.add("ALTER TABLE " + table + " RENAME TO " + legacy);
+        queries.add("ALTER TABLE " + legacy + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        queries.add("CREATE TABLE " + table + " (LIKE " + legacy + " INCLUDING DEFAULTS)"
+                + " PARTITION BY RANGE (" + column + ")");
+        queries.add("CREATE SEQUENCE " + sequence + " OWNED BY " + table + ".id");
+        queries.add("SELECT setval('" + sequence + "', (SELECT COALESCE(MAX(id), 0) + 1 FROM " + legacy + "), false)");
+        queries.add("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname, pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                + "JOIN pg_class c ON c.oid = i.indexrelid JOIN pg_class t ON t.oid = i.indrelid "
+                + "WHERE t.relname = ? AND NOT i.indisunique")) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String definition = resultSet.getString(2);
+                    queries.add("CREATE INDEX " + resultSet.getString(1) + "_all ON " + table
+                            + definition.substring(definition.indexOf(" USING ")));
+                }
+            }
+        }
+        queries.add("CREATE INDEX " + table + "_id ON " + table + " (id)");
+        queries.add("ALTER TABLE " + table + " ATTACH PARTITION " + legacy
+                + " FOR VALUES FROM (MINVALUE) TO (" + literal(end) + ")");
+        queries.add("CREATE TABLE " + table + "_pdefault PARTITION OF " + table + " DEFAULT");
+        execute(connection, queries.toArray(new String[0]));
+    }
+
+    /**
+     * Rows of the default partition that fall into new ranges are moved while it is detached.
+     */
+    private void createPostgresql(
+            Connection connection, String table, String column, List<LocalDate> ends) throws SQLException {
+        String defaultPartition = table + "_pdefault";
+        String range = column + " >= " + literal(ends.get(0).minusDays(1))
+                + " AND " + column + " < " + literal(ends.get(ends.size() - 1));
+        List<String> queries = new ArrayList<>();
+        queries.add("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartition);
+        for (LocalDate end : ends) {
+            queries.add("CREATE TABLE " + getName(table, end) + " PARTITION OF " + table
+                    + " FOR VALUES FROM (" + literal(end.minusDays(1)) + ") TO (" + literal(end) + ")");
+        }
+        queries.add("INSERT INTO " + table + " SELECT * FROM " + defaultPartition + " WHERE " + range);
+        queries.add("DELETE FROM " + defaultPartition + " WHERE " + range);
+        queries.add("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+        execute(connection, queries.toArray(new String[0]));
+    }
+
+    /**
+     * Kept rows are inserted again after the partition is detached, so they land in the default partition.
+     */
+    private void dropPostgresql(Connection connection, String table, String partition, String keep)
+            throws SQLException {
+        List<String> queries = new ArrayList<>();
+        queries.add("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+        if (keep != null) {
+            queries.add("INSERT INTO " + table + " SELECT * FROM " + partition + " WHERE id IN (" + keep + ")");
+        }
+        queries.add("DROP TABLE " + partition);
+        execute(connection, queries.toArray(new String[0]));
+        LOGGER.info("Dropped partition {}", partition);
+    }
+
+    /**
+     * MySQL requires the partitioning column in every unique key, so it is added to the primary key. Range columns
+     * partitioning does not support timestamp columns, which are partitioned by their Unix time instead.
+     */
+    private static boolean isTimestamp(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT data_type FROM information_schema.columns WHERE table_schema = DATABASE() "
+                + "AND table_name = ? AND column_name = ?")) {
+            statement.setString(1, table);
+            statement.setString(2, column);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getString(1).equalsIgnoreCase("timestamp");
+            }
+        }
+    }
+
+    private static String mysqlPartition(String name, LocalDate end, boolean timestamp) {
+        if (end == null) {
+            return "PARTITION " + name + (timestamp ? " VALUES LESS THAN MAXVALUE" : " VALUES LESS THAN (MAXVALUE)");
+        }
+        String bound = timestamp ? "UNIX_TIMESTAMP(" + literal(end) + ")" : literal(end);
+        return "PARTITION " + name + " VALUES LESS THAN (" + bound + ")";
+    }
+
+    private void convertMysql(Connection connection, String table, String column, LocalDate end) throws SQLException {
+        boolean timestamp = isTimestamp(connection, table, column);
+        execute(connection, "ALTER TABLE " + table + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, " + column + ")"
+                + (timestamp ? " PARTITION BY RANGE (UNIX_TIMESTAMP(" + column + "))"
+                        : " PARTITION BY RANGE COLUMNS (" + column + ")")
+                + " (" + mysqlPartition(getName(table, end), end, timestamp)
+                + ", " + mysqlPartition(table + "_pmax", null, timestamp) + ")");
+    }
+
+    private void createMysql(
+            Connection connection, String table, String column, List<LocalDate> ends) throws SQLException {
+        boolean timestamp = isTimestamp(connection, table, column);
+        StringBuilder query = new StringBuilder();
+        query.append("ALTER TABLE ").append(table);
+        query.append(" REORGANIZE PARTITION ").append(table).append("_pmax INTO (");
+        for (LocalDate end : ends) {
+            query.append(mysqlPartition(getName(table, end), end, timestamp)).append(", ");
+        }
+        query.append(mysqlPartition(table + "_pmax", null, timestamp)).append(")");
+        execute(connection, query.toString());
+    }
+
+    /**
+     * MySQL partition changes are not transactional, so kept rows are copied to a table that survives a failure
+     * between dropping the partition and inserting them again. They land in the next partition, which then covers
+     * the dropped range.
+     */
+    private void dropMysql(Connection connection, String table, String partition, String keep) throws SQLException {
+        if (keep != null) {
+            String kept = table + "_kept";
+            execute(connection,
+                    "CREATE TABLE " + kept + " LIKE " + table,
+                    "ALTER TABLE " + kept + " REMOVE PARTITIONING",
+                    "INSERT INTO " + kept + " SELECT * FROM " + table + " PARTITION (" + partition + ")"
+                            + " WHERE id IN (" + keep + ")");
+            execute(connection, "ALTER TABLE " + table + " DROP PARTITION " + partition);
+            restoreKept(connection, table);
+        } else {
+            execute(connection, "ALTER TABLE " + table + " DROP PARTITION " + partition);
+        }
+        LOGGER.info("Dropped partition {}", partition);
+    }
+
+    private void restoreKept(Connection connection, String table) throws SQLException {
+        String kept = table + "_kept";
+        if (exists(connection, "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() "
+                + "AND table_name = ?", kept)) {
+            execute(connection,
+                    "INSERT IGNORE INTO " + table + " SELECT * FROM " + kept,
+                    "DROP TABLE " + kept);
+        }
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,11 @@
 package org.traccar.storage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.traccar.config.Config;
+import org.traccar.metrics.Histogram;
+import org.traccar.metrics.MetricsManager;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Group;
@@ -39,17 +43,37 @@ import java.util.stream.Collectors;
 
 public class DatabaseStorage extends Storage {
 
+    private static final int QUERY_CACHE_SIZE = 1000;
+
+    private record QueryKey(String type, Class<?> clazz, List<String> columns, Object condition, Object order) {
+    }
+
     private final Config config;
     private final DataSource dataSource;
     private final ObjectMapper objectMapper;
     private final String databaseType;
 
+    private final Cache<QueryKey, String> queryCache = Caffeine.newBuilder().maximumSize(QUERY_CACHE_SIZE).build();
+
+    private final Histogram selectMetrics;
+    private final Histogram insertMetrics;
+    private final Histogram updateMetrics;
+    private final Histogram deleteMetrics;
+
     @Inject
-    public DatabaseStorage(Config config, DataSource dataSource, ObjectMapper objectMapper) {
+    public DatabaseStorage(
+            Config config, DataSource dataSource, ObjectMapper objectMapper, MetricsManager metricsManager) {
         this.config = config;
         this.dataSource = dataSource;
         this.objectMapper = objectMapper;
 
+        String name = "traccar_database_query_seconds";
+        String help = "Database statement time including connection acquisition";
+        selectMetrics = metricsManager.histogram(name, help, "statement", "select");
+        insertMetrics = metricsManager.histogram(name, help, "statement", "insert");
+        updateMetrics = metricsManager.histogram(name, help, "statement", "update");
+        deleteMetrics = metricsManager.histogram(name, help, "statement", "delete");
+
         try {
             databaseType = dataSource.getConnection().getMetaData().getDatabaseProductName();
         } catch (SQLException e) {
@@ -59,55 +83,81 @@ public class DatabaseStorage extends Storage {
 
     @Override
     public <T> List<T> getObjects(Class<T> clazz, Request request) throws StorageException {
-        StringBuilder query = new StringBuilder("SELECT ");
-        if (request.getColumns() instanceof Columns.All) {
-            query.append('*');
-        } else {
-            query.append(formatColumns(request.getColumns().getColumns(clazz, "set"), c -> c));
+        List<String> columns = request.getColumns() instanceof Columns.All
+                ? null : request.getColumns().getColumns(clazz, "set");
+        QueryKey key = new QueryKey(
+                "SELECT", clazz, columns, getConditionKey(request.getCondition()), getOrderKey(request.getOrder()));
+        String query = queryCache.getIfPresent(key);
+        if (query == null) {
+            StringBuilder builder = new StringBuilder("SELECT ");
+            if (columns == null) {
+                builder.append('*');
+            } else {
+                builder.append(formatColumns(columns, c -> c));
+            }
+            builder.append(" FROM ").append(getStorageName(clazz));
+            builder.append(formatCondition(request.getCondition()));
+            builder.append(formatOrder(request.getOrder()));
+            query = cacheQuery(key, builder.toString());
         }
-        query.append(" FROM ").append(getStorageName(clazz));
-        query.append(formatCondition(request.getCondition()));
-        query.append(formatOrder(request.getOrder()));
+        long startTime = System.nanoTime();
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query);
             for (Map.Entry<String, Object> variable : getConditionVariables(request.getCondition()).entrySet()) {
                 builder.setValue(variable.getKey(), variable.getValue());
             }
             return builder.executeQuery(clazz);
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            selectMetrics.recordSince(startTime);
         }
     }
 
     @Override
     public <T> long addObject(T entity, Request request) throws StorageException {
         List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
-        StringBuilder query = new StringBuilder("INSERT INTO ");
-        query.append(getStorageName(entity.getClass()));
-        query.append("(");
-        query.append(formatColumns(columns, c -> c));
-        query.append(") VALUES (");
-        query.append(formatColumns(columns, c -> ':' + c));
-        query.append(")");
+        QueryKey key = new QueryKey("INSERT", entity.getClass(), columns, null, null);
+        String query = queryCache.getIfPresent(key);
+        if (query == null) {
+            StringBuilder builder = new StringBuilder("INSERT INTO ");
+            builder.append(getStorageName(entity.getClass()));
+            builder.append("(");
+            builder.append(formatColumns(columns, c -> c));
+            builder.append(") VALUES (");
+            builder.append(formatColumns(columns, c -> ':' + c));
+            builder.append(")");
+            query = cacheQuery(key, builder.toString());
+        }
+        long startTime = System.nanoTime();
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query, true);
             builder.setObject(entity, columns);
             return builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            insertMetrics.recordSince(startTime);
         }
     }
 
     @Override
     public <T> void updateObject(T entity, Request request) throws StorageException {
         List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
-        StringBuilder query = new StringBuilder("UPDATE ");
-        query.append(getStorageName(entity.getClass()));
-        query.append(" SET ");
-        query.append(formatColumns(columns, c -> c + " = :" + c));
-        query.append(formatCondition(request.getCondition()));
+        QueryKey key = new QueryKey(
+                "UPDATE", entity.getClass(), columns, getConditionKey(request.getCondition()), null);
+        String query = queryCache.getIfPresent(key);
+        if (query == null) {
+            StringBuilder builder = new StringBuilder("UPDATE ");
+            builder.append(getStorageName(entity.getClass()));
+            builder.append(" SET ");
+            builder.append(formatColumns(columns, c -> c + " = :" + c));
+            builder.append(formatCondition(request.getCondition()));
+            query = cacheQuery(key, builder.toString());
+        }
+        long startTime = System.nanoTime();
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query);
             builder.setObject(entity, columns);
             for (Map.Entry<String, Object> variable : getConditionVariables(request.getCondition()).entrySet()) {
                 builder.setValue(variable.getKey(), variable.getValue());
@@ -115,22 +165,29 @@ public class DatabaseStorage extends Storage {
             builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            updateMetrics.recordSince(startTime);
         }
     }
 
     @Override
     public void removeObject(Class<?> clazz, Request request) throws StorageException {
-        StringBuilder query = new StringBuilder("DELETE FROM ");
-        query.append(getStorageName(clazz));
-        query.append(formatCondition(request.getCondition()));
+        QueryKey key = new QueryKey("DELETE", clazz, null, getConditionKey(request.getCondition()), null);
+        String query = queryCache.getIfPresent(key);
+        if (query == null) {
+            query = cacheQuery(key, "DELETE FROM " + getStorageName(clazz) + formatCondition(request.getCondition()));
+        }
+        long startTime = System.nanoTime();
         try {
-            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query);
             for (Map.Entry<String, Object> variable : getConditionVariables(request.getCondition()).entrySet()) {
                 builder.setValue(variable.getKey(), variable.getValue());
             }
             builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            deleteMetrics.recordSince(startTime);
         }
     }
 
@@ -149,6 +206,7 @@ public class DatabaseStorage extends Storage {
         }
         Condition combinedCondition = Condition.merge(conditions);
         query.append(formatCondition(combinedCondition));
+        long startTime = System.nanoTime();
         try {
             QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString());
             for (Map.Entry<String, Object> variable : getConditionVariables(combinedCondition).entrySet()) {
@@ -157,6 +215,8 @@ public class DatabaseStorage extends Storage {
             return builder.executePermissionsQuery();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            selectMetrics.recordSince(startTime);
         }
     }
 
@@ -167,6 +227,7 @@ public class DatabaseStorage extends Storage {
         query.append(" VALUES (");
         query.append(permission.get().keySet().stream().map(key -> ':' + key).collect(Collectors.joining(", ")));
         query.append(")");
+        long startTime = System.nanoTime();
         try {
             QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
             for (var entry : permission.get().entrySet()) {
@@ -175,6 +236,8 @@ public class DatabaseStorage extends Storage {
             builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            insertMetrics.recordSince(startTime);
         }
     }
 
@@ -185,6 +248,7 @@ public class DatabaseStorage extends Storage {
         query.append(" WHERE ");
         query.append(permission
                 .get().keySet().stream().map(key -> key + " = :" + key).collect(Collectors.joining(" AND ")));
+        long startTime = System.nanoTime();
         try {
             QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
             for (var entry : permission.get().entrySet()) {
@@ -193,9 +257,55 @@ public class DatabaseStorage extends Storage {
             builder.executeUpdate();
         } catch (SQLException e) {
             throw new StorageException(e);
+        } finally {
+            deleteMetrics.recordSince(startTime);
         }
     }
 
+    private String cacheQuery(QueryKey key, String query) {
+        queryCache.put(key, query);
+        return query;
+    }
+
+    /**
+     * Number of placeholders for an IN list. Sizes are rounded up to a power of two, with the last value repeated, so
+     * lists of different lengths share a few statements instead of producing a new one each.
+     */
+    private static int getInSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private Object getConditionKey(Condition genericCondition) {
+        if (genericCondition == null) {
+            return null;
+        } else if (genericCondition instanceof Condition.Compare condition) {
+            return List.of(condition.getColumn(), condition.getOperator(), condition.getVariable());
+        } else if (genericCondition instanceof Condition.Between condition) {
+            return List.of(condition.getColumn(), condition.getFromVariable(), condition.getToVariable());
+        } else if (genericCondition instanceof Condition.In condition) {
+            return List.of(condition.getColumn(), condition.getVariable(), getInSize(condition.getValues().size()));
+        } else if (genericCondition instanceof Condition.Binary condition) {
+            return List.of(
+                    condition.getOperator(),
+                    getConditionKey(condition.getFirst()),
+                    getConditionKey(condition.getSecond()));
+        } else if (genericCondition instanceof Condition.Permission condition) {
+            return List.of(
+                    condition.getOwnerClass(), condition.getPropertyClass(),
+                    condition.getOwnerId() > 0, condition.getIncludeGroups());
+        } else if (genericCondition instanceof Condition.LatestPositions condition) {
+            return List.of(Condition.LatestPositions.class, condition.getDeviceId() > 0);
+        }
+        throw new IllegalArgumentException("Unsupported condition " + genericCondition.getClass().getName());
+    }
+
+    private Object getOrderKey(Order order) {
+        if (order != null) {
+            return List.of(order.getColumn(), order.getDescending(), order.getLimit());
+        }
+        return null;
+    }
+
     private String getStorageName(Class<?> clazz) throws StorageException {
         StorageName storageName = clazz.getAnnotation(StorageName.class);
         if (storageName == null) {
@@ -213,6 +323,11 @@ public class DatabaseStorage extends Storage {
         } else if (genericCondition instanceof Condition.Between condition) {
             results.put(condition.getFromVariable(), condition.getFromValue());
             results.put(condition.getToVariable(), condition.getToValue());
+        } else if (genericCondition instanceof Condition.In condition) {
+            List<Object> values = condition.getValues();
+            for (int i = 0; i < getInSize(values.size()); i++) {
+                results.put(condition.getVariable(i), values.get(Math.min(i, values.size() - 1)));
+            }
         } else if (genericCondition instanceof Condition.Binary condition) {
             results.putAll(getConditionVariables(condition.getFirst()));
             results.putAll(getConditionVariables(condition.getSecond()));
@@ -260,6 +375,23 @@ public class DatabaseStorage extends Storage {
                 result.append(" AND :");
                 result.append(condition.getToVariable());
 
+            } else if (genericCondition instanceof Condition.In condition) {
+
+                if (condition.getValues().isEmpty()) {
+                    result.append("1 = 0");
+                } else {
+                    result.append(condition.getColumn());
+                    result.append(" IN (");
+                    for (int i = 0; i < getInSize(condition.getValues().size()); i++) {
+                        if (i > 0) {
+                            result.append(", ");
+                        }
+                        result.append(':');
+                        result.append(condition.getVariable(i));
+                    }
+                    result.append(")");
+                }
+
             } else if (genericCondition instanceof Condition.Binary condition) {
 
                 result.append(formatCondition(condition.getFirst(), false));
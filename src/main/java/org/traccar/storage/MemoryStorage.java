@@ -81,6 +81,10 @@ public class MemoryStorage extends Storage {
             int toResult = ((Comparable) toValue).compareTo(condition.getToValue());
             return fromResult >= 0 && toResult <= 0;
 
+        } else if (genericCondition instanceof Condition.In condition) {
+
+            return condition.getValues().contains(retrieveValue(object, condition.getColumn()));
+
         } else if (genericCondition instanceof Condition.Binary condition) {
 
             if (condition.getOperator().equals("AND")) {
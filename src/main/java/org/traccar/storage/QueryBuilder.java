@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,9 @@ package org.traccar.storage;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
@@ -41,16 +44,30 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings("UnusedReturnValue")
 public final class QueryBuilder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryBuilder.class);
 
+    private static final int PARSED_CACHE_SIZE = 1000;
+
+    private static final int GETTER_CACHE_SIZE = 100;
+
+    private static final Cache<String, ParsedQuery> PARSED_CACHE =
+            Caffeine.newBuilder().maximumSize(PARSED_CACHE_SIZE).build();
+
+    private static final Cache<Class<?>, Map<String, Method>> GETTER_CACHE =
+            Caffeine.newBuilder().maximumSize(GETTER_CACHE_SIZE).build();
+
+    private record ParsedQuery(String query, Map<String, List<Integer>> indexMap) {
+    }
+
     private final Config config;
     private final ObjectMapper objectMapper;
 
-    private final Map<String, List<Integer>> indexMap = new HashMap<>();
+    private final Map<String, List<Integer>> indexMap;
     private Connection connection;
     private PreparedStatement statement;
     private final String query;
@@ -64,21 +81,36 @@ public final class QueryBuilder {
         this.query = query;
         this.returnGeneratedKeys = returnGeneratedKeys;
         if (query != null) {
+            ParsedQuery parsedQuery = parseCached(query);
+            indexMap = parsedQuery.indexMap();
             connection = dataSource.getConnection();
-            String parsedQuery = parse(query.trim(), indexMap);
             try {
                 if (returnGeneratedKeys) {
-                    statement = connection.prepareStatement(parsedQuery, Statement.RETURN_GENERATED_KEYS);
+                    statement = connection.prepareStatement(parsedQuery.query(), Statement.RETURN_GENERATED_KEYS);
                 } else {
-                    statement = connection.prepareStatement(parsedQuery);
+                    statement = connection.prepareStatement(parsedQuery.query());
                 }
             } catch (SQLException error) {
                 connection.close();
                 throw error;
             }
+        } else {
+            indexMap = Map.of();
         }
     }
 
+    private static ParsedQuery parseCached(String query) {
+        ParsedQuery parsedQuery = PARSED_CACHE.getIfPresent(query);
+        if (parsedQuery == null) {
+            Map<String, List<Integer>> paramMap = new HashMap<>();
+            String parsed = parse(query.trim(), paramMap);
+            paramMap.replaceAll((name, indexes) -> List.copyOf(indexes));
+            parsedQuery = new ParsedQuery(parsed, Map.copyOf(paramMap));
+            PARSED_CACHE.put(query, parsedQuery);
+        }
+        return parsedQuery;
+    }
+
     private static String parse(String query, Map<String, List<Integer>> paramMap) {
 
         int length = query.length();
@@ -148,11 +180,7 @@ public final class QueryBuilder {
 
     private List<Integer> indexes(String name) {
         name = name.toLowerCase();
-        List<Integer> result = indexMap.get(name);
-        if (result == null) {
-            result = new LinkedList<>();
-        }
-        return result;
+        return indexMap.getOrDefault(name, List.of());
     }
 
     public QueryBuilder setBoolean(String name, boolean value) throws SQLException {
@@ -287,8 +315,7 @@ public final class QueryBuilder {
 
         try {
             for (String column : columns) {
-                Method method = object.getClass().getMethod(
-                        "get" + Character.toUpperCase(column.charAt(0)) + column.substring(1));
+                Method method = getGetter(object.getClass(), column);
                 if (method.getReturnType().equals(boolean.class)) {
                     setBoolean(column, (Boolean) method.invoke(object));
                 } else if (method.getReturnType().equals(int.class)) {
@@ -314,6 +341,16 @@ public final class QueryBuilder {
         return this;
     }
 
+    private static Method getGetter(Class<?> clazz, String column) throws NoSuchMethodException {
+        Map<String, Method> getters = GETTER_CACHE.get(clazz, k -> new ConcurrentHashMap<>());
+        Method method = getters.get(column);
+        if (method == null) {
+            method = clazz.getMethod("get" + Character.toUpperCase(column.charAt(0)) + column.substring(1));
+            getters.put(column, method);
+        }
+        return method;
+    }
+
     private interface ResultSetProcessor<T> {
         void process(T object, ResultSet resultSet) throws SQLException;
     }
@@ -382,11 +419,14 @@ public final class QueryBuilder {
                 }
             });
         } else {
+            JsonDeserialize deserialize = method.getAnnotation(JsonDeserialize.class);
+            Class<?> valueType = deserialize != null && deserialize.as() != Void.class
+                    ? deserialize.as() : parameterType;
             processors.add((object, resultSet) -> {
                 String value = resultSet.getString(name);
                 if (value != null && !value.isEmpty()) {
                     try {
-                        method.invoke(object, objectMapper.readValue(value, parameterType));
+                        method.invoke(object, objectMapper.readValue(value, valueType));
                     } catch (InvocationTargetException | IllegalAccessException | IOException error) {
                         LOGGER.warn("Set property error", error);
                     }
@@ -22,14 +22,24 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public abstract class Columns {
 
+    private static final Map<Class<?>, List<String>> GET_COLUMNS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, List<String>> SET_COLUMNS = new ConcurrentHashMap<>();
+
     public abstract List<String> getColumns(Class<?> clazz, String type);
 
     protected List<String> getAllColumns(Class<?> clazz, String type) {
+        Map<Class<?>, List<String>> cache = type.equals("set") ? SET_COLUMNS : GET_COLUMNS;
+        return cache.computeIfAbsent(clazz, k -> List.copyOf(findColumns(k, type)));
+    }
+
+    private static List<String> findColumns(Class<?> clazz, String type) {
         List<String> columns = new LinkedList<>();
         Method[] methods = clazz.getMethods();
         for (Method method : methods) {
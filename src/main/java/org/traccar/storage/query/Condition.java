@@ -17,6 +17,7 @@ package org.traccar.storage.query;
 
 import org.traccar.model.GroupedModel;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface Condition {
@@ -105,6 +106,38 @@ public interface Condition {
         }
     }
 
+    class In implements Condition {
+        private final String column;
+        private final String variable;
+        private final List<Object> values;
+
+        public In(String column, Collection<?> values) {
+            this(column, column, values);
+        }
+
+        public In(String column, String variable, Collection<?> values) {
+            this.column = column;
+            this.variable = variable;
+            this.values = List.copyOf(values);
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public String getVariable() {
+            return variable;
+        }
+
+        public String getVariable(int index) {
+            return variable + index;
+        }
+
+        public List<Object> getValues() {
+            return values;
+        }
+    }
+
     class Or extends Binary {
         public Or(Condition first, Condition second) {
             super(first, second, "OR");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2023 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -50,6 +50,7 @@ import org.traccar.api.security.SecurityRequestFilter;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.helper.ObjectMapperContextResolver;
+import org.traccar.metrics.MetricsManager;
 
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.ServletException;
@@ -93,6 +94,11 @@ public class WebServer implements LifecycleObject {
             servletHandler.addServlet(new ServletHolder(new ConsoleServlet(config)), "/console/*");
         }
 
+        if (config.getBoolean(Keys.WEB_METRICS)) {
+            servletHandler.addServlet(
+                    new ServletHolder(new MetricsServlet(injector.getInstance(MetricsManager.class))), "/metrics");
+        }
+
         initWebApp(servletHandler);
 
         servletHandler.setErrorHandler(new ErrorHandler() {
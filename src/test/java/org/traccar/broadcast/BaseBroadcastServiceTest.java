@@ -0,0 +1,161 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BaseBroadcastServiceTest {
+
+    private static class TestBroadcastService extends BaseBroadcastService {
+
+        private final int maxFrameSize;
+        private final List<byte[]> frames = new ArrayList<>();
+        private final List<Position> positions = new ArrayList<>();
+        private final List<Event> events = new ArrayList<>();
+        private final List<Long> commands = new ArrayList<>();
+
+        TestBroadcastService(int maxFrameSize) {
+            super(new ObjectMapper());
+            this.maxFrameSize = maxFrameSize;
+            registerListener(new BroadcastInterface() {
+                @Override
+                public void updatePosition(boolean local, Position position) {
+                    positions.add(position);
+                }
+
+                @Override
+                public void updateEvent(boolean local, long userId, Event event) {
+                    events.add(event);
+                }
+
+                @Override
+                public void updateCommand(boolean local, long deviceId) {
+                    commands.add(deviceId);
+                }
+            });
+        }
+
+        @Override
+        protected int getMaxFrameSize() {
+            return maxFrameSize;
+        }
+
+        @Override
+        protected void sendFrame(byte[] frame) {
+            frames.add(frame);
+        }
+
+        void deliverTo(TestBroadcastService other) throws Exception {
+            int sent;
+            do {
+                sent = frames.size();
+                processQueue(0);
+            } while (frames.size() > sent);
+            for (byte[] frame : frames) {
+                assertTrue(frame.length <= maxFrameSize);
+                other.handleFrame(frame, 0, frame.length);
+            }
+            frames.clear();
+        }
+
+    }
+
+    private static Position position(long deviceId) {
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        position.setLatitude(55.75);
+        position.setLongitude(37.61);
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_ODOMETER, 1000L);
+        position.set(Position.KEY_RESULT, "ok");
+        return position;
+    }
+
+    @Test
+    public void testInterest() throws Exception {
+        var first = new TestBroadcastService(4096);
+        var second = new TestBroadcastService(4096);
+
+        second.updateInterest(Set.of(1L));
+        second.deliverTo(first);
+
+        first.updatePosition(true, position(1));
+        first.updatePosition(true, position(2));
+        first.deliverTo(second);
+
+        assertEquals(1, second.positions.size());
+        Position position = second.positions.get(0);
+        assertEquals(1, position.getDeviceId());
+        assertEquals("test", position.getProtocol());
+        assertEquals(55.75, position.getLatitude());
+        assertEquals(true, position.getAttributes().get(Position.KEY_IGNITION));
+        assertEquals(1000L, position.getAttributes().get(Position.KEY_ODOMETER));
+        assertEquals("ok", position.getAttributes().get(Position.KEY_RESULT));
+    }
+
+    @Test
+    public void testChunking() throws Exception {
+        var first = new TestBroadcastService(512);
+        var second = new TestBroadcastService(512);
+
+        second.updateInterest(LongStream.range(0, 100).boxed().collect(Collectors.toSet()));
+        second.deliverTo(first);
+
+        for (long i = 0; i < 100; i++) {
+            first.updatePosition(true, position(i));
+            first.updateEvent(true, 1, new Event(Event.TYPE_ALARM, position(i)));
+        }
+        first.deliverTo(second);
+
+        assertEquals(100, second.positions.size());
+        assertEquals(100, second.events.size());
+    }
+
+    @Test
+    public void testFragments() throws Exception {
+        var first = new TestBroadcastService(256);
+        var second = new TestBroadcastService(256);
+
+        second.updateInterest(Set.of(1L));
+        second.deliverTo(first);
+
+        Position position = position(1);
+        position.set(Position.KEY_RESULT, "x".repeat(2000));
+        first.updatePosition(true, position);
+        first.updateEvent(true, 1, new Event(Event.TYPE_ALARM, position));
+        first.deliverTo(second);
+
+        assertEquals(1, second.positions.size());
+        assertEquals("x".repeat(2000), second.positions.get(0).getString(Position.KEY_RESULT));
+        assertEquals(1, second.events.size());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        var first = new TestBroadcastService(65536);
+        var second = new TestBroadcastService(65536);
+
+        second.updateInterest(Set.of(1L));
+        second.deliverTo(first);
+
+        for (int i = 0; i < 20000; i++) {
+            first.updatePosition(true, position(1));
+        }
+        first.updateCommand(true, 1);
+        first.deliverTo(second);
+
+        assertTrue(second.positions.size() < 20000);
+        assertEquals(List.of(1L), second.commands);
+    }
+
+}
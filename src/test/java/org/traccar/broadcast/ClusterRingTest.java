@@ -0,0 +1,51 @@
+package org.traccar.broadcast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClusterRingTest {
+
+    private static final int DEVICES = 10000;
+
+    @Test
+    public void testDistribution() {
+        var nodes = List.of("127.0.0.1:5201", "127.0.0.1:5202", "127.0.0.1:5203", "127.0.0.1:5204");
+        var ring = new ClusterRing(nodes);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+            counts.merge(ring.getOwner(deviceId), 1, Integer::sum);
+        }
+        assertEquals(nodes.size(), counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > DEVICES / nodes.size() / 2);
+        }
+    }
+
+    @Test
+    public void testStability() {
+        var ring = new ClusterRing(List.of("127.0.0.1:5201", "127.0.0.1:5202", "127.0.0.1:5203"));
+        var sameRing = new ClusterRing(List.of("127.0.0.1:5203", "127.0.0.1:5201", "127.0.0.1:5202"));
+        var largerRing = new ClusterRing(
+                List.of("127.0.0.1:5201", "127.0.0.1:5202", "127.0.0.1:5203", "127.0.0.1:5204"));
+
+        int moved = 0;
+        for (long deviceId = 1; deviceId <= DEVICES; deviceId++) {
+            String owner = ring.getOwner(deviceId);
+            assertEquals(owner, sameRing.getOwner(deviceId));
+            String newOwner = largerRing.getOwner(deviceId);
+            if (!owner.equals(newOwner)) {
+                assertEquals("127.0.0.1:5204", newOwner);
+                moved += 1;
+            }
+        }
+        assertTrue(moved < DEVICES / 2);
+    }
+
+}
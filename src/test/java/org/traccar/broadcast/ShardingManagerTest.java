@@ -0,0 +1,120 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.traccar.ProcessingHandler;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.handler.network.AcknowledgementHandler;
+import org.traccar.model.Position;
+import org.traccar.session.cache.CacheManager;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShardingManagerTest {
+
+    private static final String FIRST = "127.0.0.1:15201";
+    private static final String SECOND = "127.0.0.1:15202";
+
+    private static ShardingManager createManager(
+            String node, ProcessingHandler processingHandler, CacheManager cacheManager, Timer timer) {
+        Config config = new Config();
+        config.setString(Keys.CLUSTER_NODES, FIRST + "," + SECOND);
+        config.setString(Keys.CLUSTER_NODE, node);
+        Injector injector = mock(Injector.class);
+        when(injector.getInstance(ProcessingHandler.class)).thenReturn(processingHandler);
+        return new ShardingManager(config, injector, cacheManager, timer, new ObjectMapper());
+    }
+
+    private static ProcessingHandler createProcessingHandler() throws Exception {
+        ProcessingHandler processingHandler = mock(ProcessingHandler.class);
+        when(processingHandler.isSharable()).thenReturn(true);
+        doAnswer(invocation -> {
+            ChannelHandlerContext ctx = invocation.getArgument(0);
+            ctx.writeAndFlush(new AcknowledgementHandler.EventHandled(invocation.getArgument(1)));
+            return null;
+        }).when(processingHandler).channelRead(any(), any());
+        return processingHandler;
+    }
+
+    private static Position position(long deviceId) {
+        Position position = new Position("test");
+        position.setDeviceId(deviceId);
+        return position;
+    }
+
+    @Test
+    public void testHandoff() throws Exception {
+        var ring = new ClusterRing(List.of(FIRST, SECOND));
+        long[] deviceIds = LongStream.range(1, 1000).filter(id -> ring.getOwner(id).equals(SECOND)).limit(2).toArray();
+        long deviceId = deviceIds[0];
+        long missingDeviceId = deviceIds[1];
+
+        Timer timer = new HashedWheelTimer();
+        CacheManager cacheManager = mock(CacheManager.class);
+        doThrow(new IllegalStateException("Missing device")).when(cacheManager).addDevice(missingDeviceId);
+        ProcessingHandler firstHandler = createProcessingHandler();
+        ProcessingHandler secondHandler = createProcessingHandler();
+        ShardingManager first = createManager(FIRST, firstHandler, mock(CacheManager.class), timer);
+        ShardingManager second = createManager(SECOND, secondHandler, cacheManager, timer);
+        try {
+            first.start();
+
+            Future<Void> held = first.handOff(position(deviceId));
+            Thread.sleep(500);
+            assertFalse(held.isDone());
+
+            second.start();
+            assertTrue(held.await(15, TimeUnit.SECONDS));
+            assertTrue(held.isSuccess());
+            verify(cacheManager).addDevice(deviceId);
+            verify(secondHandler, timeout(1000)).channelRead(
+                    any(), argThat(msg -> msg instanceof Position position && position.getDeviceId() == deviceId));
+
+            Future<Void> processed = first.handOff(position(deviceId));
+            assertTrue(processed.await(5, TimeUnit.SECONDS));
+            assertTrue(processed.isSuccess());
+
+            Future<Void> rejected = first.handOff(position(missingDeviceId));
+            assertTrue(rejected.await(5, TimeUnit.SECONDS));
+            assertFalse(rejected.isSuccess());
+            verify(secondHandler, never()).channelRead(
+                    any(), argThat(msg -> msg instanceof Position position
+                            && position.getDeviceId() == missingDeviceId));
+
+            try (Socket socket = new Socket()) {
+                socket.bind(new InetSocketAddress("127.0.0.2", 0));
+                socket.connect(new InetSocketAddress("127.0.0.1", 15202));
+                socket.setSoTimeout(5000);
+                assertEquals(-1, socket.getInputStream().read());
+            }
+        } finally {
+            first.stop();
+            second.stop();
+            timer.stop();
+        }
+    }
+
+}
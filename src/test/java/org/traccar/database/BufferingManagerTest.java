@@ -0,0 +1,57 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferingManagerTest {
+
+    private static Position position(long deviceId, long time) {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        position.setTime(new Date(time));
+        return position;
+    }
+
+    @Test
+    public void testReordering() throws Exception {
+        var config = new Config();
+        config.setString(Keys.SERVER_BUFFERING_THRESHOLD, "100");
+
+        List<Position> released = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(5);
+        var bufferingManager = new BufferingManager(config, (context, position) -> {
+            released.add(position);
+            latch.countDown();
+        });
+
+        bufferingManager.accept(null, position(1, 3000));
+        bufferingManager.accept(null, position(1, 1000));
+        bufferingManager.accept(null, position(2, 5000));
+        bufferingManager.accept(null, position(1, 2000));
+        bufferingManager.accept(null, position(1, 2000));
+        assertEquals(5, bufferingManager.getBufferedPositions());
+        assertEquals(2, bufferingManager.getBufferedDevices());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, bufferingManager.getBufferedPositions());
+
+        List<Long> times = released.stream()
+                .filter(position -> position.getDeviceId() == 1)
+                .map(position -> position.getFixTime().getTime())
+                .toList();
+        assertEquals(List.of(1000L, 2000L, 2000L, 3000L), times);
+    }
+
+}
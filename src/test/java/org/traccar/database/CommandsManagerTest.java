@@ -0,0 +1,55 @@
+package org.traccar.database;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.broadcast.BroadcastService;
+import org.traccar.model.Command;
+import org.traccar.model.QueuedCommand;
+import org.traccar.session.ConnectionManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandsManagerTest {
+
+    private static QueuedCommand queuedCommand(long deviceId) {
+        QueuedCommand command = new QueuedCommand();
+        command.setDeviceId(deviceId);
+        command.setType(Command.TYPE_CUSTOM);
+        return command;
+    }
+
+    @Test
+    public void testQueuedDevices() throws Exception {
+        var storage = mock(Storage.class);
+        when(storage.getObjects(eq(QueuedCommand.class), any(Request.class))).thenReturn(List.of(queuedCommand(1)));
+
+        var commandsManager = new CommandsManager(
+                storage, null, null, mock(ConnectionManager.class), mock(BroadcastService.class),
+                mock(NotificationManager.class));
+        verify(storage, times(1)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        assertTrue(commandsManager.readQueuedCommands(2).isEmpty());
+        verify(storage, times(1)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        assertEquals(1, commandsManager.readQueuedCommands(1).size());
+        verify(storage, times(2)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        assertTrue(commandsManager.readQueuedCommands(1).isEmpty());
+        verify(storage, times(2)).getObjects(eq(QueuedCommand.class), any(Request.class));
+
+        commandsManager.updateCommand(false, 2);
+        commandsManager.readQueuedCommands(2);
+        verify(storage, times(3)).getObjects(eq(QueuedCommand.class), any(Request.class));
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.traccar.database;
+
+import io.netty.util.Timer;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
+import org.traccar.storage.Storage;
+import org.traccar.storage.query.Request;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceLookupServiceTest {
+
+    private static Device device(long id, String uniqueId) {
+        Device device = new Device();
+        device.setId(id);
+        device.setUniqueId(uniqueId);
+        return device;
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        var config = new Config();
+        config.setString(Keys.DATABASE_DEVICE_INDEX, "true");
+        var storage = mock(Storage.class);
+        when(storage.getObjects(eq(Device.class), any(Request.class))).thenReturn(List.of(device(1, "123")));
+
+        var deviceLookupService = new DeviceLookupService(config, storage, mock(Timer.class), mock(CacheManager.class));
+
+        assertEquals(1, deviceLookupService.lookup(new String[] {"456", "123"}).getId());
+        verify(storage, never()).getObject(eq(Device.class), any(Request.class));
+
+        when(storage.getObject(eq(Device.class), any(Request.class))).thenReturn(device(1, "789"));
+        deviceLookupService.invalidateObject(false, Device.class, 1, ObjectOperation.UPDATE);
+        assertEquals(1, deviceLookupService.lookup(new String[] {"789"}).getId());
+        verify(storage, times(1)).getObject(eq(Device.class), any(Request.class));
+
+        deviceLookupService.invalidateObject(false, Device.class, 1, ObjectOperation.DELETE);
+        when(storage.getObject(eq(Device.class), any(Request.class))).thenReturn(null);
+        assertNull(deviceLookupService.lookup(new String[] {"789"}));
+        assertNull(deviceLookupService.lookup(new String[] {"123"}));
+        verify(storage, times(3)).getObject(eq(Device.class), any(Request.class));
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.traccar.database;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.client.Client;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.storage.Storage;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class StatisticsManagerTest {
+
+    @Test
+    public void testCounters() {
+        var statisticsManager = new StatisticsManager(
+                new Config(), mock(Storage.class), mock(Client.class), new ObjectMapper());
+
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            statisticsManager.registerMessageReceived();
+            statisticsManager.registerMessageStored(i % 10 + 1, i % 2 == 0 ? "gps103" : "osmand");
+        });
+        statisticsManager.updateRates();
+
+        assertEquals(1000, statisticsManager.messageStoredCount());
+        assertEquals(100, statisticsManager.messageStoredCount(1));
+
+        var statistics = statisticsManager.getLiveStatistics();
+        assertEquals(1000L, statistics.get("messagesReceived"));
+        assertEquals(10, statistics.get("activeDevices"));
+        var protocolRates = (Map<?, ?>) statistics.get("protocolRates");
+        assertTrue((Double) protocolRates.get("gps103") > 0);
+    }
+
+}
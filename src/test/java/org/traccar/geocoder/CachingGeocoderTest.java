@@ -0,0 +1,78 @@
+package org.traccar.geocoder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.database.StatisticsManager;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CachingGeocoderTest {
+
+    private static class CountingGeocoder implements Geocoder {
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+            String address = "address " + requests.incrementAndGet();
+            if (callback != null) {
+                callback.onSuccess(address);
+                return null;
+            }
+            return address;
+        }
+
+        @Override
+        public void setStatisticsManager(StatisticsManager statisticsManager) {
+        }
+
+    }
+
+    @Test
+    public void testCells() {
+        var source = new CountingGeocoder();
+        var geocoder = new CachingGeocoder(source, 100, 3, null);
+
+        assertEquals("address 1", geocoder.getAddress(10.0001, 20.0001, null));
+        assertEquals("address 1", geocoder.getAddress(10.0002, 20.0002, null));
+        assertEquals("address 2", geocoder.getAddress(10.0100, 20.0001, null));
+        assertEquals("address 3", geocoder.getAddress(-10.0001, -20.0001, null));
+
+        String[] result = new String[1];
+        geocoder.getAddress(10.0100, 20.0001, new Geocoder.ReverseGeocoderCallback() {
+            @Override
+            public void onSuccess(String address) {
+                result[0] = address;
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+            }
+        });
+        assertEquals("address 2", result[0]);
+        assertEquals(3, source.requests.get());
+    }
+
+    @Test
+    public void testFile(@TempDir Path directory) {
+        String file = directory.resolve("geocoder.cache").toString();
+
+        var first = new CachingGeocoder(new CountingGeocoder(), 2, 4, file);
+        for (int i = 0; i < 10; i++) {
+            first.getAddress(i, i, null);
+        }
+
+        var source = new CountingGeocoder();
+        var second = new CachingGeocoder(source, 100, 4, file);
+        second.getAddress(9, 9, null);
+        assertEquals(0, source.requests.get());
+
+        var third = new CachingGeocoder(source, 100, 5, file);
+        third.getAddress(9, 9, null);
+        assertEquals(1, source.requests.get());
+    }
+
+}
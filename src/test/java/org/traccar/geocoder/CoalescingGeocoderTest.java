@@ -0,0 +1,76 @@
+package org.traccar.geocoder;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.database.StatisticsManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoalescingGeocoderTest {
+
+    private static class DeferredGeocoder implements Geocoder {
+
+        private final List<ReverseGeocoderCallback> requests = new ArrayList<>();
+
+        @Override
+        public String getAddress(double latitude, double longitude, ReverseGeocoderCallback callback) {
+            requests.add(callback);
+            return null;
+        }
+
+        @Override
+        public void setStatisticsManager(StatisticsManager statisticsManager) {
+        }
+
+    }
+
+    private static class ResultCallback implements Geocoder.ReverseGeocoderCallback {
+
+        private boolean completed;
+        private String address;
+
+        @Override
+        public void onSuccess(String address) {
+            completed = true;
+            this.address = address;
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            completed = true;
+        }
+
+    }
+
+    @Test
+    public void testCoalescing() {
+        var source = new DeferredGeocoder();
+        var geocoder = new CoalescingGeocoder(source, 4, 1);
+
+        var first = new ResultCallback();
+        var second = new ResultCallback();
+        var limited = new ResultCallback();
+        geocoder.getAddress(10.00001, 20.00001, first);
+        geocoder.getAddress(10.00002, 20.00002, second);
+        geocoder.getAddress(30, 40, limited);
+
+        assertEquals(1, source.requests.size());
+        assertTrue(limited.completed);
+        assertNull(limited.address);
+
+        source.requests.get(0).onSuccess("address");
+        assertEquals("address", first.address);
+        assertEquals("address", second.address);
+
+        var next = new ResultCallback();
+        geocoder.getAddress(30, 40, next);
+        assertEquals(2, source.requests.size());
+        source.requests.get(1).onFailure(new RuntimeException());
+        assertTrue(next.completed);
+    }
+
+}
@@ -0,0 +1,164 @@
+package org.traccar.geolocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.traccar.model.CellTower;
+import org.traccar.model.Network;
+import org.traccar.model.WifiAccessPoint;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingGeolocationProviderTest {
+
+    private static class CountingGeolocationProvider implements GeolocationProvider {
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public void getLocation(Network network, LocationProviderCallback callback) {
+            int request = requests.incrementAndGet();
+            callback.onSuccess(request, request, 100);
+        }
+
+    }
+
+    private static class ResultCallback implements GeolocationProvider.LocationProviderCallback {
+
+        private double[] result;
+
+        @Override
+        public void onSuccess(double latitude, double longitude, double accuracy) {
+            result = new double[] {latitude, longitude, accuracy};
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+        }
+
+    }
+
+    private static Network network(String... macAddresses) {
+        Network network = new Network(CellTower.from(250, 1, 100, 12345));
+        for (String macAddress : macAddresses) {
+            network.addWifiAccessPoint(WifiAccessPoint.from(macAddress, -60));
+        }
+        return network;
+    }
+
+    @Test
+    public void testKeys() {
+        assertEquals(0x001122334455L, NetworkKeys.wifi("00:11:22:33:44:55"));
+        assertEquals(0x001122334455L, NetworkKeys.wifi("00-11-22-33-44-55"));
+        assertNull(NetworkKeys.wifi("02:11:22:33:44:55"));
+        assertNull(NetworkKeys.wifi("00:11:22"));
+        assertEquals(3, NetworkKeys.getKeys(network("00:11:22:33:44:55", "00:11:22:33:44:66")).length);
+    }
+
+    @Test
+    public void testOverlap() {
+        var source = new CountingGeolocationProvider();
+        var provider = new CachingGeolocationProvider(source, 100, 60, 0.5, null);
+
+        var first = new ResultCallback();
+        provider.getLocation(network("00:11:22:33:44:55", "00:11:22:33:44:66"), first);
+        assertEquals(1, first.result[0]);
+
+        var same = new ResultCallback();
+        Network reordered = new Network();
+        reordered.addWifiAccessPoint(WifiAccessPoint.from("00:11:22:33:44:66", -80));
+        reordered.addWifiAccessPoint(WifiAccessPoint.from("00:11:22:33:44:55", -40));
+        provider.getLocation(reordered, same);
+        assertEquals(1, same.result[0]);
+
+        var overlap = new ResultCallback();
+        provider.getLocation(network("00:11:22:33:44:55", "00:11:22:33:44:77"), overlap);
+        assertEquals(1, overlap.result[0]);
+        assertEquals(1, source.requests.get());
+
+        var partial = new ResultCallback();
+        provider.getLocation(network("00:11:22:33:44:55", "00:11:22:33:44:77", "00:11:22:33:44:88"), partial);
+        assertEquals(2, partial.result[0]);
+
+        var moved = new ResultCallback();
+        provider.getLocation(network("00:11:22:33:44:66", "00:11:22:33:44:88"), moved);
+        assertEquals(3, moved.result[0]);
+
+        var cellOnly = new ResultCallback();
+        provider.getLocation(network(), cellOnly);
+        assertEquals(4, cellOnly.result[0]);
+        provider.getLocation(network(), cellOnly);
+        assertEquals(4, cellOnly.result[0]);
+        assertEquals(4, source.requests.get());
+    }
+
+    @Test
+    public void testTimeout() {
+        var source = new CountingGeolocationProvider();
+        var provider = new CachingGeolocationProvider(source, 100, -1, 0.5, null);
+
+        provider.getLocation(network("00:11:22:33:44:55"), new ResultCallback());
+        var expired = new ResultCallback();
+        provider.getLocation(network("00:11:22:33:44:55"), expired);
+        assertEquals(2, expired.result[0]);
+    }
+
+    @Test
+    public void testFile(@TempDir Path directory) {
+        String file = directory.resolve("geolocation.cache").toString();
+
+        var first = new CachingGeolocationProvider(new CountingGeolocationProvider(), 100, 60, 0.5, file);
+        first.getLocation(network("00:11:22:33:44:55"), new ResultCallback());
+
+        var source = new CountingGeolocationProvider();
+        var second = new CachingGeolocationProvider(source, 100, 60, 0.5, file);
+        var result = new ResultCallback();
+        second.getLocation(network("00:11:22:33:44:55"), result);
+        assertNotNull(result.result);
+        assertEquals(0, source.requests.get());
+    }
+
+    @Test
+    public void testOffline(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("cells.csv");
+        Files.write(file, List.of(
+                "radio,mcc,net,area,cell,unit,lon,lat,range,samples,changeable,created,updated,averageSignal",
+                "GSM,250,1,100,12345,0,37.617,55.755,1000,10,1,1459692045,1459692045,0",
+                "LTE,250,1,200,54321,0,30.315,59.939,500,10,1,1459692045,1459692045,0"));
+
+        var source = new CountingGeolocationProvider();
+        var provider = new OfflineGeolocationProvider(file.toString(), source, 1);
+
+        var known = new ResultCallback();
+        provider.getLocation(new Network(CellTower.from(250, 1, 100, 12345)), known);
+        assertEquals(55.755, known.result[0], 0.000001);
+        assertEquals(37.617, known.result[1], 0.000001);
+        assertEquals(1000, known.result[2]);
+        assertEquals(0, source.requests.get());
+
+        var other = new ResultCallback();
+        provider.getLocation(new Network(CellTower.from(250, 1, 200, 54321)), other);
+        assertEquals(59.939, other.result[0], 0.000001);
+
+        var unknown = new ResultCallback();
+        provider.getLocation(new Network(CellTower.from(250, 1, 100, 99999)), unknown);
+        assertEquals(1, source.requests.get());
+
+        var wifi = new ResultCallback();
+        Network network = new Network(CellTower.from(250, 1, 100, 12345));
+        network.addWifiAccessPoint(WifiAccessPoint.from("00:11:22:33:44:55", -60));
+        provider.getLocation(network, wifi);
+        assertEquals(2, wifi.result[0]);
+        assertEquals(2, source.requests.get());
+
+        assertTrue(Files.exists(directory.resolve("cells.csv.index")));
+    }
+
+}
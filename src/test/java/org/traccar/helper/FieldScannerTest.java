@@ -0,0 +1,242 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.protocol.FreedomProtocolDecoder;
+import org.traccar.protocol.Gl200TextProtocolDecoder;
+import org.traccar.protocol.Gps103ProtocolDecoder;
+import org.traccar.protocol.Tk103ProtocolDecoder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FieldScannerTest {
+
+    private void verify(FieldScanner scanner, String input) {
+        Pattern pattern = Pattern.compile(scanner.pattern(), Pattern.DOTALL);
+        String message = scanner.pattern() + " on " + input;
+
+        Matcher expected = pattern.matcher(input);
+        FieldScanner.Match actual = scanner.matcher(input);
+        boolean matches = expected.matches();
+        assertEquals(matches, actual.matches(), message);
+        if (matches) {
+            verifyGroups(expected, actual, message);
+        }
+
+        expected = pattern.matcher(input);
+        actual = scanner.matcher(input);
+        boolean found;
+        do {
+            found = expected.find();
+            assertEquals(found, actual.find(), message);
+            if (found) {
+                verifyGroups(expected, actual, message);
+            }
+        } while (found);
+    }
+
+    private void verifyGroups(Matcher expected, FieldScanner.Match actual, String message) {
+        assertEquals(expected.groupCount(), actual.groupCount(), message);
+        for (int i = 0; i <= expected.groupCount(); i++) {
+            assertEquals(expected.start(i), actual.start(i), message);
+            assertEquals(expected.end(i), actual.end(i), message);
+            assertEquals(expected.group(i), actual.group(i), message);
+        }
+    }
+
+    private void verify(String expression, String... inputs) {
+        FieldScanner scanner = FieldScanner.compile(expression);
+        for (String input : inputs) {
+            verify(scanner, input);
+        }
+    }
+
+    private void verifyDecoder(Class<?> decoderClass, String... messages) throws Exception {
+        List<FieldScanner> scanners = new ArrayList<>();
+        for (Field field : decoderClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == FieldScanner.class) {
+                field.setAccessible(true);
+                scanners.add((FieldScanner) field.get(null));
+            }
+        }
+        assertFalse(scanners.isEmpty());
+        for (String message : messages) {
+            for (FieldScanner scanner : scanners) {
+                for (int i = 0; i <= message.length(); i++) {
+                    verify(scanner, message.substring(0, i));
+                }
+                verify(scanner, message + "\r\n");
+                verify(scanner, message + "\n");
+                verify(scanner, message.replace(',', ';'));
+            }
+        }
+    }
+
+    @Test
+    public void testSyntax() {
+
+        verify("a\\.b[0-9a-fA-F]{2}\\d\\D\\s\\S\\w\\W\\t\\x41\\u0042\\0103\\$\\[\\]\\(\\)\\|",
+                "a.bF01x Z_-\tABC$[]()|", "a.bF01x Z_-\tABC$[]()", "aXbF01x Z_-\tABC$[]()|");
+
+        verify("[^,;]+[,;][\\d.-]*[-a][a-][\\\\\\]]",
+                "abc;1.5-aa-\\", "abc;1.5-aa-]", "abc,-1-a", "abc,,--]");
+
+        verify("(a)(?:b(c)|(d))(e)?", "abce", "ad", "abcx", "abd");
+
+        verify(".{6}|.{10}", "123456", "1234567890", "1234567", "");
+
+        verify("([^,]*),(.)\\S", "\u00e9,\u00fc\u20ac", "\u65e5\u672c,xy", "a,\u00e9 ");
+    }
+
+    @Test
+    public void testPriority() {
+
+        verify("(a|ab)(c|bcd)(d*)", "abcd", "abcdd", "acd");
+
+        verify("(a*)(a*?)(a+?)(a?)", "", "a", "aa", "aaaa");
+
+        verify("(\\d{1,2})(\\d?)(\\d*)(x)?", "1", "12", "123", "1234x");
+
+        verify("(?:(a)|b)*(c)?", "ab", "ba", "abac", "c", "");
+
+        verify("(\\d+),?(\\d+)?(?:,(\\d+))?", "1,2,3", "12", "1,,3", "123,456");
+
+        verify("(.*?)(x*),", "abxx,", "xx,xx,", ",");
+    }
+
+    @Test
+    public void testEnd() {
+
+        verify("([^$]*)\\$?$", "abc", "abc$", "abc\n", "abc\r\n", "abc\r", "abc\n\n", "abc\u2028", "abc\r\n\n", "\n");
+
+        verify("(.*)$", "abc", "abc\n", "abc\r\n", "abc\r");
+
+        verify("a$\\s*", "a", "a\n", "a\r\n", "a \n");
+
+        verify("^(a)|b$|^$", "a", "ab", "ba", "", "\n");
+    }
+
+    @Test
+    public void testFind() {
+
+        verify("(\\d+);", "1;22;x;333;", ";;", "");
+
+        verify("x*", "axxb", "", "xx");
+
+        verify("(?:a|)", "aab");
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("(?=a)"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("(?i)a"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("(a)\\1"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("a++"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("[a[b]]"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("[a&&b]"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("\\p{Alpha}"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("a{2"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("(a"));
+        assertThrows(IllegalArgumentException.class, () -> FieldScanner.compile("a)"));
+    }
+
+    @Test
+    public void testParser() {
+        FieldScanner scanner = new PatternBuilder()
+                .number("(d+),(x+),(d+.d+)?,")
+                .expression("([^,]*)")
+                .compileScanner();
+        Parser parser = new Parser(scanner, "42,ff,,name");
+        assertTrue(parser.matches());
+        assertEquals(42, parser.nextInt(0));
+        assertEquals(255, parser.nextHexInt(0));
+        assertFalse(parser.hasNext());
+        assertEquals("name", parser.next());
+    }
+
+    @Test
+    public void testGl200Text() throws Exception {
+        verifyDecoder(Gl200TextProtocolDecoder.class,
+                "+RESP:GTINF,359464030073766,8938003990320469804f,18,99,100,1,0,+2.00,0,20131018084015,00EE,01030"
+                + "90402",
+                "+RESP:GTVER,1A0800,860599000773978,GL300,GL300,0A03,0103,20161007041531,10F8$",
+                "+RESP:GTOBD,1F0109,864251020135483,,gv500,0,78FFFF,,1,12613,,,,,,,,,,,,,,1286,0,0.0,0,17.1,3.379"
+                + "630,6.529701,20150813074639,0621,0030,51C0,A2B3,00,0.0,20150813074641,A7E6$",
+                "+BUFF:GTFRI,2E0503,861106050005423,,,0,1,,,,,,,,,,,,0,0,,98,1,0,,,20200101000001,0083$",
+                "+RESP:GTLSW,300500,860599002636595,,0,0,0,0.0,0,2886.5,-78.467145,-0.165335,20180518221815,,,,,,"
+                + "20180518221817,B6FD$",
+                "+RESP:GTIDA,06020A,862170013895931,,,D2C4FBC5,1,1,1,0.8,0,22.2,117.198630,31.845229,201208021216"
+                + "26,0460,0000,5663,2BB9,00,0.0,,,,,20120802121627,008E$",
+                "+RESP:GTWIF,210102,354524044484948,,1,08626693fb98,-36,,,,,,,,97,20170119071300,05E3$",
+                "+RESP:GTGSM,400201,862365030025161,STR,0234,0015,003a,62a2,16,,0234,0015,003a,56a2,14,,0234,0015"
+                + ",003a,062a,13,,0234,0015,003a,32d9,11,,0234,0015,003a,56a0,11,,,,,,,,0234,0015,003a,7489,17,,201"
+                + "70219200048,0033$",
+                "+RESP:GTPNA,F50201,866425030235982,GL300M,20190208124909,0BD5$",
+                "+RESP:GTDAR,F10406,865284049582228,,4,0,,,1,18.5,0,129.4,114.015430,22.537279,20210922004634,046"
+                + "0,0000,27BD,0DFC,,,,20210922004635,082B$",
+                "+RESP:GTDTT,410502,864802030541621,,,,1,35,45637561747261636b0d0a434f4d422c302c39342e302c2d312e3"
+                + "02c2c2c4844430d0a,20230421034626,EA2E$",
+                "+RESP:GTBAA,F1040C,862599050497393,GV350M,FF,3,0,04,000A,780541256AE9,3065,0,0.0,213,2908.3,-78."
+                + "691944,-0.951426,20230511173150,,,,,,20230511175001,0159$",
+                "+RESP:GTBID,C20105,866833040163013,GV350M,1,0,000A,B80EA11FF800,2934,0,0.0,0,1506.5,-99.192686,1"
+                + "8.932709,20221026025339,0334,0020,0232,029D4E02,,20221026181026,9F1D$",
+                "+RESP:GTSTT,110100,358688000000158,,41,0,4.3,92,70.0,121.354335,31.222073,20110214013254,0460,00"
+                + "00,18d8,6141,,20110214093254,0022$",
+                "+ACK:GTGEO,1A0102,135790246811220,,0,0008,20100310172830,11F0",
+                "+RESP:GTSOS,020102,135790246811220,,0,0,1,1,4.3,92,70.0,121.354335,31.222073,20090214013254,0460"
+                + ",0000,18d8,6141,00,,20090214093254,11F0$");
+    }
+
+    @Test
+    public void testGps103() throws Exception {
+        verifyDecoder(Gps103ProtocolDecoder.class,
+                "imei:865456055519122,sensor alarm,2208011920,,L,;",
+                "imei:868683026321020,tracker,181217080106,,F,080102.000,A,3227.3057,N,11649.4754,W,0.00,0,,0,0,0"
+                + ".00%,0,+11;",
+                "imei:359710048977327,OBD,180301094003,5000000,0.00,0.00,98,18,68.63%,55,25.10%,1368,14.24,,,,;",
+                "imei:353451044508750,oil 51.67,0809231929,,F,055403.000,A,2233.1870,N,11354.3067,E,0.00,,;",
+                "imei:359710049042014,001,160615040011,,F,040011.000,A,2833.0957,N,07711.9465,E,0.01,215.33,,0,,,"
+                + ",;",
+                "imei:359710041100000,tracker,000000000,,L,,,fa8,,c9af,,,,,0,0,0.00%,,",
+                "imei:869039001186913,tracker,1308282156,0,F,215630.000,A,5602.11015,N,9246.30767,E,1.4,,175.9,",
+                "imei:012497000431811,tracker,1210260609,,F,220925.000,A,0845.5500,N,07024.7673,W,0.00,,",
+                "imei:359586015829802,stockade,0809231429,13554900601,F,062947.294,A,2234.4026,N,11354.3277,E,0.0"
+                + "0,",
+                "imei:359710041641581,acc alarm,1402231159,,F,065907.000,A,2456.2591,N,06708.8335,E,7.53,76.10,,1"
+                + ",0,0.03%,,");
+    }
+
+    @Test
+    public void testTk103() throws Exception {
+        verifyDecoder(Tk103ProtocolDecoder.class,
+                "(007030201454BS5190:02150000753001DC,91:0EE8060EDC0A01DC,92:42014201DC0A01DC,93:00010127000037C8"
+                + ",94:0E01000002000000,95:020EE10EE20EE800030EE40EE00EE700040EDD0EE40EE400050EDC0EDF0EE400,96:0142"
+                + "000000000000,97:0000000000000000,98:0000000000000000)",
+                "(027023361470BV005J6RW2H53HL066029)",
+                "(007611121184BR00170816A2401.5217N07447.0788E000.0221352232.340000004FL0030F14F)",
+                "(864768010869060,DW30,050117,A,5135.82713N,00001.17918E,0.089,154745,000.0,43.40,12)",
+                "(088046338039BP05000088046338039160727A3354.7768N03540.7258E000.0140309065.1000000000L00BEB0D4+0"
+                + "17.3)",
+                "(088047365460BR00151024A2555.3531S02855.3329E004.7055148276.1701000000L00009AA3)",
+                "(035988863964BP05000035988863964110524A4241.7977N02318.7561E000.0123536356.5100000000L000946BB)",
+                "(012345678901BP05000012345678901130520A3439.9629S05826.3504W000.1175622323.8700000000L000450AC)",
+                "(013632651491,ZC07,040613,A,2234.0297N,11405.9101E,000.0,040137,178.48)",
+                "(864555555555555,DW3B,131117,A,5544.02870N,01315.08194E,1.597,223707,291.65,0.10,8)");
+    }
+
+    @Test
+    public void testFreedom() throws Exception {
+        verifyDecoder(FreedomProtocolDecoder.class,
+                "IMEI,353358011714362,2014/05/22, 20:49:32, N, Lat:4725.9624, E, Lon:01912.5483, Spd:5.05");
+    }
+
+}
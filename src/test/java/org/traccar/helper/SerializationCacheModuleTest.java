@@ -0,0 +1,60 @@
+package org.traccar.helper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.traccar.forward.PositionData;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SerializationCacheModuleTest {
+
+    private final ObjectMapper expectedMapper = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper cachingMapper = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .registerModule(new SerializationCacheModule());
+
+    private void verify(Object value) throws Exception {
+        assertEquals(expectedMapper.writeValueAsString(value), cachingMapper.writeValueAsString(value));
+        assertEquals(expectedMapper.writeValueAsString(value), cachingMapper.writeValueAsString(value));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Position position = new Position("test");
+        position.setDeviceId(1);
+        position.setTime(new Date(0));
+        position.setLatitude(10);
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_ODOMETER, 100L);
+
+        PositionData positionData = new PositionData();
+        positionData.setPosition(position);
+        positionData.setDevice(new Device());
+
+        verify(position);
+        verify(position.getAttributes());
+        verify(positionData);
+        verify(Map.of("positions", List.of(position)));
+
+        position.set(Position.KEY_IGNITION, false);
+        verify(position);
+        verify(position.getAttributes());
+
+        position.getAttributes().remove(Position.KEY_ODOMETER);
+        verify(positionData);
+
+        position.setId(5);
+        verify(position);
+        verify(Map.of("positions", List.of(position)));
+    }
+
+}
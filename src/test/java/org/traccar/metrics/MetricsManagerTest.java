@@ -0,0 +1,41 @@
+package org.traccar.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsManagerTest {
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, Histogram.bucket(0));
+        assertEquals(0, Histogram.bucket(1024));
+        assertEquals(1, Histogram.bucket(1025));
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        var metricsManager = new MetricsManager();
+        var histogram = metricsManager.histogram("test_seconds", "Test", "stage", "decode");
+        histogram.record(500);
+        histogram.record(2_000_000);
+        metricsManager.counter("test_total", "Test").add(3);
+        metricsManager.gauge("test_value", "Test", () -> 1.5);
+
+        var writer = new StringWriter();
+        metricsManager.write(writer);
+        String result = writer.toString();
+
+        assertTrue(result.contains("# TYPE test_seconds histogram\n"));
+        assertTrue(result.contains("test_seconds_bucket{stage=\"decode\",le=\"1.024E-6\"} 1\n"));
+        assertTrue(result.contains("test_seconds_bucket{stage=\"decode\",le=\"+Inf\"} 2\n"));
+        assertTrue(result.contains("test_seconds_count{stage=\"decode\"} 2\n"));
+        assertTrue(result.contains("test_total 3\n"));
+        assertTrue(result.contains("test_value 1.5\n"));
+    }
+
+}
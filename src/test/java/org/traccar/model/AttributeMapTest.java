@@ -0,0 +1,130 @@
+package org.traccar.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttributeMapTest {
+
+    @Test
+    public void testTypes() {
+        Map<String, Object> map = new AttributeMap();
+        map.put("integer", 1);
+        map.put("long", 2L);
+        map.put("double", -0.0);
+        map.put("boolean", true);
+        map.put("string", "text");
+        map.put("short", (short) 3);
+        map.put("null", null);
+
+        assertEquals(Integer.valueOf(1), map.get("integer"));
+        assertEquals(Long.valueOf(2), map.get("long"));
+        assertEquals(Double.valueOf(-0.0), map.get("double"));
+        assertEquals(Boolean.TRUE, map.get("boolean"));
+        assertEquals("text", map.get("string"));
+        assertEquals(Short.valueOf((short) 3), map.get("short"));
+        assertTrue(map.containsKey("null"));
+        assertNull(map.get("null"));
+        assertFalse(map.containsKey("missing"));
+
+        assertEquals(1, map.put("integer", "replaced"));
+        assertEquals("replaced", map.put("integer", 5));
+        assertEquals(5, map.get("integer"));
+        assertEquals(List.of("integer", "long", "double", "boolean", "string", "short", "null"),
+                new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testTypedAccessors() {
+        AttributeMap map = new AttributeMap();
+        map.set("integer", 7);
+        map.set("long", 1L << 40);
+        map.set("double", 2.5);
+        map.set("boolean", true);
+        map.put("string", "12");
+        map.put("short", (short) 3);
+
+        assertEquals(Integer.valueOf(7), map.get("integer"));
+        assertEquals(Long.valueOf(1L << 40), map.get("long"));
+        assertEquals(Double.valueOf(2.5), map.get("double"));
+        assertEquals(Boolean.TRUE, map.get("boolean"));
+
+        assertEquals(7.0, map.getDouble("integer", 0));
+        assertEquals(2, map.getInteger("double", 0));
+        assertEquals(1L << 40, map.getLong("long", 0));
+        assertEquals(12, map.getInteger("string", 0));
+        assertEquals(3.0, map.getDouble("short", 0));
+        assertTrue(map.getBoolean("boolean", false));
+        assertFalse(map.getBoolean("integer", true));
+        assertEquals(-1, map.getInteger("missing", -1));
+
+        map.set("integer", 1.5);
+        assertEquals(Double.valueOf(1.5), map.get("integer"));
+        assertEquals(List.of("integer", "long", "double", "boolean", "string", "short"),
+                new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testDeserialize() throws Exception {
+        Position position = new ObjectMapper().readValue("{\"attributes\":{\"sat\":5,\"fuel\":1.5}}", Position.class);
+        assertInstanceOf(AttributeMap.class, position.getAttributes());
+        assertEquals(5, position.getInteger(Position.KEY_SATELLITES));
+        assertEquals(1.5, position.getDouble(Position.KEY_FUEL_LEVEL));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(1);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        Map<String, Object> actual = new AttributeMap();
+        for (int i = 0; i < 20000; i++) {
+            String key = "key" + random.nextInt(40);
+            switch (random.nextInt(6)) {
+                case 0, 1 -> {
+                    Object value = switch (random.nextInt(4)) {
+                        case 0 -> random.nextInt();
+                        case 1 -> random.nextDouble();
+                        case 2 -> random.nextBoolean();
+                        default -> String.valueOf(random.nextLong());
+                    };
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                }
+                case 2 -> assertEquals(expected.remove(key), actual.remove(key));
+                case 3 -> {
+                    Iterator<Map.Entry<String, Object>> iterator = actual.entrySet().iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, Object> entry = iterator.next();
+                        if (entry.getKey().equals(key)) {
+                            iterator.remove();
+                        }
+                    }
+                    expected.remove(key);
+                }
+                case 4 -> {
+                    if (random.nextInt(50) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    }
+                }
+                default -> assertEquals(expected.get(key), actual.get(key));
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        assertEquals(expected, new AttributeMap(expected));
+    }
+
+}
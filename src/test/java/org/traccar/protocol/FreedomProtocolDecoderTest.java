@@ -17,6 +17,10 @@ public class FreedomProtocolDecoderTest extends ProtocolTest {
         verifyPosition(decoder, text(
                 "IMEI,353358011714362,2014/05/22, 20:49:32, N, Lat:4725.9624, E, Lon:01912.5483, Spd:5.05"));
 
+        verifyPosition(decoder, buffer(
+                "IMEI,353358011714362,2014/05/22, 20:49:32, N, Lat:4725.9624, E, Lon:01912.5483, Spd:5.05"),
+                position("2014-05-22 20:49:32.000", true, 47.43271, 19.20914));
+
     }
 
 }
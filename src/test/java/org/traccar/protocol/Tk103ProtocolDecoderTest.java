@@ -1,9 +1,12 @@
 package org.traccar.protocol;
 
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.Test;
 import org.traccar.ProtocolTest;
 import org.traccar.model.Position;
 
+import java.nio.charset.StandardCharsets;
+
 public class Tk103ProtocolDecoderTest extends ProtocolTest {
 
     @Test
@@ -27,6 +30,9 @@ public class Tk103ProtocolDecoderTest extends ProtocolTest {
         verifyPosition(decoder, text(
                 "(868822040452227,DW3B,150421,A,4154.51607N,45.78950E,0.050,103142,0.000,595.200,7,0)"));
 
+        verifyPosition(decoder, buffer(
+                "(868822040452227,DW3B,150421,A,4154.51607N,45.78950E,0.050,103142,0.000,595.200,7,0)"));
+
         verifyPosition(decoder, text(
                 "(086375304593BR00210119A2220.0160N11335.4073E0000014000309.84001000293L0000015FP23BS27F)"));
 
@@ -230,6 +236,10 @@ public class Tk103ProtocolDecoderTest extends ProtocolTest {
         verifyNotNull(decoder, text(
                 "(864555555555555,ZC03,191117,234207,$1 .Sensor sensitivity: 1\r\n2 .Alert status: Off\r\n3 .Check interval is set to 240 minute(s).\r\n4 .Checkgsm interval is set to 60 minute(s).\r\n5 .SOS SMS Alert: On\r\n6 .SOS Call Alert: On\r\n7 . Power: 95%$)"));
 
+        verifyAttribute(decoder, Unpooled.copiedBuffer(
+                "(864555555555555,ZC03,191117,234207,$Température: 25°C$)", StandardCharsets.UTF_8),
+                Position.KEY_RESULT, "Température: 25°C");
+
     }
 
 }
@@ -0,0 +1,70 @@
+package org.traccar.reports;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+import org.traccar.reports.common.ReportTaskExecutor;
+import org.traccar.storage.StorageException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReportTaskExecutorTest {
+
+    private List<Device> devices(int count) {
+        List<Device> devices = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Device device = new Device();
+            device.setId(i);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    @Test
+    public void testOrder() throws StorageException {
+        var executor = new ReportTaskExecutor(new Config());
+        var results = executor.execute(1, devices(50), device -> {
+            try {
+                Thread.sleep(50 - device.getId());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return device.getId();
+        });
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i));
+        }
+    }
+
+    @Test
+    public void testException() {
+        var executor = new ReportTaskExecutor(new Config());
+        assertThrows(StorageException.class, () -> executor.execute(1, devices(10), device -> {
+            if (device.getId() == 5) {
+                throw new StorageException("test");
+            }
+            return device.getId();
+        }));
+        assertThrows(StorageException.class, () -> executor.execute(1, devices(10), device -> {
+            throw new StorageException("test");
+        }));
+    }
+
+    @Test
+    public void testCancel() {
+        var executor = new ReportTaskExecutor(new Config());
+        AtomicInteger count = new AtomicInteger();
+        assertThrows(StorageException.class, () -> executor.execute(1, devices(100), device -> {
+            count.incrementAndGet();
+            throw new StorageException("test");
+        }));
+        assertTrue(count.get() < 100);
+    }
+
+}
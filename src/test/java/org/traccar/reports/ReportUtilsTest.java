@@ -10,6 +10,7 @@ import org.traccar.config.Keys;
 import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Device;
 import org.traccar.model.Position;
+import org.traccar.model.PositionRollup;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.StopReportItem;
 import org.traccar.reports.model.TripReportItem;
@@ -101,6 +102,48 @@ public class ReportUtilsTest extends BaseTest {
         assertEquals(reportUtils.calculateFuel(startPosition, endPosition), 0.2, 0.01);
     }
 
+    @Test
+    public void testRollups() throws Exception {
+        ReportUtils reportUtils = new ReportUtils(
+                mock(Config.class), storage, mock(PermissionsService.class), mock(VelocityEngine.class), null);
+
+        List<Position> data = Arrays.asList(
+                position("2016-01-01 00:50:00.000", 10, 100),
+                position("2016-01-01 00:55:00.000", 20, 300),
+                position("2016-01-01 01:05:00.000", 30, 600),
+                position("2016-01-01 01:10:00.000", 0, 1000));
+        for (int i = 0; i < data.size(); i++) {
+            Position position = data.get(i);
+            position.setId(i + 1);
+            position.set(Position.KEY_DISTANCE, i > 0 ? position.getDouble(Position.KEY_TOTAL_DISTANCE)
+                    - data.get(i - 1).getDouble(Position.KEY_TOTAL_DISTANCE) : 0);
+            position.set(Position.KEY_HOURS, 3600000L + i * 300000L);
+            position.set(Position.KEY_FUEL_LEVEL, 50.0 - i);
+        }
+
+        PositionRollup first = new PositionRollup();
+        reportUtils.addRollupPosition(first, null, data.get(0));
+        reportUtils.addRollupPosition(first, data.get(0), data.get(1));
+        PositionRollup second = new PositionRollup();
+        reportUtils.addRollupPosition(second, data.get(1), data.get(2));
+        reportUtils.addRollupPosition(second, data.get(2), data.get(3));
+
+        assertEquals(200, first.getDistance(), 0.01);
+        assertEquals(700, second.getDistance(), 0.01);
+        assertEquals(15, second.getAverageSpeed(), 0.01);
+
+        reportUtils.mergeRollup(first, second);
+
+        assertEquals(1, first.getFirstPositionId());
+        assertEquals(4, first.getLastPositionId());
+        assertEquals(4, first.getPositionCount());
+        assertEquals(900, first.getDistance(), 0.01);
+        assertEquals(30, first.getMaxSpeed(), 0.01);
+        assertEquals(15, first.getAverageSpeed(), 0.01);
+        assertEquals(900000, first.getEngineHours());
+        assertEquals(3, first.getSpentFuel(), 0.01);
+    }
+
     @Test
     public void testDetectTripsSimple() throws Exception {
 
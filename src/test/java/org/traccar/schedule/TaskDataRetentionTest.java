@@ -0,0 +1,85 @@
+package org.traccar.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.metrics.MetricsManager;
+import org.traccar.model.Event;
+import org.traccar.model.Position;
+import org.traccar.storage.DatabasePartitions;
+import org.traccar.storage.DatabaseStorage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TaskDataRetentionTest {
+
+    private static void insert(Connection connection, String table, int id, int deviceId, int days)
+            throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " VALUES (?, ?, ?)")) {
+            statement.setInt(1, id);
+            statement.setInt(2, deviceId);
+            statement.setTimestamp(3, new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days)));
+            statement.execute();
+        }
+    }
+
+    private static String ids(Connection connection, String table) throws Exception {
+        StringBuilder result = new StringBuilder();
+        try (ResultSet resultSet = connection.createStatement().executeQuery(
+                "SELECT id FROM " + table + " ORDER BY id")) {
+            while (resultSet.next()) {
+                result.append(resultSet.getInt(1)).append(' ');
+            }
+        }
+        return result.toString().trim();
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:retention" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE tc_devices (id INT PRIMARY KEY, positionid INT)");
+            connection.createStatement().execute(
+                    "CREATE TABLE tc_positions (id INT PRIMARY KEY, deviceid INT, fixtime TIMESTAMP)");
+            connection.createStatement().execute(
+                    "CREATE TABLE tc_events (id INT PRIMARY KEY, deviceid INT, eventtime TIMESTAMP)");
+            connection.createStatement().execute("INSERT INTO tc_devices VALUES (1, 1), (2, 5)");
+            insert(connection, "tc_positions", 1, 1, 100);
+            insert(connection, "tc_positions", 2, 1, 60);
+            insert(connection, "tc_positions", 3, 1, 40);
+            insert(connection, "tc_positions", 4, 1, 1);
+            insert(connection, "tc_positions", 5, 2, 1);
+            insert(connection, "tc_events", 1, 1, 60);
+            insert(connection, "tc_events", 2, 2, 1);
+        }
+
+        Config config = new Config();
+        config.setString(Keys.DATABASE_RETENTION_POSITIONS, "30");
+        config.setString(Keys.DATABASE_RETENTION_EVENTS, "30");
+        var storage = spy(new DatabaseStorage(config, dataSource, new ObjectMapper(), new MetricsManager()));
+        new TaskDataRetention(config, storage, new DatabasePartitions(config, () -> dataSource)).run();
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals("1 4 5", ids(connection, "tc_positions"));
+            assertEquals("2", ids(connection, "tc_events"));
+        }
+        verify(storage, times(2)).removeObject(eq(Position.class), any());
+        verify(storage, times(1)).removeObject(eq(Event.class), any());
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.traccar.speedlimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingSpeedLimitProviderTest {
+
+    private static class DeferredSpeedLimitProvider implements SpeedLimitProvider {
+
+        private final List<SpeedLimitProviderCallback> requests = new ArrayList<>();
+
+        @Override
+        public void getSpeedLimit(double latitude, double longitude, SpeedLimitProviderCallback callback) {
+            requests.add(callback);
+        }
+
+    }
+
+    private static class ResultCallback implements SpeedLimitProvider.SpeedLimitProviderCallback {
+
+        private Double speedLimit;
+        private Throwable error;
+
+        @Override
+        public void onSuccess(double speedLimit) {
+            this.speedLimit = speedLimit;
+        }
+
+        @Override
+        public void onFailure(Throwable e) {
+            error = e;
+        }
+
+    }
+
+    @Test
+    public void testCoalescing() {
+        var source = new DeferredSpeedLimitProvider();
+        var provider = new CachingSpeedLimitProvider(source, 100, 60, 3);
+
+        var first = new ResultCallback();
+        var second = new ResultCallback();
+        provider.getSpeedLimit(10.0001, 20.0001, first);
+        provider.getSpeedLimit(10.0002, 20.0002, second);
+        assertEquals(1, source.requests.size());
+
+        source.requests.get(0).onSuccess(50);
+        assertEquals(50, first.speedLimit);
+        assertEquals(50, second.speedLimit);
+
+        var cached = new ResultCallback();
+        provider.getSpeedLimit(10.0003, 20.0003, cached);
+        assertEquals(50, cached.speedLimit);
+        assertEquals(1, source.requests.size());
+    }
+
+    @Test
+    public void testNotFound() {
+        var source = new DeferredSpeedLimitProvider();
+        var provider = new CachingSpeedLimitProvider(source, 100, 60, 3);
+
+        provider.getSpeedLimit(10.0001, 20.0001, new ResultCallback());
+        source.requests.get(0).onFailure(new SpeedLimitException("Not found"));
+
+        var cached = new ResultCallback();
+        provider.getSpeedLimit(10.0001, 20.0001, cached);
+        assertTrue(cached.error instanceof SpeedLimitException);
+        assertEquals(1, source.requests.size());
+    }
+
+    @Test
+    public void testPrefetch() {
+        var source = new DeferredSpeedLimitProvider();
+        var provider = new CachingSpeedLimitProvider(source, 100, 60, 3);
+
+        provider.getSpeedLimit(10.0005, 20.0005, 0, new ResultCallback());
+        assertEquals(1, source.requests.size());
+
+        source.requests.get(0).onSuccess(30);
+        assertEquals(2, source.requests.size());
+
+        source.requests.get(1).onSuccess(40);
+        assertEquals(2, source.requests.size());
+
+        var next = new ResultCallback();
+        provider.getSpeedLimit(10.0015, 20.0005, 0, next);
+        assertEquals(40, next.speedLimit);
+        assertEquals(3, source.requests.size());
+    }
+
+    @Test
+    public void testBackoff() {
+        var source = new DeferredSpeedLimitProvider();
+        var provider = new CachingSpeedLimitProvider(source, 100, 60, 3);
+
+        var first = new ResultCallback();
+        provider.getSpeedLimit(10.0005, 20.0005, 0, first);
+        source.requests.get(0).onFailure(new IOException("Timeout"));
+        assertTrue(first.error instanceof IOException);
+
+        var second = new ResultCallback();
+        provider.getSpeedLimit(10.0005, 20.0005, 0, second);
+        assertTrue(second.error instanceof IOException);
+        assertEquals(1, source.requests.size());
+    }
+
+    @Test
+    public void testSynchronousFailure() {
+        var provider = new CachingSpeedLimitProvider((latitude, longitude, callback) -> {
+            throw new SpeedLimitException("Not found");
+        }, 100, 60, 3);
+
+        var first = new ResultCallback();
+        provider.getSpeedLimit(10.0001, 20.0001, first);
+        assertTrue(first.error instanceof SpeedLimitException);
+
+        var second = new ResultCallback();
+        provider.getSpeedLimit(10.0001, 20.0001, second);
+        assertTrue(second.error instanceof SpeedLimitException);
+    }
+
+}
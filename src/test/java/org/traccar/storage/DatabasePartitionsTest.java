@@ -0,0 +1,35 @@
+package org.traccar.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DatabasePartitionsTest {
+
+    @Test
+    public void testNames() {
+        LocalDate end = LocalDate.of(2024, 1, 15);
+        assertEquals("tc_positions_p20240115", DatabasePartitions.getName("tc_positions", end));
+        assertEquals(end, DatabasePartitions.getEnd("tc_positions", "tc_positions_p20240115"));
+        assertEquals(end, DatabasePartitions.getEnd("tc_positions", "TC_POSITIONS_P20240115"));
+        assertNull(DatabasePartitions.getEnd("tc_positions", "tc_positions_pdefault"));
+        assertNull(DatabasePartitions.getEnd("tc_positions", "tc_positions_pmax"));
+        assertNull(DatabasePartitions.getEnd("tc_positions", "tc_events_p20240115"));
+    }
+
+    @Test
+    public void testExpired() {
+        Date cutoff = Date.from(LocalDate.of(2024, 1, 15).atTime(12, 0).toInstant(ZoneOffset.UTC));
+        assertTrue(DatabasePartitions.isExpired(LocalDate.of(2024, 1, 14), cutoff));
+        assertFalse(DatabasePartitions.isExpired(LocalDate.of(2024, 1, 15), cutoff));
+        assertFalse(DatabasePartitions.isExpired(LocalDate.of(2024, 1, 16), cutoff));
+    }
+
+}
@@ -0,0 +1,57 @@
+package org.traccar.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.metrics.MetricsManager;
+import org.traccar.model.Device;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DatabaseStorageTest {
+
+    private static DatabaseStorage createStorage() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:storage" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE tc_devices (id INT PRIMARY KEY, name VARCHAR(128))");
+            for (int i = 1; i <= 10; i++) {
+                connection.createStatement().execute("INSERT INTO tc_devices VALUES (" + i + ", 'device" + i + "')");
+            }
+        }
+        return new DatabaseStorage(new Config(), dataSource, new ObjectMapper(), new MetricsManager());
+    }
+
+    @Test
+    public void testInPadding() throws Exception {
+        var storage = createStorage();
+        for (int size = 0; size <= 10; size++) {
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= size; id++) {
+                ids.add(id);
+            }
+            var devices = storage.getObjects(Device.class, new Request(
+                    new Columns.Include("id", "name"), new Condition.In("id", ids)));
+            assertEquals(size, devices.size());
+        }
+    }
+
+    @Test
+    public void testUnknownCondition() throws Exception {
+        var storage = createStorage();
+        Condition unknown = new Condition() {
+        };
+        assertThrows(IllegalArgumentException.class, () -> storage.getObjects(Device.class, new Request(
+                new Columns.All(), unknown)));
+    }
+
+}
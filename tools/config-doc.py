@@ -4,13 +4,14 @@ import re
 import os
 import argparse
 
-_KEYS_FILE = os.path.join(
-    os.path.dirname(__file__), "../src/main/java/org/traccar/config/Keys.java"
-)
+_KEYS_FILES = [
+    os.path.join(os.path.dirname(__file__), "../src/main/java/org/traccar/config/" + name)
+    for name in ["Keys.java", "LocationKeys.java"]
+]
 
 
 def get_config_keys():
-    """Parses Keys.java to extract keys to be used in configuration files
+    """Parses Keys.java and LocationKeys.java to extract keys to be used in configuration files
 
     Args: None
 
@@ -22,29 +23,31 @@ def get_config_keys():
     types_match_re = re.compile(r"List\.of\(([^)]+)\)", re.DOTALL)
     keys = []
 
-    with open(_KEYS_FILE, "r") as f:
-        config = re.findall(r"/\*\*\s.*?\);", f.read(), re.DOTALL)
-        for i in config:
-            lines = i.splitlines()
-            index = -1
-            default = None
-            if "List.of" not in lines[index]:
-                default = lines[index].strip()[:-2]
-                index -= 1
-            types_match = types_match_re.search(lines[index])
-            types = map(lambda x: x[8:].lower(), types_match[1].split(", "))
+    config = []
+    for keys_file in _KEYS_FILES:
+        with open(keys_file, "r") as f:
+            config += re.findall(r"/\*\*\s.*?\);", f.read(), re.DOTALL)
+    for i in config:
+        lines = i.splitlines()
+        index = -1
+        default = None
+        if "List.of" not in lines[index]:
+            default = lines[index].strip()[:-2]
             index -= 1
-            key = lines[index].strip()[1:-2]
-            key = "[protocol]" + key if key.startswith('.') else key
-            description = " ".join([l.strip()[2:] for l in lines if l.startswith("     * ")])
-            keys.append(
-                {
-                    "key": key,
-                    "description": description,
-                    "types": types,
-                    "default": default,
-                }
-            )
+        types_match = types_match_re.search(lines[index])
+        types = map(lambda x: x[8:].lower(), types_match[1].split(", "))
+        index -= 1
+        key = lines[index].strip()[1:-2]
+        key = "[protocol]" + key if key.startswith('.') else key
+        description = " ".join([l.strip()[2:] for l in lines if l.startswith("     * ")])
+        keys.append(
+            {
+                "key": key,
+                "description": description,
+                "types": types,
+                "default": default,
+            }
+        )
 
     return keys
 